@@ -1,5 +1,6 @@
 package org.odk.collect.async
 
+import android.os.Build
 import androidx.work.Constraints
 import androidx.work.Data
 import androidx.work.ExistingPeriodicWorkPolicy
@@ -51,6 +52,26 @@ class CoroutineAndWorkManagerScheduler(foregroundContext: CoroutineContext, back
         workManager.enqueueUniquePeriodicWork(tag, ExistingPeriodicWorkPolicy.REPLACE, workRequest)
     }
 
+    override fun idleDeferred(tag: String, spec: TaskSpec, inputData: Map<String, String>) {
+        val constraintsBuilder = Constraints.Builder()
+            .setRequiresCharging(true)
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.M) {
+            constraintsBuilder.setRequiresDeviceIdle(true)
+        }
+
+        val workManagerInputData = Data.Builder().putAll(inputData).build()
+
+        val worker = spec.getWorkManagerAdapter()
+        val workRequest = OneTimeWorkRequest.Builder(worker)
+            .addTag(tag)
+            .setConstraints(constraintsBuilder.build())
+            .setInputData(workManagerInputData)
+            .build()
+
+        workManager.beginUniqueWork(tag, ExistingWorkPolicy.KEEP, workRequest).enqueue()
+    }
+
     override fun cancelDeferred(tag: String) {
         workManager.cancelUniqueWork(tag)
     }
@@ -49,6 +49,10 @@ open class CoroutineScheduler(private val foregroundContext: CoroutineContext, p
         throw UnsupportedOperationException()
     }
 
+    override fun idleDeferred(tag: String, spec: TaskSpec, inputData: Map<String, String>) {
+        throw UnsupportedOperationException()
+    }
+
     override fun cancelDeferred(tag: String) {
         throw UnsupportedOperationException()
     }
@@ -54,6 +54,17 @@ interface Scheduler {
         inputData: Map<String, String>
     )
 
+    /**
+     * Schedule a task to run in the background even if the app isn't running. The task
+     * will only be run when the device is charging and (where supported) idle.
+     *
+     * @param tag used to identify this task in future. If there is a previously scheduled task
+     * with the same tag then that task then nothing new will be scheduled (this becomes  no-op)
+     * @param spec defines the task to be run
+     * @param inputData a map of input data that can be accessed by the task
+     */
+    fun idleDeferred(tag: String, spec: TaskSpec, inputData: Map<String, String>)
+
     /**
      * Cancel deferred task scheduled with tag
      */
@@ -30,6 +30,7 @@ public class FormHierarchyTest {
             .around(new CopyFormRule("formHierarchy2.xml", null))
             .around(new CopyFormRule("formHierarchy3.xml", null))
             .around(new CopyFormRule("repeat_group_new.xml", null))
+            .around(new CopyFormRule("repeat_many_instances.xml", null))
             .around(rule);
 
     @Test
@@ -123,6 +124,33 @@ public class FormHierarchyTest {
         page.assertTextDoesNotExist("Repeat Group 1");
     }
 
+    @Test
+    public void repeatWithManyInstancesEndingInNestedRepeat_showsQuestionsAfterIt() {
+        FormHierarchyPage page = new MainMenuPage()
+                .startBlankForm("repeatManyInstances")
+                .assertQuestion("Intro")
+                .clickGoToArrow();
+
+        onView(withId(R.id.list)).check(matches(RecyclerViewMatcher.withListSize(3)));
+        onView(withRecyclerView(R.id.list)
+                .atPositionOnView(1, R.id.primary_text))
+                .check(matches(withText("Person")));
+        onView(withRecyclerView(R.id.list)
+                .atPositionOnView(2, R.id.primary_text))
+                .check(matches(withText("Last question")));
+
+        page.clickOnText("Person");
+
+        onView(withId(R.id.list)).check(matches(RecyclerViewMatcher.withListSize(40)));
+
+        page.clickOnText("Person > 1");
+
+        onView(withId(R.id.list)).check(matches(RecyclerViewMatcher.withListSize(2)));
+        onView(withRecyclerView(R.id.list)
+                .atPositionOnView(1, R.id.primary_text))
+                .check(matches(withText("Tattoo")));
+    }
+
     @Test
     //https://github.com/getodk/collect/issues/2942
     public void deletingLastGroupShouldNotBreakHierarchy() {
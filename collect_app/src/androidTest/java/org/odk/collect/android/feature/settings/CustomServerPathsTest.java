@@ -1,6 +1,7 @@
 package org.odk.collect.android.feature.settings;
 
 import android.Manifest;
+import android.content.Context;
 import android.webkit.MimeTypeMap;
 
 import androidx.test.ext.junit.runners.AndroidJUnit4;
@@ -33,7 +34,7 @@ public class CustomServerPathsTest {
             .outerRule(GrantPermissionRule.grant(Manifest.permission.READ_PHONE_STATE))
             .around(new ResetStateRule(new AppDependencyModule() {
                 @Override
-                public OpenRosaHttpInterface provideHttpInterface(MimeTypeMap mimeTypeMap, UserAgentProvider userAgentProvider) {
+                public OpenRosaHttpInterface provideHttpInterface(Context context, MimeTypeMap mimeTypeMap, UserAgentProvider userAgentProvider) {
                     return server;
                 }
             }))
@@ -1,6 +1,7 @@
 package org.odk.collect.android.feature.smoke;
 
 import android.Manifest;
+import android.content.Context;
 import android.webkit.MimeTypeMap;
 
 import androidx.test.ext.junit.runners.AndroidJUnit4;
@@ -34,7 +35,7 @@ public class BadServerTest {
             ))
             .around(new ResetStateRule(new AppDependencyModule() {
                 @Override
-                public OpenRosaHttpInterface provideHttpInterface(MimeTypeMap mimeTypeMap, UserAgentProvider userAgentProvider) {
+                public OpenRosaHttpInterface provideHttpInterface(Context context, MimeTypeMap mimeTypeMap, UserAgentProvider userAgentProvider) {
                     return server;
                 }
             }))
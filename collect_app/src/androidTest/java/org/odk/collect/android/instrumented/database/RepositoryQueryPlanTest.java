@@ -0,0 +1,105 @@
+package org.odk.collect.android.instrumented.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.odk.collect.android.database.forms.DatabaseFormsRepository;
+import org.odk.collect.android.database.forms.FormDatabaseMigrator;
+import org.odk.collect.android.database.instances.DatabaseInstancesRepository;
+import org.odk.collect.android.database.instances.InstanceDatabaseMigrator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.fail;
+import static org.odk.collect.android.database.DatabaseConstants.FORMS_TABLE_NAME;
+import static org.odk.collect.android.database.DatabaseConstants.INSTANCES_TABLE_NAME;
+
+/**
+ * Checks the query plans (on the device's own SQLite) for the selections that
+ * {@link DatabaseFormsRepository} and {@link DatabaseInstancesRepository} look rows up with, so that
+ * a query or schema change that would scan every form or instance fails here rather than
+ * slowing down devices with a lot of them. Queries that fetch every row (like getAll) are
+ * left out as they can't avoid a scan.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RepositoryQueryPlanTest {
+
+    private SQLiteDatabase formsDatabase;
+    private SQLiteDatabase instancesDatabase;
+
+    @Before
+    public void setup() {
+        formsDatabase = SQLiteDatabase.create(null);
+        new FormDatabaseMigrator().onCreate(formsDatabase);
+
+        instancesDatabase = SQLiteDatabase.create(null);
+        new InstanceDatabaseMigrator().onCreate(instancesDatabase);
+    }
+
+    @After
+    public void teardown() {
+        formsDatabase.close();
+        instancesDatabase.close();
+    }
+
+    @Test
+    public void formsRepositoryQueries_doNotScanTable() {
+        assertNoScan(formsDatabase, FORMS_TABLE_NAME, DatabaseFormsRepository.SELECTION_BY_ID);
+        assertNoScan(formsDatabase, FORMS_TABLE_NAME, DatabaseFormsRepository.SELECTION_BY_PATH);
+        assertNoScan(formsDatabase, FORMS_TABLE_NAME, DatabaseFormsRepository.SELECTION_BY_MD5_HASH);
+        assertNoScan(formsDatabase, FORMS_TABLE_NAME, DatabaseFormsRepository.SELECTION_BY_FORM_ID);
+        assertNoScan(formsDatabase, FORMS_TABLE_NAME, DatabaseFormsRepository.SELECTION_BY_FORM_ID_AND_VERSION);
+        assertNoScan(formsDatabase, FORMS_TABLE_NAME, DatabaseFormsRepository.SELECTION_BY_FORM_ID_WITHOUT_VERSION);
+        assertNoScan(formsDatabase, FORMS_TABLE_NAME, DatabaseFormsRepository.SELECTION_NOT_DELETED_BY_FORM_ID);
+        assertNoScan(formsDatabase, FORMS_TABLE_NAME, DatabaseFormsRepository.SELECTION_NOT_DELETED_BY_FORM_ID_AND_VERSION);
+        assertNoScan(formsDatabase, FORMS_TABLE_NAME, DatabaseFormsRepository.SELECTION_NOT_DELETED_BY_FORM_ID_WITHOUT_VERSION);
+    }
+
+    @Test
+    public void instancesRepositoryQueries_doNotScanTable() {
+        assertNoScan(instancesDatabase, INSTANCES_TABLE_NAME, DatabaseInstancesRepository.SELECTION_BY_ID);
+        assertNoScan(instancesDatabase, INSTANCES_TABLE_NAME, DatabaseInstancesRepository.SELECTION_BY_PATH);
+        assertNoScan(instancesDatabase, INSTANCES_TABLE_NAME, DatabaseInstancesRepository.SELECTION_NOT_DELETED);
+        assertNoScan(instancesDatabase, INSTANCES_TABLE_NAME, DatabaseInstancesRepository.SELECTION_BY_FORM_ID);
+        assertNoScan(instancesDatabase, INSTANCES_TABLE_NAME, DatabaseInstancesRepository.SELECTION_NOT_DELETED_BY_FORM_ID_AND_VERSION);
+        assertNoScan(instancesDatabase, INSTANCES_TABLE_NAME, DatabaseInstancesRepository.SELECTION_NOT_DELETED_BY_FORM_ID_WITHOUT_VERSION);
+        assertNoScan(instancesDatabase, INSTANCES_TABLE_NAME, DatabaseInstancesRepository.getSelectionByStatus(1));
+        assertNoScan(instancesDatabase, INSTANCES_TABLE_NAME, DatabaseInstancesRepository.getSelectionByStatus(2));
+        assertNoScan(instancesDatabase, INSTANCES_TABLE_NAME, DatabaseInstancesRepository.getSelectionByStatus(3));
+        assertNoScan(instancesDatabase, INSTANCES_TABLE_NAME, DatabaseInstancesRepository.getSelectionByFormIdInBounds(false));
+        assertNoScan(instancesDatabase, INSTANCES_TABLE_NAME, DatabaseInstancesRepository.getSelectionByFormIdInBounds(true));
+    }
+
+    private static void assertNoScan(SQLiteDatabase db, String table, String selection) {
+        String query = "SELECT * FROM " + table + " WHERE " + selection;
+
+        // The values bound to parameters don't affect the plan
+        int parameters = selection.length() - selection.replace("?", "").length();
+        String[] args = new String[parameters];
+        for (int i = 0; i < parameters; i++) {
+            args[i] = "value";
+        }
+
+        List<String> plan = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + query, args)) {
+            int detailColumn = cursor.getColumnIndexOrThrow("detail");
+            while (cursor.moveToNext()) {
+                plan.add(cursor.getString(detailColumn));
+            }
+        }
+
+        for (String step : plan) {
+            // "SCAN TABLE <table>" on older versions of SQLite, "SCAN <table>" on newer ones
+            if (step.startsWith("SCAN ")) {
+                fail("Query scans " + table + ": " + query + "\n" + plan);
+            }
+        }
+    }
+}
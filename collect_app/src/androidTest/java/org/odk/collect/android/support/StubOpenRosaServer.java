@@ -68,6 +68,13 @@ public class StubOpenRosaServer implements OpenRosaHttpInterface {
         }
     }
 
+    @NonNull
+    @Override
+    public HttpGetResult executeGetRequest(@NonNull URI uri, @Nullable String contentType, @Nullable HttpCredentialsInterface credentials, long fromByte) throws Exception {
+        // Ranges aren't supported so the whole response is returned
+        return executeGetRequest(uri, contentType, credentials);
+    }
+
     @NonNull
     @Override
     public HttpHeadResult executeHeadRequest(@NonNull URI uri, @Nullable HttpCredentialsInterface credentials) throws Exception {
@@ -92,6 +99,12 @@ public class StubOpenRosaServer implements OpenRosaHttpInterface {
     @NonNull
     @Override
     public HttpPostResult uploadSubmissionAndFiles(@NonNull File submissionFile, @NonNull List<File> fileList, @NonNull URI uri, @Nullable HttpCredentialsInterface credentials, @NonNull long contentLength) throws Exception {
+        return uploadSubmissionAndFiles(submissionFile, fileList, uri, credentials, contentLength, false, null);
+    }
+
+    @NonNull
+    @Override
+    public HttpPostResult uploadSubmissionAndFiles(@NonNull File submissionFile, @NonNull List<File> fileList, @NonNull URI uri, @Nullable HttpCredentialsInterface credentials, @NonNull long contentLength, boolean compressTextFiles, @Nullable UploadProgressListener progressListener) throws Exception {
         if (alwaysReturnError) {
             return new HttpPostResult("", 500, "");
         }
@@ -39,7 +39,7 @@ public class TestDependencies extends AppDependencyModule {
     );
 
     @Override
-    public OpenRosaHttpInterface provideHttpInterface(MimeTypeMap mimeTypeMap, UserAgentProvider userAgentProvider) {
+    public OpenRosaHttpInterface provideHttpInterface(Context context, MimeTypeMap mimeTypeMap, UserAgentProvider userAgentProvider) {
         return server;
     }
 
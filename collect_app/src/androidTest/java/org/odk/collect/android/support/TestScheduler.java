@@ -73,6 +73,11 @@ public class TestScheduler implements Scheduler {
         deferredTasks.add(new DeferredTask(tag, spec, repeatPeriod, inputData));
     }
 
+    @Override
+    public void idleDeferred(@NotNull String tag, @NotNull TaskSpec spec, @NotNull Map<String, String> inputData) {
+        deferredTasks.add(new DeferredTask(tag, spec, null, inputData));
+    }
+
     @Override
     public void cancelDeferred(@NotNull String tag) {
         deferredTasks.removeIf(t -> t.getTag().equals(tag));
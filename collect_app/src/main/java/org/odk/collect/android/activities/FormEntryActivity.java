@@ -165,9 +165,11 @@ import org.odk.collect.forms.instances.Instance;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 
 import javax.inject.Inject;
 
@@ -982,7 +984,9 @@ public class FormEntryActivity extends CollectAbstractActivity implements Animat
         return true;
     }
 
-    // The method saves questions one by one in order to support calculations in field-list groups
+    // The method saves questions one by one in order to support calculations in field-list groups.
+    // Answers that are the same as the ones in the form are skipped so that only the triggerables
+    // of the question that changed are evaluated.
     private void saveAnswersForCurrentScreen(FormEntryPrompt[] mutableQuestionsBeforeSave, List<ImmutableDisplayableQuestion> immutableQuestionsBeforeSave) {
         FormController formController = getFormController();
         ODKView currentView = getCurrentViewIfODKView();
@@ -993,7 +997,8 @@ public class FormEntryActivity extends CollectAbstractActivity implements Animat
         int index = 0;
         for (Map.Entry<FormIndex, IAnswerData> answer : currentView.getAnswers().entrySet()) {
             // Questions with calculates will have their answers updated as the questions they depend on are saved
-            if (!isQuestionRecalculated(mutableQuestionsBeforeSave[index], immutableQuestionsBeforeSave.get(index))) {
+            if (!isQuestionRecalculated(mutableQuestionsBeforeSave[index], immutableQuestionsBeforeSave.get(index))
+                    && !isAnswerUnchanged(mutableQuestionsBeforeSave[index], answer.getValue())) {
                 try {
                     formController.saveOneScreenAnswer(answer.getKey(), answer.getValue(), false);
                 } catch (JavaRosaException e) {
@@ -2549,8 +2554,8 @@ public class FormEntryActivity extends CollectAbstractActivity implements Animat
         // starts from the end and itemset-based select choices will only be correctly recomputed
         // if accessed from beginning to end because the call on sameAs is what calls
         // populateDynamicChoices. See https://github.com/getodk/javarosa/issues/436
-        List<FormEntryPrompt> questionsThatHaveNotChanged = new ArrayList<>();
-        List<FormIndex> formIndexesToRemove = new ArrayList<>();
+        Set<FormIndex> questionsThatHaveNotChanged = new HashSet<>();
+        Set<FormIndex> formIndexesToRemove = new HashSet<>();
         for (ImmutableDisplayableQuestion questionBeforeSave : immutableQuestionsBeforeSave) {
             FormEntryPrompt questionAtSameFormIndex = questionsAfterSaveByIndex.get(questionBeforeSave.getFormIndex());
 
@@ -2558,7 +2563,7 @@ public class FormEntryActivity extends CollectAbstractActivity implements Animat
             // bypass SelectChoices stored in ImmutableDisplayableQuestion
             if (questionBeforeSave.sameAs(questionAtSameFormIndex)
                     && !getFormController().usesDatabaseExternalDataFeature(questionBeforeSave.getFormIndex())) {
-                questionsThatHaveNotChanged.add(questionAtSameFormIndex);
+                questionsThatHaveNotChanged.add(questionAtSameFormIndex.getIndex());
             } else if (!lastChangedIndex.equals(questionBeforeSave.getFormIndex())) {
                 formIndexesToRemove.add(questionBeforeSave.getFormIndex());
             }
@@ -2573,7 +2578,7 @@ public class FormEntryActivity extends CollectAbstractActivity implements Animat
         }
 
         for (int i = 0; i < questionsAfterSave.length; i++) {
-            if (!questionsThatHaveNotChanged.contains(questionsAfterSave[i])
+            if (!questionsThatHaveNotChanged.contains(questionsAfterSave[i].getIndex())
                     && !questionsAfterSave[i].getIndex().equals(lastChangedIndex)) {
                 // The values of widgets in intent groups are set by the view so widgetValueChanged
                 // is never called. This means readOnlyOverride can always be set to false.
@@ -2587,6 +2592,15 @@ public class FormEntryActivity extends CollectAbstractActivity implements Animat
         return !Objects.equals(mutableQuestionBeforeSave.getAnswerText(), immutableQuestionBeforeSave.getAnswerText());
     }
 
+    private static boolean isAnswerUnchanged(FormEntryPrompt question, IAnswerData answer) {
+        IAnswerData savedAnswer = question.getAnswerValue();
+        if (answer == null || savedAnswer == null) {
+            return answer == savedAnswer;
+        }
+
+        return answer.uncast().getString().equals(savedAnswer.uncast().getString());
+    }
+
     private HashMap<FormIndex, IAnswerData> getAnswers() {
         ODKView currentViewIfODKView = getCurrentViewIfODKView();
 
@@ -52,7 +52,9 @@ import org.odk.collect.android.utilities.FormEntryPromptUtils;
 import org.odk.collect.android.utilities.MultiClickGuard;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.inject.Inject;
 
@@ -65,7 +67,7 @@ public class FormHierarchyActivity extends CollectAbstractActivity implements De
     public static final int RESULT_ADD_REPEAT = 2;
     /**
      * The questions and repeats at the current level.
-     * Recreated every time {@link #refreshView()} is called.
+     * Rebuilt (or taken from {@link #elementsByScreen}) every time {@link #refreshView()} is called.
      */
     private List<HierarchyElement> elementsToDisplay;
 
@@ -111,6 +113,13 @@ public class FormHierarchyActivity extends CollectAbstractActivity implements De
      */
     private Menu optionsMenu;
 
+    /**
+     * The elements of screens that have already been built, keyed by {@link #getScreenKey()}.
+     * Answers can't change while the hierarchy is displayed so these stay valid until the
+     * structure of the form changes (when a repeat is deleted).
+     */
+    private final Map<String, List<HierarchyElement>> elementsByScreen = new HashMap<>();
+
     protected Button jumpBeginningButton;
     protected Button jumpEndButton;
     protected RecyclerView recyclerView;
@@ -506,173 +515,195 @@ public class FormHierarchyActivity extends CollectAbstractActivity implements De
                 groupPathTextView.setText(getCurrentPath());
             }
 
-            // Refresh the current event in case we did step forward.
-            event = formController.getEvent();
-
-            // Ref to the parent group that's currently being displayed.
-            //
-            // Because of the guard conditions below, we will skip
-            // everything until we exit this group.
-            TreeReference visibleGroupRef = null;
+            List<HierarchyElement> cachedElements = elementsByScreen.get(getScreenKey());
+            if (cachedElements != null) {
+                elementsToDisplay = cachedElements;
+            } else {
+                addElementsToDisplay(formController);
+                elementsByScreen.put(getScreenKey(), elementsToDisplay);
+            }
 
-            while (event != FormEntryController.EVENT_END_OF_FORM) {
-                // get the ref to this element
-                TreeReference currentRef = formController.getFormIndex().getReference();
+            recyclerView.setAdapter(new HierarchyListAdapter(elementsToDisplay, this::onElementClick));
 
-                // retrieve the current group
-                TreeReference curGroup = (visibleGroupRef == null) ? contextGroupRef : visibleGroupRef;
+            formController.jumpToIndex(currentIndex);
 
-                if (curGroup != null && !curGroup.isParentOf(currentRef, false)) {
-                    // We have left the current group
-                    if (visibleGroupRef == null) {
-                        // We are done.
-                        break;
-                    } else {
-                        // exit the inner group
-                        visibleGroupRef = null;
-                    }
+            // Prevent a redundant middle screen (common on many forms
+            // that use presentation groups to display labels).
+            if (isDisplayingSingleGroup() && !screenIndex.isBeginningOfFormIndex()) {
+                if (isGoingUp) {
+                    // Back out once more.
+                    goUpLevel();
+                } else {
+                    // Enter automatically.
+                    formController.jumpToIndex(elementsToDisplay.get(0).getFormIndex());
+                    refreshView();
                 }
+            }
+        } catch (Exception e) {
+            Timber.e(e);
+            createErrorDialog(e.getMessage());
+        }
+    }
 
-                if (visibleGroupRef != null) {
-                    // We're in a group within the one we want to list
-                    // skip this question/group/repeat and move to the next index.
-                    event =
-                            formController.stepToNextEvent(FormController.STEP_INTO_GROUP);
-                    continue;
+    /**
+     * Walks the current screen from the FormController's index adding the elements to display.
+     * Only the elements of the screen itself are visited: groups and repeat instances that are
+     * displayed as a single element are stepped over rather than walked through so that the time
+     * this takes doesn't depend on how many questions they contain.
+     */
+    private void addElementsToDisplay(FormController formController) {
+        // Refresh the current event in case we did step forward.
+        int event = formController.getEvent();
+
+        // Ref to the parent group that's currently being displayed.
+        //
+        // Because of the guard conditions below, we will skip
+        // everything until we exit this group.
+        TreeReference visibleGroupRef = null;
+
+        while (event != FormEntryController.EVENT_END_OF_FORM) {
+            // get the ref to this element
+            TreeReference currentRef = formController.getFormIndex().getReference();
+
+            // retrieve the current group
+            TreeReference curGroup = (visibleGroupRef == null) ? contextGroupRef : visibleGroupRef;
+
+            if (curGroup != null && !curGroup.isParentOf(currentRef, false)) {
+                // We have left the current group
+                if (visibleGroupRef == null) {
+                    // We are done.
+                    break;
+                } else {
+                    // exit the inner group
+                    visibleGroupRef = null;
                 }
+            }
 
-                switch (event) {
-                    case FormEntryController.EVENT_QUESTION: {
-                        // Nothing but repeat group instances should show up in the picker.
-                        if (shouldShowRepeatGroupPicker()) {
-                            break;
-                        }
+            if (visibleGroupRef != null) {
+                // We're in a group within the one we want to list
+                // skip this question/group/repeat and move to the next index.
+                event =
+                        formController.stepToNextEvent(FormController.STEP_INTO_GROUP);
+                continue;
+            }
 
-                        FormEntryPrompt fp = formController.getQuestionPrompt();
-                        String label = fp.getShortText();
-                        String answerDisplay = FormEntryPromptUtils.getAnswerText(fp, this, formController);
-                        elementsToDisplay.add(
-                                new HierarchyElement(FormEntryPromptUtils.markQuestionIfIsRequired(label, fp.isRequired()), answerDisplay, null,
-                                        HierarchyElement.Type.QUESTION, fp.getIndex()));
+            switch (event) {
+                case FormEntryController.EVENT_QUESTION: {
+                    // Nothing but repeat group instances should show up in the picker.
+                    if (shouldShowRepeatGroupPicker()) {
                         break;
                     }
-                    case FormEntryController.EVENT_GROUP: {
-                        if (!formController.isGroupRelevant()) {
-                            break;
-                        }
-                        // Nothing but repeat group instances should show up in the picker.
-                        if (shouldShowRepeatGroupPicker()) {
-                            break;
-                        }
 
-                        FormIndex index = formController.getFormIndex();
+                    FormEntryPrompt fp = formController.getQuestionPrompt();
+                    String label = fp.getShortText();
+                    String answerDisplay = FormEntryPromptUtils.getAnswerText(fp, this, formController);
+                    elementsToDisplay.add(
+                            new HierarchyElement(FormEntryPromptUtils.markQuestionIfIsRequired(label, fp.isRequired()), answerDisplay, null,
+                                    HierarchyElement.Type.QUESTION, fp.getIndex()));
+                    break;
+                }
+                case FormEntryController.EVENT_GROUP: {
+                    if (!formController.isGroupRelevant()) {
+                        break;
+                    }
+                    // Nothing but repeat group instances should show up in the picker.
+                    if (shouldShowRepeatGroupPicker()) {
+                        break;
+                    }
 
-                        // Only display groups with a specific appearance attribute.
-                        if (!formController.isDisplayableGroup(index)) {
-                            break;
-                        }
+                    FormIndex index = formController.getFormIndex();
 
-                        // Don't render other groups' children.
-                        if (contextGroupRef != null && !contextGroupRef.isParentOf(currentRef, false)) {
-                            break;
-                        }
+                    // Only display groups with a specific appearance attribute.
+                    if (!formController.isDisplayableGroup(index)) {
+                        break;
+                    }
+
+                    // Don't render other groups' children.
+                    if (contextGroupRef != null && !contextGroupRef.isParentOf(currentRef, false)) {
+                        break;
+                    }
 
-                        visibleGroupRef = currentRef;
+                    visibleGroupRef = currentRef;
 
-                        FormEntryCaption caption = formController.getCaptionPrompt();
-                        HierarchyElement groupElement = new HierarchyElement(
-                                caption.getShortText(), getString(R.string.group_label),
-                                ContextCompat.getDrawable(this, R.drawable.ic_folder_open),
-                                HierarchyElement.Type.VISIBLE_GROUP, caption.getIndex());
-                        elementsToDisplay.add(groupElement);
+                    FormEntryCaption caption = formController.getCaptionPrompt();
+                    HierarchyElement groupElement = new HierarchyElement(
+                            caption.getShortText(), getString(R.string.group_label),
+                            ContextCompat.getDrawable(this, R.drawable.ic_folder_open),
+                            HierarchyElement.Type.VISIBLE_GROUP, caption.getIndex());
+                    elementsToDisplay.add(groupElement);
 
-                        // Skip to the next item outside the group.
-                        event = formController.stepOverGroup();
-                        continue;
-                    }
-                    case FormEntryController.EVENT_PROMPT_NEW_REPEAT: {
-                        // this would display the 'add new repeat' dialog
-                        // ignore it.
+                    // Skip to the next item outside the group.
+                    event = formController.stepOverGroup();
+                    continue;
+                }
+                case FormEntryController.EVENT_PROMPT_NEW_REPEAT: {
+                    // this would display the 'add new repeat' dialog
+                    // ignore it.
+                    break;
+                }
+                case FormEntryController.EVENT_REPEAT: {
+                    if (!formController.isGroupRelevant()) {
                         break;
                     }
-                    case FormEntryController.EVENT_REPEAT: {
-                        if (!formController.isGroupRelevant()) {
-                            break;
-                        }
 
-                        visibleGroupRef = currentRef;
+                    visibleGroupRef = currentRef;
+
+                    FormEntryCaption fc = formController.getCaptionPrompt();
 
-                        FormEntryCaption fc = formController.getCaptionPrompt();
+                    // Don't render other groups' children.
+                    if (contextGroupRef != null && !contextGroupRef.isParentOf(currentRef, false)) {
+                        break;
+                    }
 
-                        // Don't render other groups' children.
-                        if (contextGroupRef != null && !contextGroupRef.isParentOf(currentRef, false)) {
+                    if (shouldShowRepeatGroupPicker()) {
+                        // Don't render other groups' instances.
+                        String repeatGroupPickerRef = repeatGroupPickerIndex.getReference().toString(false);
+                        if (!currentRef.toString(false).equals(repeatGroupPickerRef)) {
                             break;
                         }
 
-                        if (shouldShowRepeatGroupPicker()) {
-                            // Don't render other groups' instances.
-                            String repeatGroupPickerRef = repeatGroupPickerIndex.getReference().toString(false);
-                            if (!currentRef.toString(false).equals(repeatGroupPickerRef)) {
-                                break;
-                            }
-
-                            int itemNumber = fc.getMultiplicity() + 1;
+                        int itemNumber = fc.getMultiplicity() + 1;
 
-                            // e.g. `friends > 1`
-                            String repeatLabel = fc.getShortText() + " > " + itemNumber;
+                        // e.g. `friends > 1`
+                        String repeatLabel = fc.getShortText() + " > " + itemNumber;
 
-                            // If the child of the group has a more descriptive label, use that instead.
-                            if (fc.getFormElement().getChildren().size() == 1 && fc.getFormElement().getChild(0) instanceof GroupDef) {
-                                formController.stepToNextEvent(FormController.STEP_INTO_GROUP);
-                                String itemLabel = formController.getCaptionPrompt().getShortText();
-                                if (itemLabel != null) {
-                                    // e.g. `1. Alice`
-                                    repeatLabel = itemNumber + ".\u200E " + itemLabel;
-                                }
+                        // If the child of the group has a more descriptive label, use that instead.
+                        if (fc.getFormElement().getChildren().size() == 1 && fc.getFormElement().getChild(0) instanceof GroupDef) {
+                            formController.stepToNextEvent(FormController.STEP_INTO_GROUP);
+                            String itemLabel = formController.getCaptionPrompt().getShortText();
+                            if (itemLabel != null) {
+                                // e.g. `1. Alice`
+                                repeatLabel = itemNumber + ".\u200E " + itemLabel;
                             }
-
-                            HierarchyElement instance = new HierarchyElement(
-                                    repeatLabel, null,
-                                    null, HierarchyElement.Type.REPEAT_INSTANCE, fc.getIndex());
-                            elementsToDisplay.add(instance);
-                        } else if (fc.getMultiplicity() == 0) {
-                            // Display the repeat header for the group.
-                            HierarchyElement group = new HierarchyElement(
-                                    fc.getShortText(), getString(R.string.repeatable_group_label),
-                                    ContextCompat.getDrawable(this, R.drawable.ic_repeat),
-                                    HierarchyElement.Type.REPEATABLE_GROUP, fc.getIndex());
-                            elementsToDisplay.add(group);
                         }
 
-                        break;
+                        HierarchyElement instance = new HierarchyElement(
+                                repeatLabel, null,
+                                null, HierarchyElement.Type.REPEAT_INSTANCE, fc.getIndex());
+                        elementsToDisplay.add(instance);
+                    } else if (fc.getMultiplicity() == 0) {
+                        // Display the repeat header for the group.
+                        HierarchyElement group = new HierarchyElement(
+                                fc.getShortText(), getString(R.string.repeatable_group_label),
+                                ContextCompat.getDrawable(this, R.drawable.ic_repeat),
+                                HierarchyElement.Type.REPEATABLE_GROUP, fc.getIndex());
+                        elementsToDisplay.add(group);
                     }
-                }
-
-                event = formController.stepToNextEvent(FormController.STEP_INTO_GROUP);
-            }
-
-            recyclerView.setAdapter(new HierarchyListAdapter(elementsToDisplay, this::onElementClick));
 
-            formController.jumpToIndex(currentIndex);
-
-            // Prevent a redundant middle screen (common on many forms
-            // that use presentation groups to display labels).
-            if (isDisplayingSingleGroup() && !screenIndex.isBeginningOfFormIndex()) {
-                if (isGoingUp) {
-                    // Back out once more.
-                    goUpLevel();
-                } else {
-                    // Enter automatically.
-                    formController.jumpToIndex(elementsToDisplay.get(0).getFormIndex());
-                    refreshView();
+                    // Nothing inside the instance is displayed on this screen
+                    event = formController.stepOverElement(fc.getIndex());
+                    continue;
                 }
             }
-        } catch (Exception e) {
-            Timber.e(e);
-            createErrorDialog(e.getMessage());
+
+            event = formController.stepToNextEvent(FormController.STEP_INTO_GROUP);
         }
     }
 
+    private String getScreenKey() {
+        return screenIndex + "|" + repeatGroupPickerIndex;
+    }
+
     /**
      * Returns true if there's only one item being displayed, and it's a group.
      * Groups like this are often used to display a label in the hierarchy path.
@@ -796,6 +827,8 @@ public class FormHierarchyActivity extends CollectAbstractActivity implements De
 
     @Override
     public void deleteGroup() {
+        elementsByScreen.clear();
+
         if (didDeleteLastRepeatItem()) {
             // goUpLevel would put us in a weird state after deleting the last item;
             // just go back one event instead.
@@ -38,6 +38,7 @@ import org.odk.collect.android.activities.viewmodels.FormMapViewModel.MappableFo
 import org.odk.collect.android.geo.MapFragment;
 import org.odk.collect.android.geo.MapPoint;
 import org.odk.collect.android.geo.MapProvider;
+import org.odk.collect.android.geo.PointClusterIndex;
 import org.odk.collect.android.injection.DaggerUtils;
 import org.odk.collect.android.preferences.keys.AdminKeys;
 import org.odk.collect.android.preferences.screens.MapsPreferencesFragment;
@@ -72,6 +73,12 @@ public class FormMapActivity extends BaseGeoMapActivity {
 
     public static final String EXTRA_FORM_ID = "form_id";
 
+    /**
+     * The most instances that are each shown with their own marker. Beyond this, only the
+     * instances in view are shown and nearby ones are grouped into clusters.
+     */
+    private static final int MAX_MARKERS = 200;
+
     private FormMapViewModel viewModel;
 
     @Inject
@@ -95,6 +102,26 @@ public class FormMapActivity extends BaseGeoMapActivity {
      */
     final Map<Integer, MappableFormInstance> instancesByFeatureId = new HashMap<>();
 
+    /**
+     * Quick lookup of map feature IDs from the database IDs of the instances that are shown.
+     */
+    private final Map<Long, Integer> featureIdsByInstanceId = new HashMap<>();
+
+    /**
+     * Quick lookup of clusters of instances from map feature IDs.
+     */
+    private final Map<Integer, PointClusterIndex.Cluster> clustersByFeatureId = new HashMap<>();
+
+    /**
+     * Instances to be mapped. Clusters refer to instances by their position in this list.
+     */
+    private List<MappableFormInstance> instances = new ArrayList<>();
+
+    /**
+     * Spatial index of {@link #instances} used to decide which markers to show.
+     */
+    private PointClusterIndex pointIndex = new PointClusterIndex(new double[0], new double[0]);
+
     /**
      * Points to be mapped. Note: kept separately from {@link #instancesByFeatureId} so we can
      * quickly zoom to bounding box.
@@ -145,7 +172,7 @@ public class FormMapActivity extends BaseGeoMapActivity {
             @Override
             public void onStateChanged(@NonNull View bottomSheet, int newState) {
                 if (newState == BottomSheetBehavior.STATE_HIDDEN && viewModel.getSelectedSubmissionId() != -1) {
-                    updateSubmissionMarker(viewModel.getSelectedSubmissionId(), getSubmissionStatusFor(viewModel.getSelectedSubmissionId()), false);
+                    updateSubmissionMarkerFor(viewModel.getSelectedSubmissionId(), false);
                     viewModel.setSelectedSubmissionId(-1);
                 }
             }
@@ -215,10 +242,12 @@ public class FormMapActivity extends BaseGeoMapActivity {
 
         map.setFeatureClickListener(this::onFeatureClicked);
         map.setClickListener(this::onClick);
+        map.setViewportChangeListener(this::onViewportChanged);
         updateInstanceGeometry();
 
-        if (viewModel.getSelectedSubmissionId() != -1) {
-            onFeatureClicked(viewModel.getSelectedSubmissionId());
+        Integer selectedFeatureId = featureIdsByInstanceId.get(viewModel.getSelectedSubmissionId());
+        if (selectedFeatureId != null) {
+            onFeatureClicked(selectedFeatureId);
         }
     }
 
@@ -246,22 +275,58 @@ public class FormMapActivity extends BaseGeoMapActivity {
     }
 
     /**
-     * Clears the existing features on the map and places features for the current form's instances.
+     * Loads the current form's instances and places features for them on the map.
      */
     private void updateMapFeatures() {
+        instances = viewModel.getMappableFormInstances();
         points.clear();
+
+        double[] lats = new double[instances.size()];
+        double[] lons = new double[instances.size()];
+        for (int i = 0; i < instances.size(); i++) {
+            lats[i] = instances.get(i).getLatitude();
+            lons[i] = instances.get(i).getLongitude();
+            points.add(new MapPoint(lats[i], lons[i]));
+        }
+        pointIndex = new PointClusterIndex(lats, lons);
+
+        showMarkers();
+    }
+
+    /**
+     * Clears the existing features on the map and places a marker for each instance (or cluster
+     * of instances) that is in view. If there are few enough instances, all of them are shown
+     * wherever the viewport is.
+     */
+    private void showMarkers() {
         map.clearFeatures();
         instancesByFeatureId.clear();
+        featureIdsByInstanceId.clear();
+        clustersByFeatureId.clear();
+
+        boolean showAll = pointIndex.size() <= MAX_MARKERS;
+        List<PointClusterIndex.Cluster> clusters = pointIndex.getClusters(showAll ? null : map.getVisibleBounds(), map.getZoom(), MAX_MARKERS);
+        for (PointClusterIndex.Cluster cluster : clusters) {
+            if (cluster.size() == 1) {
+                MappableFormInstance instance = instances.get(cluster.getItem(0));
+                int featureId = map.addMarker(cluster.getPoint(), false, MapFragment.BOTTOM);
 
-        List<MappableFormInstance> instances = viewModel.getMappableFormInstances();
-        for (MappableFormInstance instance : instances) {
-            MapPoint point = new MapPoint(instance.getLatitude(), instance.getLongitude());
-            int featureId = map.addMarker(point, false, MapFragment.BOTTOM);
+                updateSubmissionMarker(featureId, instance.getStatus(), instance.getDatabaseId() == viewModel.getSelectedSubmissionId());
 
-            updateSubmissionMarker(featureId, instance.getStatus(), featureId == viewModel.getSelectedSubmissionId());
+                instancesByFeatureId.put(featureId, instance);
+                featureIdsByInstanceId.put(instance.getDatabaseId(), featureId);
+            } else {
+                int featureId = map.addMarker(cluster.getPoint(), false, MapFragment.CENTER);
+                map.setMarkerIcon(featureId, R.drawable.ic_map_cluster);
+
+                clustersByFeatureId.put(featureId, cluster);
+            }
+        }
+    }
 
-            instancesByFeatureId.put(featureId, instance);
-            points.add(point);
+    private void onViewportChanged() {
+        if (pointIndex.size() > MAX_MARKERS) {
+            showMarkers();
         }
     }
 
@@ -270,6 +335,16 @@ public class FormMapActivity extends BaseGeoMapActivity {
         map.setMarkerIcon(featureId, drawableId);
     }
 
+    /**
+     * Updates the marker for the instance with the given database ID if it is shown.
+     */
+    private void updateSubmissionMarkerFor(long instanceId, boolean enlarged) {
+        Integer featureId = featureIdsByInstanceId.get(instanceId);
+        if (featureId != null) {
+            updateSubmissionMarker(featureId, instancesByFeatureId.get(featureId).getStatus(), enlarged);
+        }
+    }
+
     /**
      * Zooms the map to the new location if the map viewport hasn't been initialized yet.
      */
@@ -281,25 +356,31 @@ public class FormMapActivity extends BaseGeoMapActivity {
     }
 
     /**
-     * Reacts to a tap on a feature by showing a submission summary.
+     * Reacts to a tap on a feature by showing a submission summary, or by zooming in if it is a
+     * cluster of submissions.
      */
     public void onFeatureClicked(int featureId) {
+        PointClusterIndex.Cluster cluster = clustersByFeatureId.get(featureId);
+        if (cluster != null) {
+            map.zoomToBoundingBox(cluster.getBoundingPoints(), 0.8, true);
+            return;
+        }
+
         summarySheet.setState(BottomSheetBehavior.STATE_HIDDEN);
 
-        if (!isSummaryForGivenSubmissionDisplayed(featureId)) {
-            removeEnlargedMarkerIfExist(featureId);
+        FormMapViewModel.MappableFormInstance mappableFormInstance = instancesByFeatureId.get(featureId);
+        if (mappableFormInstance != null && !isSummaryForGivenSubmissionDisplayed(mappableFormInstance.getDatabaseId())) {
+            removeEnlargedMarkerIfExist(mappableFormInstance.getDatabaseId());
 
-            FormMapViewModel.MappableFormInstance mappableFormInstance = instancesByFeatureId.get(featureId);
-            if (mappableFormInstance != null) {
-                map.zoomToPoint(new MapPoint(mappableFormInstance.getLatitude(), mappableFormInstance.getLongitude()), map.getZoom(), true);
-                updateSubmissionMarker(featureId, mappableFormInstance.getStatus(), true);
-                setUpSummarySheetDetails(mappableFormInstance);
-            }
-            viewModel.setSelectedSubmissionId(featureId);
+            map.zoomToPoint(new MapPoint(mappableFormInstance.getLatitude(), mappableFormInstance.getLongitude()), map.getZoom(), true);
+            updateSubmissionMarker(featureId, mappableFormInstance.getStatus(), true);
+            setUpSummarySheetDetails(mappableFormInstance);
+
+            viewModel.setSelectedSubmissionId(mappableFormInstance.getDatabaseId());
         }
     }
 
-    private boolean isSummaryForGivenSubmissionDisplayed(int newSubmissionId) {
+    private boolean isSummaryForGivenSubmissionDisplayed(long newSubmissionId) {
         return viewModel.getSelectedSubmissionId() == newSubmissionId && summarySheet.getState() != BottomSheetBehavior.STATE_HIDDEN;
     }
 
@@ -399,16 +480,12 @@ public class FormMapActivity extends BaseGeoMapActivity {
         return new Intent(Intent.ACTION_EDIT, uri);
     }
 
-    private void removeEnlargedMarkerIfExist(int newSubmissionId) {
+    private void removeEnlargedMarkerIfExist(long newSubmissionId) {
         if (viewModel.getSelectedSubmissionId() != -1 && viewModel.getSelectedSubmissionId() != newSubmissionId) {
-            updateSubmissionMarker(viewModel.getSelectedSubmissionId(), getSubmissionStatusFor(viewModel.getSelectedSubmissionId()), false);
+            updateSubmissionMarkerFor(viewModel.getSelectedSubmissionId(), false);
         }
     }
 
-    private String getSubmissionStatusFor(int submissionId) {
-        return instancesByFeatureId.get(submissionId).getStatus();
-    }
-
     /**
      * Build {@link FormMapViewModel} and its dependencies.
      */
@@ -19,6 +19,7 @@ import android.app.ProgressDialog;
 import android.content.DialogInterface;
 import android.net.Uri;
 import android.os.Bundle;
+import android.text.format.Formatter;
 
 import org.odk.collect.android.R;
 import org.odk.collect.android.fragments.dialogs.SimpleDialog;
@@ -253,8 +254,13 @@ public class InstanceUploaderActivity extends CollectAbstractActivity implements
     }
 
     @Override
-    public void progressUpdate(int progress, int total) {
-        alertMsg = getString(R.string.sending_items, String.valueOf(progress), String.valueOf(total));
+    public void progressUpdate(int progress, int total, long bytesSent) {
+        if (bytesSent > 0) {
+            alertMsg = getString(R.string.sending_items_with_size, String.valueOf(progress), String.valueOf(total),
+                    Formatter.formatShortFileSize(this, bytesSent));
+        } else {
+            alertMsg = getString(R.string.sending_items, String.valueOf(progress), String.valueOf(total));
+        }
         progressDialog.setMessage(alertMsg);
     }
 
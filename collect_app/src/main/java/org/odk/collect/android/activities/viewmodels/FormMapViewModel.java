@@ -11,7 +11,9 @@ import org.odk.collect.forms.instances.InstancesRepository;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import timber.log.Timber;
 
@@ -25,13 +27,19 @@ public class FormMapViewModel extends ViewModel {
      * The count of all filled instances of this form, including unmappable ones.
      */
     private int totalInstanceCount;
-    private int selectedSubmissionId = -1;
+    private long selectedSubmissionId = -1;
 
     /**
      * The filled instances of this form that can be mapped.
      */
     private List<MappableFormInstance> mappableFormInstances;
 
+    /**
+     * The coordinates parsed from the geometry of instances saved without bounds, by instance
+     * database ID, so that refreshing the map only needs to parse geometry that has changed.
+     */
+    private Map<Long, ParsedPoint> parsedPoints = new HashMap<>();
+
     private final InstancesRepository instancesRepository;
 
     public FormMapViewModel(Form form, InstancesRepository instancesRepository) {
@@ -48,10 +56,13 @@ public class FormMapViewModel extends ViewModel {
     }
 
     /**
-     * Returns the count of all filled instances of this form, including unmappable ones.
+     * Returns the count of all filled instances of this form, including unmappable ones, as of the
+     * last call to {@link #getMappableFormInstances()}.
      */
     public int getTotalInstanceCount() {
-        initializeFormInstances();
+        if (mappableFormInstances == null) {
+            initializeFormInstances();
+        }
         return totalInstanceCount;
     }
 
@@ -63,11 +74,14 @@ public class FormMapViewModel extends ViewModel {
         mappableFormInstances = getMappableFormInstances(instances);
     }
 
-    public int getSelectedSubmissionId() {
+    /**
+     * Returns the database ID of the instance whose summary is shown, or -1 if there isn't one.
+     */
+    public long getSelectedSubmissionId() {
         return selectedSubmissionId;
     }
 
-    public void setSelectedSubmissionId(int selectedSubmissionId) {
+    public void setSelectedSubmissionId(long selectedSubmissionId) {
         this.selectedSubmissionId = selectedSubmissionId;
     }
 
@@ -81,32 +95,37 @@ public class FormMapViewModel extends ViewModel {
 
     private List<MappableFormInstance> getMappableFormInstances(List<Instance> allInstances) {
         List<MappableFormInstance> mappableFormInstances = new ArrayList<>();
+        Map<Long, ParsedPoint> newParsedPoints = new HashMap<>();
+
         for (Instance instance : allInstances) {
-            if (instance.getGeometry() != null) {
-                try {
-                    JSONObject geometry = new JSONObject(instance.getGeometry());
-                    switch (instance.getGeometryType()) {
-                        case "Point":
-                            JSONArray coordinates = geometry.getJSONArray("coordinates");
-                            // In GeoJSON, longitude comes before latitude.
-                            Double lon = coordinates.getDouble(0);
-                            Double lat = coordinates.getDouble(1);
-
-                            mappableFormInstances.add(new MappableFormInstance(
-                                    instance.getDbId(),
-                                    lat, lon,
-                                    instance.getDisplayName(),
-                                    instance.getLastStatusChangeDate(),
-                                    instance.getStatus(),
-                                    getClickActionForInstance(instance)
-                            ));
+            if (instance.getGeometry() != null && "Point".equals(instance.getGeometryType())) {
+                ParsedPoint point;
+                if (instance.getGeometryMinLatitude() != null && instance.getGeometryMinLongitude() != null) {
+                    // A point's bounds are the point itself so there's nothing to parse
+                    point = new ParsedPoint(instance.getGeometry(), true,
+                            instance.getGeometryMinLatitude(), instance.getGeometryMinLongitude());
+                } else {
+                    point = parsedPoints.get(instance.getDbId());
+                    if (point == null || !point.geometry.equals(instance.getGeometry())) {
+                        point = ParsedPoint.parse(instance.getGeometry());
                     }
-                } catch (JSONException e) {
-                    Timber.w("Invalid JSON in instances table: %s", instance.getGeometry());
+                    newParsedPoints.put(instance.getDbId(), point);
+                }
+
+                if (point.valid) {
+                    mappableFormInstances.add(new MappableFormInstance(
+                            instance.getDbId(),
+                            point.lat, point.lon,
+                            instance.getDisplayName(),
+                            instance.getLastStatusChangeDate(),
+                            instance.getStatus(),
+                            getClickActionForInstance(instance)
+                    ));
                 }
             }
         }
 
+        parsedPoints = newParsedPoints;
         return mappableFormInstances;
     }
 
@@ -136,20 +155,45 @@ public class FormMapViewModel extends ViewModel {
         return instancesRepository.get(databaseId).getDeletedDate();
     }
 
+    private static class ParsedPoint {
+        private final String geometry;
+        private final boolean valid;
+        private final double lat;
+        private final double lon;
+
+        ParsedPoint(String geometry, boolean valid, double lat, double lon) {
+            this.geometry = geometry;
+            this.valid = valid;
+            this.lat = lat;
+            this.lon = lon;
+        }
+
+        static ParsedPoint parse(String geometry) {
+            try {
+                JSONArray coordinates = new JSONObject(geometry).getJSONArray("coordinates");
+                // In GeoJSON, longitude comes before latitude.
+                return new ParsedPoint(geometry, true, coordinates.getDouble(1), coordinates.getDouble(0));
+            } catch (JSONException e) {
+                Timber.w("Invalid JSON in instances table: %s", geometry);
+                return new ParsedPoint(geometry, false, 0, 0);
+            }
+        }
+    }
+
     public enum ClickAction {
         DELETED_TOAST, NOT_VIEWABLE_TOAST, OPEN_READ_ONLY, OPEN_EDIT, NONE
     }
 
     public class MappableFormInstance {
         private final long databaseId;
-        private final Double latitude;
-        private final Double longitude;
+        private final double latitude;
+        private final double longitude;
         private final String instanceName;
         private final Long lastStatusChangeDate;
         private final String status;
         private final ClickAction clickAction;
 
-        MappableFormInstance(long databaseId, Double latitude, Double longitude, String instanceName,
+        MappableFormInstance(long databaseId, double latitude, double longitude, String instanceName,
                              Long lastStatusChangeDate, String status, ClickAction clickAction) {
             this.databaseId = databaseId;
             this.latitude = latitude;
@@ -164,11 +208,11 @@ public class FormMapViewModel extends ViewModel {
             return databaseId;
         }
 
-        public Double getLatitude() {
+        public double getLatitude() {
             return latitude;
         }
 
-        public Double getLongitude() {
+        public double getLongitude() {
             return longitude;
         }
 
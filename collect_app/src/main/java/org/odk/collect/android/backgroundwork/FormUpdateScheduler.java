@@ -5,4 +5,10 @@ public interface FormUpdateScheduler {
     void scheduleUpdates(String projectId);
 
     void cancelUpdates(String projectId);
+
+    /**
+     * Schedules the project's forms to be parsed and have their media imported ahead of them
+     * being opened (for instance after they've been downloaded).
+     */
+    void scheduleWarmUp(String projectId);
 }
@@ -0,0 +1,93 @@
+package org.odk.collect.android.backgroundwork;
+
+import android.content.Context;
+
+import androidx.work.WorkerParameters;
+
+import org.jetbrains.annotations.NotNull;
+import org.odk.collect.android.application.Collect;
+import org.odk.collect.android.injection.DaggerUtils;
+import org.odk.collect.android.projects.CurrentProjectProvider;
+import org.odk.collect.android.tasks.FormLoaderTask;
+import org.odk.collect.android.utilities.FormsRepositoryProvider;
+import org.odk.collect.async.TaskSpec;
+import org.odk.collect.async.WorkerAdapter;
+import org.odk.collect.forms.Form;
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.inject.Inject;
+
+import timber.log.Timber;
+
+/**
+ * Parses and caches a project's forms that haven't been cached yet and imports any of their media
+ * that has changed since it was last imported so that the first time each of them is opened is as
+ * fast as any other time. Stops as soon as a form starts loading.
+ */
+public class WarmUpFormsTaskSpec implements TaskSpec {
+
+    public static final String DATA_PROJECT_ID = "projectId";
+
+    @Inject
+    FormsRepositoryProvider formsRepositoryProvider;
+
+    @Inject
+    CurrentProjectProvider currentProjectProvider;
+
+    @NotNull
+    @Override
+    public Supplier<Boolean> getTask(@NotNull Context context, @NotNull Map<String, String> inputData) {
+        DaggerUtils.getComponent(context).inject(this);
+
+        return () -> {
+            String projectId = inputData.get(DATA_PROJECT_ID);
+            if (projectId == null) {
+                throw new IllegalArgumentException("No project ID provided!");
+            }
+
+            // Form caches and itemset databases are only accessible for the current project
+            if (!projectId.equals(currentProjectProvider.getCurrentProject().getUuid())) {
+                return true;
+            }
+
+            for (Form form : formsRepositoryProvider.get(projectId).getAll()) {
+                // Loading a form changes global JavaRosa state so don't interfere with a form being filled
+                if (Collect.getInstance().getFormController() != null) {
+                    return true;
+                }
+
+                // Media can change without the form changing so cached forms are still warmed up.
+                // Up to date forms and media are only fingerprinted so that's cheap.
+                if (form.isDeleted()) {
+                    continue;
+                }
+
+                try {
+                    if (!new FormLoaderTask(null, null, null).warmUp(form.getFormFilePath())) {
+                        // A form is being loaded so leave the rest for the next run
+                        return true;
+                    }
+                } catch (Exception e) {
+                    Timber.w(e, "Unable to warm up %s", form.getFormFilePath());
+                }
+            }
+
+            return true;
+        };
+    }
+
+    @NotNull
+    @Override
+    public Class<? extends WorkerAdapter> getWorkManagerAdapter() {
+        return Adapter.class;
+    }
+
+    public static class Adapter extends WorkerAdapter {
+
+        public Adapter(@NotNull Context context, @NotNull WorkerParameters workerParams) {
+            super(new WarmUpFormsTaskSpec(), context, workerParams);
+        }
+    }
+}
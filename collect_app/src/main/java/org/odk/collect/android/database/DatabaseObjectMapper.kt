@@ -148,6 +148,12 @@ object DatabaseObjectMapper {
             .deletedDate(values.getAsLong(DatabaseInstanceColumns.DELETED_DATE))
             .geometry(values.getAsString(DatabaseInstanceColumns.GEOMETRY))
             .geometryType(values.getAsString(DatabaseInstanceColumns.GEOMETRY_TYPE))
+            .geometryBounds(
+                values.getAsDouble(DatabaseInstanceColumns.GEOMETRY_MIN_LATITUDE),
+                values.getAsDouble(DatabaseInstanceColumns.GEOMETRY_MIN_LONGITUDE),
+                values.getAsDouble(DatabaseInstanceColumns.GEOMETRY_MAX_LATITUDE),
+                values.getAsDouble(DatabaseInstanceColumns.GEOMETRY_MAX_LONGITUDE)
+            )
             .build()
     }
 
@@ -168,6 +174,14 @@ object DatabaseObjectMapper {
         val deletedDateColumnIndex = cursor.getColumnIndex(DatabaseInstanceColumns.DELETED_DATE)
         val geometryTypeColumnIndex = cursor.getColumnIndex(DatabaseInstanceColumns.GEOMETRY_TYPE)
         val geometryColumnIndex = cursor.getColumnIndex(DatabaseInstanceColumns.GEOMETRY)
+        val geometryMinLatitudeColumnIndex =
+            cursor.getColumnIndex(DatabaseInstanceColumns.GEOMETRY_MIN_LATITUDE)
+        val geometryMinLongitudeColumnIndex =
+            cursor.getColumnIndex(DatabaseInstanceColumns.GEOMETRY_MIN_LONGITUDE)
+        val geometryMaxLatitudeColumnIndex =
+            cursor.getColumnIndex(DatabaseInstanceColumns.GEOMETRY_MAX_LATITUDE)
+        val geometryMaxLongitudeColumnIndex =
+            cursor.getColumnIndex(DatabaseInstanceColumns.GEOMETRY_MAX_LONGITUDE)
         val databaseIdIndex = cursor.getColumnIndex(BaseColumns._ID)
         return Instance.Builder()
             .dbId(dbId)
@@ -191,6 +205,12 @@ object DatabaseObjectMapper {
             )
             .geometryType(cursor.getString(geometryTypeColumnIndex))
             .geometry(cursor.getString(geometryColumnIndex))
+            .geometryBounds(
+                getDoubleOrNull(cursor, geometryMinLatitudeColumnIndex),
+                getDoubleOrNull(cursor, geometryMinLongitudeColumnIndex),
+                getDoubleOrNull(cursor, geometryMaxLatitudeColumnIndex),
+                getDoubleOrNull(cursor, geometryMaxLongitudeColumnIndex)
+            )
             .dbId(cursor.getLong(databaseIdIndex))
             .build()
     }
@@ -216,6 +236,14 @@ object DatabaseObjectMapper {
         values.put(DatabaseInstanceColumns.DELETED_DATE, instance.deletedDate)
         values.put(DatabaseInstanceColumns.GEOMETRY, instance.geometry)
         values.put(DatabaseInstanceColumns.GEOMETRY_TYPE, instance.geometryType)
+        values.put(DatabaseInstanceColumns.GEOMETRY_MIN_LATITUDE, instance.geometryMinLatitude)
+        values.put(DatabaseInstanceColumns.GEOMETRY_MIN_LONGITUDE, instance.geometryMinLongitude)
+        values.put(DatabaseInstanceColumns.GEOMETRY_MAX_LATITUDE, instance.geometryMaxLatitude)
+        values.put(DatabaseInstanceColumns.GEOMETRY_MAX_LONGITUDE, instance.geometryMaxLongitude)
         return values
     }
+
+    private fun getDoubleOrNull(cursor: Cursor, columnIndex: Int): Double? {
+        return if (columnIndex == -1 || cursor.isNull(columnIndex)) null else cursor.getDouble(columnIndex)
+    }
 }
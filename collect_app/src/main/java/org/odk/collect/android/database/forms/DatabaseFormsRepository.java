@@ -41,6 +41,20 @@ import static org.odk.collect.shared.PathUtils.getRelativeFilePath;
 
 public class DatabaseFormsRepository implements FormsRepository {
 
+    /*
+     Selections for the lookups the repository makes. RepositoryQueryPlanTest checks that each of
+     them can use an index so they need to stay in sync with the queries below.
+     */
+    public static final String SELECTION_BY_ID = _ID + "=?";
+    public static final String SELECTION_BY_PATH = FORM_FILE_PATH + "=?";
+    public static final String SELECTION_BY_MD5_HASH = MD5_HASH + "=?";
+    public static final String SELECTION_BY_FORM_ID = JR_FORM_ID + "=?";
+    public static final String SELECTION_BY_FORM_ID_AND_VERSION = JR_FORM_ID + "=? AND " + JR_VERSION + "=?";
+    public static final String SELECTION_BY_FORM_ID_WITHOUT_VERSION = JR_FORM_ID + "=? AND " + JR_VERSION + " IS NULL";
+    public static final String SELECTION_NOT_DELETED_BY_FORM_ID = JR_FORM_ID + "=? AND " + DELETED_DATE + " IS NULL";
+    public static final String SELECTION_NOT_DELETED_BY_FORM_ID_AND_VERSION = DELETED_DATE + " IS NULL AND " + JR_FORM_ID + "=? AND " + JR_VERSION + "=?";
+    public static final String SELECTION_NOT_DELETED_BY_FORM_ID_WITHOUT_VERSION = DELETED_DATE + " IS NULL AND " + JR_FORM_ID + "=? AND " + JR_VERSION + " IS NULL";
+
     private final DatabaseConnection databaseConnection;
     private final String formsPath;
     private final String cachePath;
@@ -62,7 +76,7 @@ public class DatabaseFormsRepository implements FormsRepository {
     @Nullable
     @Override
     public Form get(Long id) {
-        return queryForForm(_ID + "=?", new String[]{id.toString()});
+        return queryForForm(SELECTION_BY_ID, new String[]{id.toString()});
     }
 
     @Nullable
@@ -79,9 +93,8 @@ public class DatabaseFormsRepository implements FormsRepository {
     @Nullable
     @Override
     public Form getOneByPath(String path) {
-        String selection = FORM_FILE_PATH + "=?";
         String[] selectionArgs = {getRelativeFilePath(formsPath, path)};
-        return queryForForm(selection, selectionArgs);
+        return queryForForm(SELECTION_BY_PATH, selectionArgs);
     }
 
     @Nullable
@@ -91,9 +104,8 @@ public class DatabaseFormsRepository implements FormsRepository {
             throw new IllegalArgumentException("Missing form hash. ODK-compatible servers must include form hashes in their form lists. Please talk to the person who asked you to collect data.");
         }
 
-        String selection = DatabaseFormColumns.MD5_HASH + "=?";
         String[] selectionArgs = {hash};
-        return queryForForm(selection, selectionArgs);
+        return queryForForm(SELECTION_BY_MD5_HASH, selectionArgs);
     }
 
     @Override
@@ -104,29 +116,29 @@ public class DatabaseFormsRepository implements FormsRepository {
     @Override
     public List<Form> getAllByFormIdAndVersion(String jrFormId, @Nullable String jrVersion) {
         if (jrVersion != null) {
-            return queryForForms(JR_FORM_ID + "=? AND " + JR_VERSION + "=?", new String[]{jrFormId, jrVersion});
+            return queryForForms(SELECTION_BY_FORM_ID_AND_VERSION, new String[]{jrFormId, jrVersion});
         } else {
-            return queryForForms(JR_FORM_ID + "=? AND " + JR_VERSION + " IS NULL", new String[]{jrFormId});
+            return queryForForms(SELECTION_BY_FORM_ID_WITHOUT_VERSION, new String[]{jrFormId});
         }
     }
 
     @Override
     public List<Form> getAllByFormId(String formId) {
-        return queryForForms(JR_FORM_ID + "=?", new String[]{formId});
+        return queryForForms(SELECTION_BY_FORM_ID, new String[]{formId});
     }
 
     @Override
     public List<Form> getAllNotDeletedByFormId(String jrFormId) {
-        return queryForForms(JR_FORM_ID + "=? AND " + DELETED_DATE + " IS NULL", new String[]{jrFormId});
+        return queryForForms(SELECTION_NOT_DELETED_BY_FORM_ID, new String[]{jrFormId});
     }
 
 
     @Override
     public List<Form> getAllNotDeletedByFormIdAndVersion(String jrFormId, @Nullable String jrVersion) {
         if (jrVersion != null) {
-            return queryForForms(DELETED_DATE + " IS NULL AND " + JR_FORM_ID + "=? AND " + JR_VERSION + "=?", new String[]{jrFormId, jrVersion});
+            return queryForForms(SELECTION_NOT_DELETED_BY_FORM_ID_AND_VERSION, new String[]{jrFormId, jrVersion});
         } else {
-            return queryForForms(DELETED_DATE + " IS NULL AND " + JR_FORM_ID + "=? AND " + JR_VERSION + " IS NULL", new String[]{jrFormId});
+            return queryForForms(SELECTION_NOT_DELETED_BY_FORM_ID_WITHOUT_VERSION, new String[]{jrFormId});
         }
     }
 
@@ -158,10 +170,9 @@ public class DatabaseFormsRepository implements FormsRepository {
 
     @Override
     public void delete(Long id) {
-        String selection = _ID + "=?";
         String[] selectionArgs = {String.valueOf(id)};
 
-        deleteForms(selection, selectionArgs);
+        deleteForms(SELECTION_BY_ID, selectionArgs);
     }
 
     @Override
@@ -173,10 +184,9 @@ public class DatabaseFormsRepository implements FormsRepository {
 
     @Override
     public void deleteByMd5Hash(@NotNull String md5Hash) {
-        String selection = DatabaseFormColumns.MD5_HASH + "=?";
         String[] selectionArgs = {md5Hash};
 
-        deleteForms(selection, selectionArgs);
+        deleteForms(SELECTION_BY_MD5_HASH, selectionArgs);
     }
 
     @Override
@@ -226,7 +236,7 @@ public class DatabaseFormsRepository implements FormsRepository {
 
     private void updateForm(Long id, ContentValues values) {
         SQLiteDatabase writeableDatabase = databaseConnection.getWriteableDatabase();
-        writeableDatabase.update(FORMS_TABLE_NAME, values, _ID + "=?", new String[]{String.valueOf(id)});
+        writeableDatabase.update(FORMS_TABLE_NAME, values, SELECTION_BY_ID, new String[]{String.valueOf(id)});
     }
 
     private void deleteForms(String selection, String[] selectionArgs) {
@@ -39,6 +39,7 @@ public class FormDatabaseMigrator implements DatabaseMigrator {
 
     public void onCreate(SQLiteDatabase db) {
         createFormsTableV10(db);
+        createIndexesV11(db);
     }
 
     @SuppressWarnings({"checkstyle:FallThrough"})
@@ -61,12 +62,15 @@ public class FormDatabaseMigrator implements DatabaseMigrator {
                 upgradeToVersion9(db);
             case 9:
                 upgradeToVersion10(db);
+            case 10:
+                createIndexesV11(db);
         }
     }
 
     public void onDowngrade(SQLiteDatabase db) throws SQLException {
         SQLiteUtils.dropTable(db, FORMS_TABLE_NAME);
         createFormsTableV10(db);
+        createIndexesV11(db);
     }
 
     private void upgradeToVersion2(SQLiteDatabase db) {
@@ -237,6 +241,17 @@ public class FormDatabaseMigrator implements DatabaseMigrator {
         SQLiteUtils.dropTable(db, temporaryTable);
     }
 
+    /**
+     * Indexes the columns forms are looked up by so that those lookups don't need to scan every
+     * form (including deleted ones) that has ever been downloaded.
+     */
+    private void createIndexesV11(SQLiteDatabase db) {
+        SQLiteUtils.createIndex(db, FORMS_TABLE_NAME, JR_FORM_ID, JR_VERSION);
+        SQLiteUtils.createIndex(db, FORMS_TABLE_NAME, MD5_HASH);
+        SQLiteUtils.createIndex(db, FORMS_TABLE_NAME, FORM_FILE_PATH);
+        SQLiteUtils.createIndex(db, FORMS_TABLE_NAME, DELETED_DATE);
+    }
+
     private void createFormsTableV4(SQLiteDatabase db, String tableName) {
         db.execSQL("CREATE TABLE IF NOT EXISTS " + tableName + " ("
                 + _ID + " integer primary key, "
@@ -16,4 +16,8 @@ object DatabaseInstanceColumns : BaseColumns {
     const val DELETED_DATE = "deletedDate"
     const val GEOMETRY = "geometry"
     const val GEOMETRY_TYPE = "geometryType"
+    const val GEOMETRY_MIN_LATITUDE = "geometryMinLatitude"
+    const val GEOMETRY_MIN_LONGITUDE = "geometryMinLongitude"
+    const val GEOMETRY_MAX_LATITUDE = "geometryMaxLatitude"
+    const val GEOMETRY_MAX_LONGITUDE = "geometryMaxLongitude"
 }
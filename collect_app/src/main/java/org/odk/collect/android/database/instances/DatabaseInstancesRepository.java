@@ -26,6 +26,10 @@ import static org.odk.collect.android.database.instances.DatabaseInstanceColumns
 import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.DELETED_DATE;
 import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.DISPLAY_NAME;
 import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY_MAX_LATITUDE;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY_MAX_LONGITUDE;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY_MIN_LATITUDE;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY_MIN_LONGITUDE;
 import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY_TYPE;
 import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.INSTANCE_FILE_PATH;
 import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.JR_FORM_ID;
@@ -40,6 +44,17 @@ import static org.odk.collect.shared.PathUtils.getRelativeFilePath;
  */
 public final class DatabaseInstancesRepository implements InstancesRepository {
 
+    /*
+     Selections for the lookups the repository makes. RepositoryQueryPlanTest checks that each of
+     them can use an index so they need to stay in sync with the queries below.
+     */
+    public static final String SELECTION_BY_ID = _ID + "=?";
+    public static final String SELECTION_BY_PATH = INSTANCE_FILE_PATH + "=?";
+    public static final String SELECTION_NOT_DELETED = DELETED_DATE + " IS NULL ";
+    public static final String SELECTION_BY_FORM_ID = JR_FORM_ID + " = ?";
+    public static final String SELECTION_NOT_DELETED_BY_FORM_ID_AND_VERSION = JR_FORM_ID + " = ? AND " + JR_VERSION + " = ? AND " + DELETED_DATE + " IS NULL";
+    public static final String SELECTION_NOT_DELETED_BY_FORM_ID_WITHOUT_VERSION = JR_FORM_ID + " = ? AND " + JR_VERSION + " IS NULL AND " + DELETED_DATE + " IS NULL";
+
     private final DatabaseConnection databaseConnection;
     private final Supplier<Long> clock;
     private final String instancesPath;
@@ -59,10 +74,9 @@ public final class DatabaseInstancesRepository implements InstancesRepository {
 
     @Override
     public Instance get(Long databaseId) {
-        String selection = _ID + "=?";
         String[] selectionArgs = {Long.toString(databaseId)};
 
-        try (Cursor cursor = query(null, selection, selectionArgs, null)) {
+        try (Cursor cursor = query(null, SELECTION_BY_ID, selectionArgs, null)) {
             List<Instance> result = getInstancesFromCursor(cursor, instancesPath);
             return !result.isEmpty() ? result.get(0) : null;
         }
@@ -70,9 +84,8 @@ public final class DatabaseInstancesRepository implements InstancesRepository {
 
     @Override
     public Instance getOneByPath(String instancePath) {
-        String selection = INSTANCE_FILE_PATH + "=?";
         String[] args = {getRelativeFilePath(instancesPath, instancePath)};
-        try (Cursor cursor = query(null, selection, args, null)) {
+        try (Cursor cursor = query(null, SELECTION_BY_PATH, args, null)) {
             List<Instance> instances = getInstancesFromCursor(cursor, instancesPath);
             if (instances.size() == 1) {
                 return instances.get(0);
@@ -91,7 +104,7 @@ public final class DatabaseInstancesRepository implements InstancesRepository {
 
     @Override
     public List<Instance> getAllNotDeleted() {
-        try (Cursor cursor = query(null, DELETED_DATE + " IS NULL ", null, null)) {
+        try (Cursor cursor = query(null, SELECTION_NOT_DELETED, null, null)) {
             return getInstancesFromCursor(cursor, instancesPath);
         }
     }
@@ -113,7 +126,20 @@ public final class DatabaseInstancesRepository implements InstancesRepository {
 
     @Override
     public List<Instance> getAllByFormId(String formId) {
-        try (Cursor c = query(null, JR_FORM_ID + " = ?", new String[]{formId}, null)) {
+        try (Cursor c = query(null, SELECTION_BY_FORM_ID, new String[]{formId}, null)) {
+            return getInstancesFromCursor(c, instancesPath);
+        }
+    }
+
+    @Override
+    public List<Instance> getAllByFormIdInBounds(String formId, double minLatitude, double minLongitude,
+                                                 double maxLatitude, double maxLongitude) {
+        String selection = getSelectionByFormIdInBounds(minLongitude > maxLongitude);
+        String[] selectionArgs = {formId,
+                Double.toString(minLatitude), Double.toString(maxLatitude),
+                Double.toString(minLongitude), Double.toString(maxLongitude)};
+
+        try (Cursor c = query(null, selection, selectionArgs, null)) {
             return getInstancesFromCursor(c, instancesPath);
         }
     }
@@ -121,11 +147,11 @@ public final class DatabaseInstancesRepository implements InstancesRepository {
     @Override
     public List<Instance> getAllNotDeletedByFormIdAndVersion(String jrFormId, String jrVersion) {
         if (jrVersion != null) {
-            try (Cursor cursor = query(null, JR_FORM_ID + " = ? AND " + JR_VERSION + " = ? AND " + DELETED_DATE + " IS NULL", new String[]{jrFormId, jrVersion}, null)) {
+            try (Cursor cursor = query(null, SELECTION_NOT_DELETED_BY_FORM_ID_AND_VERSION, new String[]{jrFormId, jrVersion}, null)) {
                 return getInstancesFromCursor(cursor, instancesPath);
             }
         } else {
-            try (Cursor cursor = query(null, JR_FORM_ID + " = ? AND " + JR_VERSION + " IS NULL AND " + DELETED_DATE + " IS NULL", new String[]{jrFormId}, null)) {
+            try (Cursor cursor = query(null, SELECTION_NOT_DELETED_BY_FORM_ID_WITHOUT_VERSION, new String[]{jrFormId}, null)) {
                 return getInstancesFromCursor(cursor, instancesPath);
             }
         }
@@ -137,7 +163,7 @@ public final class DatabaseInstancesRepository implements InstancesRepository {
 
         databaseConnection.getWriteableDatabase().delete(
                 INSTANCES_TABLE_NAME,
-                _ID + "=?",
+                SELECTION_BY_ID,
                 new String[]{String.valueOf(id)}
         );
 
@@ -193,6 +219,10 @@ public final class DatabaseInstancesRepository implements InstancesRepository {
         ContentValues values = new ContentValues();
         values.putNull(GEOMETRY);
         values.putNull(GEOMETRY_TYPE);
+        values.putNull(GEOMETRY_MIN_LATITUDE);
+        values.putNull(GEOMETRY_MIN_LONGITUDE);
+        values.putNull(GEOMETRY_MAX_LATITUDE);
+        values.putNull(GEOMETRY_MAX_LONGITUDE);
         values.put(DELETED_DATE, clock.get());
         update(id, values);
 
@@ -205,12 +235,29 @@ public final class DatabaseInstancesRepository implements InstancesRepository {
     }
 
     private Cursor getCursorForAllByStatus(String[] status) {
+        return query(null, getSelectionByStatus(status.length), status, null);
+    }
+
+    public static String getSelectionByStatus(int statusCount) {
         StringBuilder selection = new StringBuilder(STATUS + "=?");
-        for (int i = 1; i < status.length; i++) {
+        for (int i = 1; i < statusCount; i++) {
             selection.append(" or ").append(STATUS).append("=?");
         }
 
-        return query(null, selection.toString(), status, null);
+        return selection.toString();
+    }
+
+    /**
+     * @param crossesAntimeridian whether the bounds' minimum longitude is east of the maximum one
+     */
+    public static String getSelectionByFormIdInBounds(boolean crossesAntimeridian) {
+        String longitudeSelection = crossesAntimeridian
+                ? "(" + GEOMETRY_MAX_LONGITUDE + " >= ? OR " + GEOMETRY_MIN_LONGITUDE + " <= ?)"
+                : GEOMETRY_MAX_LONGITUDE + " >= ? AND " + GEOMETRY_MIN_LONGITUDE + " <= ?";
+
+        return JR_FORM_ID + " = ? AND "
+                + GEOMETRY_MAX_LATITUDE + " >= ? AND " + GEOMETRY_MIN_LATITUDE + " <= ? AND "
+                + longitudeSelection;
     }
 
     private Cursor query(String[] projection, String selection, String[] selectionArgs, String sortOrder) {
@@ -235,7 +282,11 @@ public final class DatabaseInstancesRepository implements InstancesRepository {
                     LAST_STATUS_CHANGE_DATE,
                     DELETED_DATE,
                     GEOMETRY,
-                    GEOMETRY_TYPE
+                    GEOMETRY_TYPE,
+                    GEOMETRY_MIN_LATITUDE,
+                    GEOMETRY_MIN_LONGITUDE,
+                    GEOMETRY_MAX_LATITUDE,
+                    GEOMETRY_MAX_LONGITUDE
             };
         }
 
@@ -254,7 +305,7 @@ public final class DatabaseInstancesRepository implements InstancesRepository {
         databaseConnection.getWriteableDatabase().update(
                 INSTANCES_TABLE_NAME,
                 values,
-                _ID + "=?",
+                SELECTION_BY_ID,
                 new String[]{instanceId.toString()}
         );
     }
@@ -1,7 +1,13 @@
 package org.odk.collect.android.database.instances;
 
+import android.content.ContentValues;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
 import org.odk.collect.android.database.DatabaseMigrator;
 import org.odk.collect.forms.instances.Instance;
 import org.odk.collect.android.utilities.SQLiteUtils;
@@ -17,6 +23,10 @@ import static org.odk.collect.android.database.instances.DatabaseInstanceColumns
 import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.DELETED_DATE;
 import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.DISPLAY_NAME;
 import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY_MAX_LATITUDE;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY_MAX_LONGITUDE;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY_MIN_LATITUDE;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY_MIN_LONGITUDE;
 import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY_TYPE;
 import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.INSTANCE_FILE_PATH;
 import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.JR_FORM_ID;
@@ -33,11 +43,18 @@ public class InstanceDatabaseMigrator implements DatabaseMigrator {
             CAN_EDIT_WHEN_COMPLETE, INSTANCE_FILE_PATH, JR_FORM_ID, JR_VERSION, STATUS,
             LAST_STATUS_CHANGE_DATE, DELETED_DATE, GEOMETRY, GEOMETRY_TYPE};
 
-    public static final String[] CURRENT_VERSION_COLUMN_NAMES = COLUMN_NAMES_V6;
+    private static final String[] COLUMN_NAMES_V8 = {_ID, DISPLAY_NAME, SUBMISSION_URI,
+            CAN_EDIT_WHEN_COMPLETE, INSTANCE_FILE_PATH, JR_FORM_ID, JR_VERSION, STATUS,
+            LAST_STATUS_CHANGE_DATE, DELETED_DATE, GEOMETRY, GEOMETRY_TYPE, GEOMETRY_MIN_LATITUDE,
+            GEOMETRY_MIN_LONGITUDE, GEOMETRY_MAX_LATITUDE, GEOMETRY_MAX_LONGITUDE};
+
+    public static final String[] CURRENT_VERSION_COLUMN_NAMES = COLUMN_NAMES_V8;
 
     public void onCreate(SQLiteDatabase db) {
         createInstancesTableV5(db, INSTANCES_TABLE_NAME);
         upgradeToVersion6(db, INSTANCES_TABLE_NAME);
+        upgradeToVersion7(db);
+        upgradeToVersion8(db);
     }
 
     @SuppressWarnings({"checkstyle:FallThrough"})
@@ -53,6 +70,10 @@ public class InstanceDatabaseMigrator implements DatabaseMigrator {
                 upgradeToVersion5(db);
             case 5:
                 upgradeToVersion6(db, INSTANCES_TABLE_NAME);
+            case 6:
+                upgradeToVersion7(db);
+            case 7:
+                upgradeToVersion8(db);
                 break;
             default:
                 Timber.i("Unknown version %d", oldVersion);
@@ -63,8 +84,12 @@ public class InstanceDatabaseMigrator implements DatabaseMigrator {
         String temporaryTableName = INSTANCES_TABLE_NAME + "_tmp";
         createInstancesTableV5(db, temporaryTableName);
         upgradeToVersion6(db, temporaryTableName);
+        addGeometryBoundsColumns(db, temporaryTableName);
 
         dropObsoleteColumns(db, CURRENT_VERSION_COLUMN_NAMES, temporaryTableName);
+        upgradeToVersion7(db);
+        fillGeometryBounds(db);
+        createGeometryBoundsIndex(db);
     }
 
     private void upgradeToVersion2(SQLiteDatabase db) {
@@ -133,6 +158,76 @@ public class InstanceDatabaseMigrator implements DatabaseMigrator {
         SQLiteUtils.addColumn(db, name, GEOMETRY_TYPE, "text");
     }
 
+    /**
+     * Upgrade to version 7. Adds indexes for the columns instances are looked up by so that those
+     * lookups don't need to scan every instance (including deleted ones) on the device. The indexes
+     * are dropped along with the table so this needs to be run again whenever the table is rebuilt.
+     */
+    private void upgradeToVersion7(SQLiteDatabase db) {
+        SQLiteUtils.createIndex(db, INSTANCES_TABLE_NAME, JR_FORM_ID, JR_VERSION);
+        SQLiteUtils.createIndex(db, INSTANCES_TABLE_NAME, STATUS);
+        SQLiteUtils.createIndex(db, INSTANCES_TABLE_NAME, INSTANCE_FILE_PATH);
+        SQLiteUtils.createIndex(db, INSTANCES_TABLE_NAME, DELETED_DATE);
+    }
+
+    /**
+     * Upgrade to version 8. Adds the bounding box of each instance's geometry as numbers (filled in
+     * from the existing GeoJSON) and an index on them so that instances can be looked up by
+     * location without parsing every instance's geometry.
+     */
+    private void upgradeToVersion8(SQLiteDatabase db) {
+        addGeometryBoundsColumns(db, INSTANCES_TABLE_NAME);
+        fillGeometryBounds(db);
+        createGeometryBoundsIndex(db);
+    }
+
+    private void addGeometryBoundsColumns(SQLiteDatabase db, String name) {
+        SQLiteUtils.addColumn(db, name, GEOMETRY_MIN_LATITUDE, "real");
+        SQLiteUtils.addColumn(db, name, GEOMETRY_MIN_LONGITUDE, "real");
+        SQLiteUtils.addColumn(db, name, GEOMETRY_MAX_LATITUDE, "real");
+        SQLiteUtils.addColumn(db, name, GEOMETRY_MAX_LONGITUDE, "real");
+    }
+
+    /**
+     * Lookups are always for a form so it comes first. The bounds follow so that instances that
+     * are out of bounds can be skipped without reading their rows.
+     */
+    private void createGeometryBoundsIndex(SQLiteDatabase db) {
+        SQLiteUtils.createIndex(db, INSTANCES_TABLE_NAME, JR_FORM_ID, GEOMETRY_MAX_LATITUDE,
+                GEOMETRY_MIN_LATITUDE, GEOMETRY_MAX_LONGITUDE, GEOMETRY_MIN_LONGITUDE);
+    }
+
+    /**
+     * Fills in the bounds for instances that have point geometry (the only kind Collect stores)
+     * but no bounds yet.
+     */
+    private void fillGeometryBounds(SQLiteDatabase db) {
+        String[] projection = {_ID, GEOMETRY};
+        String selection = GEOMETRY + " IS NOT NULL AND " + GEOMETRY_TYPE + " = 'Point' AND "
+                + GEOMETRY_MIN_LATITUDE + " IS NULL";
+
+        try (Cursor cursor = db.query(INSTANCES_TABLE_NAME, projection, selection, null, null, null, null)) {
+            while (cursor.moveToNext()) {
+                String geometry = cursor.getString(1);
+                try {
+                    JSONArray coordinates = new JSONObject(geometry).getJSONArray("coordinates");
+                    // In GeoJSON, longitude comes before latitude.
+                    double lon = coordinates.getDouble(0);
+                    double lat = coordinates.getDouble(1);
+
+                    ContentValues values = new ContentValues();
+                    values.put(GEOMETRY_MIN_LATITUDE, lat);
+                    values.put(GEOMETRY_MIN_LONGITUDE, lon);
+                    values.put(GEOMETRY_MAX_LATITUDE, lat);
+                    values.put(GEOMETRY_MAX_LONGITUDE, lon);
+                    db.update(INSTANCES_TABLE_NAME, values, _ID + "=?", new String[]{cursor.getString(0)});
+                } catch (JSONException e) {
+                    Timber.w("Invalid JSON in instances table: %s", geometry);
+                }
+            }
+        }
+    }
+
     private void createInstancesTableV5(SQLiteDatabase db, String name) {
         db.execSQL("CREATE TABLE IF NOT EXISTS " + name + " ("
                 + _ID + " integer primary key, "
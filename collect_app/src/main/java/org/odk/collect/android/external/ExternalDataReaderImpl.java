@@ -19,13 +19,25 @@
 package org.odk.collect.android.external;
 
 import android.database.sqlite.SQLiteDatabase;
+import android.text.TextUtils;
 
 import org.apache.commons.io.FileUtils;
+import org.odk.collect.android.R;
+import org.odk.collect.android.application.Collect;
 import org.odk.collect.android.tasks.FormLoaderTask;
+import org.odk.collect.android.utilities.TranslationHandler;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import timber.log.Timber;
 
@@ -36,23 +48,135 @@ import timber.log.Timber;
  */
 public class ExternalDataReaderImpl implements ExternalDataReader {
 
+    private static final int MAX_IMPORT_THREADS = 4;
+
     private final FormLoaderTask formLoaderTask;
 
+    // Set when one of the data sets being imported concurrently fails so the others stop
+    private final AtomicBoolean failed = new AtomicBoolean();
+    private final Map<File, Integer> recordCounts = new ConcurrentHashMap<>();
+    private volatile boolean concurrent;
+    private String dataSetNames;
+
     public ExternalDataReaderImpl(FormLoaderTask formLoaderTask) {
         this.formLoaderTask = formLoaderTask;
     }
 
+    /**
+     * Imports each data set into its own database. Data sets don't share any state so they are
+     * imported concurrently on a small pool. If the import is cancelled or one of the data sets
+     * can't be imported, data sets that are being imported are rolled back and the ones that
+     * haven't started yet are skipped. This only returns once every import has stopped.
+     */
     @Override
     public void doImport(Map<String, File> externalDataMap) {
+        List<Map.Entry<String, File>> dataSets = new ArrayList<>();
         for (Map.Entry<String, File> stringFileEntry : externalDataMap.entrySet()) {
-            String dataSetName = stringFileEntry.getKey();
-            File dataSetFile = stringFileEntry.getValue();
-            if (!dataSetFile.exists()) {
-                continue;
+            if (stringFileEntry.getValue().exists()) {
+                dataSets.add(stringFileEntry);
             }
-            if (!doImportDataSetAndContinue(dataSetName, dataSetFile)) {
-                return; // halt if import was cancelled
+        }
+
+        int threadCount = Math.min(dataSets.size(), MAX_IMPORT_THREADS);
+        if (threadCount <= 1) {
+            for (Map.Entry<String, File> dataSet : dataSets) {
+                if (!doImportDataSetAndContinue(dataSet.getKey(), dataSet.getValue())) {
+                    return; // halt if import was cancelled
+                }
             }
+            return;
+        }
+
+        concurrent = true;
+        List<String> fileNames = new ArrayList<>();
+        for (Map.Entry<String, File> dataSet : dataSets) {
+            fileNames.add(dataSet.getValue().getName());
+        }
+        dataSetNames = TextUtils.join(", ", fileNames);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            for (Map.Entry<String, File> dataSet : dataSets) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        return !isCancelled()
+                                && doImportDataSetAndContinue(dataSet.getKey(), dataSet.getValue());
+                    } catch (RuntimeException e) {
+                        // The other imports roll back what they've written once they see this
+                        failed.set(true);
+                        throw e;
+                    }
+                }));
+            }
+
+            RuntimeException failure = null;
+            for (Future<Boolean> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = e.getCause() instanceof RuntimeException
+                                ? (RuntimeException) e.getCause()
+                                : new RuntimeException(e.getCause());
+                        failed.set(true);
+                    }
+                }
+            }
+
+            if (failure != null) {
+                throw failure;
+            }
+
+            if (!isCancelled()) {
+                publishProgress(TranslationHandler.getString(Collect.getInstance(), R.string.ext_import_completed_message));
+            }
+        } catch (InterruptedException e) {
+            // Imports still running will stop and roll back at their next record
+            failed.set(true);
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    boolean isCancelled() {
+        return failed.get() || (formLoaderTask != null && formLoaderTask.isLoadCancelled());
+    }
+
+    /**
+     * Reports how many records of a data set have been imported so far. When data sets are
+     * imported concurrently, the total for all of them is reported.
+     */
+    void onRecordsImported(File dataSetFile, int recordCount) {
+        String names = dataSetFile.getName();
+        int total = recordCount;
+        if (concurrent) {
+            recordCounts.put(dataSetFile, recordCount);
+            names = dataSetNames;
+            total = 0;
+            for (int count : recordCounts.values()) {
+                total += count;
+            }
+        }
+
+        publishProgress(TranslationHandler.getString(Collect.getInstance(), R.string.ext_import_progress_message,
+                names, total > 0 ? " (" + total + " records so far)" : ""));
+    }
+
+    /**
+     * Reports the progress of a single data set's import. These are only shown when data sets are
+     * imported one at a time as they would overwrite the total for concurrent imports.
+     */
+    void onProgress(String message) {
+        if (!concurrent) {
+            publishProgress(message);
+        }
+    }
+
+    private void publishProgress(String message) {
+        if (formLoaderTask != null) {
+            formLoaderTask.publishExternalDataLoadingProgress(message);
         }
     }
 
@@ -74,9 +198,9 @@ public class ExternalDataReaderImpl implements ExternalDataReader {
         }
         ExternalSQLiteOpenHelper externalSQLiteOpenHelper = new ExternalSQLiteOpenHelper(
                 dbFile);
-        externalSQLiteOpenHelper.importFromCSV(dataSetFile, this, formLoaderTask);
+        externalSQLiteOpenHelper.importFromCSV(dataSetFile, this);
 
-        if (formLoaderTask != null && formLoaderTask.isCancelled()) {
+        if (isCancelled()) {
             Timber.w(
                     "The import was cancelled, so we need to rollback.");
 
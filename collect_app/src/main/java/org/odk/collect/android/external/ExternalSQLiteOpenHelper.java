@@ -22,17 +22,17 @@ import android.content.ContentValues;
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import android.database.sqlite.SQLiteStatement;
 
 import org.odk.collect.android.R;
 import org.odk.collect.android.application.Collect;
 import org.odk.collect.android.database.AltDatabasePathContext;
 import org.odk.collect.android.exception.ExternalDataException;
-import org.odk.collect.android.tasks.FormLoaderTask;
 import org.odk.collect.android.utilities.CustomSQLiteQueryBuilder;
 import org.odk.collect.android.utilities.CustomSQLiteQueryExecutor;
+import org.odk.collect.android.utilities.FileMd5Cache;
 import org.odk.collect.android.utilities.SQLiteUtils;
 import org.odk.collect.android.utilities.TranslationHandler;
-import org.odk.collect.shared.strings.Md5;
 
 import java.io.File;
 import java.io.FileInputStream;
@@ -57,20 +57,18 @@ public class ExternalSQLiteOpenHelper extends SQLiteOpenHelper {
     private static final char DELIMITING_CHAR = ",".charAt(0);
     private static final char QUOTE_CHAR = "\"".charAt(0);
     private static final char ESCAPE_CHAR = "\0".charAt(0);
+    private static final int PROGRESS_INTERVAL = 1000;
 
     private File dataSetFile;
-    private ExternalDataReader externalDataReader;
-    private FormLoaderTask formLoaderTask;
+    private ExternalDataReaderImpl externalDataReader;
 
     ExternalSQLiteOpenHelper(File dbFile) {
         super(new AltDatabasePathContext(dbFile.getParentFile().getAbsolutePath(), Collect.getInstance()), dbFile.getName(), null, VERSION);
     }
 
-    void importFromCSV(File dataSetFile, ExternalDataReader externalDataReader,
-                       FormLoaderTask formLoaderTask) {
+    void importFromCSV(File dataSetFile, ExternalDataReaderImpl externalDataReader) {
         this.dataSetFile = dataSetFile;
         this.externalDataReader = externalDataReader;
-        this.formLoaderTask = formLoaderTask;
 
         SQLiteDatabase writableDatabase = null;
         try {
@@ -82,6 +80,15 @@ public class ExternalSQLiteOpenHelper extends SQLiteOpenHelper {
         }
     }
 
+    @Override
+    public void onConfigure(SQLiteDatabase db) {
+        if (externalDataReader != null) {
+            // The database is only being written while importing and it will be imported again
+            // from the data set if anything goes wrong so there's no need to sync every write
+            db.execSQL("PRAGMA synchronous = OFF");
+        }
+    }
+
     @Override
     public void onCreate(SQLiteDatabase db) {
         if (externalDataReader == null) {
@@ -107,8 +114,7 @@ public class ExternalSQLiteOpenHelper extends SQLiteOpenHelper {
     private void onCreateNamed(SQLiteDatabase db, String tableName) throws Exception {
         Timber.w("Reading data from '%s", dataSetFile.toString());
 
-        onProgress(TranslationHandler.getString(Collect.getInstance(), R.string.ext_import_progress_message,
-                dataSetFile.getName(), ""));
+        externalDataReader.onRecordsImported(dataSetFile, 0);
 
         CSVReader reader = null;
         try {
@@ -187,54 +193,84 @@ public class ExternalSQLiteOpenHelper extends SQLiteOpenHelper {
                 }
             }
 
-            // populate the database
-            String[] row = reader.readNext();
-            int rowCount = 0;
-            while (row != null && !isCancelled()) {
-                // SCTO-894 - first we should make sure that this is not an empty line
-                if (!ExternalDataUtil.containsAnyData(row)) {
-                    // yes, that is an empty row, ignore it
-                    row = reader.readNext();
+            // populate the database through a single compiled statement. Each header column is
+            // mapped to its bind position up front so rows only need to be bound and inserted.
+            int[] bindIndexes = new int[headerRow.length];
+            int sortColumnBindIndex = -1;
+            List<String> insertColumns = new ArrayList<>();
+            for (int i = 0; i < headerRow.length; i++) {
+                String columnName = headerRow[i].trim();
+                if (columnName.length() == 0) {
                     continue;
                 }
-
-                // SCTO-894 - then check if the row contains less values than the header
-                // we should not ignore the existing values in the row,
-                // we will just fill up the rest with empty strings
-                if (row.length < headerRow.length) {
-                    row = ExternalDataUtil.fillUpNullValues(row, headerRow);
-                }
-
-                ContentValues values = new ContentValues();
-                if (!sortColumnAlreadyPresent) {
-                    values.put(ExternalDataUtil.SORT_COLUMN_NAME, rowCount + 1);
+                String safeColumnName = ExternalDataUtil.toSafeColumnName(columnName,
+                        columnNamesCache);
+                insertColumns.add(safeColumnName);
+                bindIndexes[i] = insertColumns.size();
+                if (safeColumnName.equals(ExternalDataUtil.SORT_COLUMN_NAME)) {
+                    sortColumnBindIndex = bindIndexes[i];
                 }
+            }
+            if (!sortColumnAlreadyPresent) {
+                insertColumns.add(ExternalDataUtil.SORT_COLUMN_NAME);
+                sortColumnBindIndex = insertColumns.size();
+            }
 
-                for (int i = 0; i < row.length && i < headerRow.length; i++) {
-                    String columnName = headerRow[i].trim();
-                    String columnValue = row[i];
-                    if (columnName.length() == 0) {
+            SQLiteStatement insertStatement = db.compileStatement(createInsertSql(tableName, insertColumns));
+            try {
+                long start = System.currentTimeMillis();
+                String[] row = reader.readNext();
+                int rowCount = 0;
+                while (row != null && !isCancelled()) {
+                    // SCTO-894 - first we should make sure that this is not an empty line
+                    if (!ExternalDataUtil.containsAnyData(row)) {
+                        // yes, that is an empty row, ignore it
+                        row = reader.readNext();
                         continue;
                     }
-                    String safeColumnName = ExternalDataUtil.toSafeColumnName(columnName,
-                            columnNamesCache);
-                    if (safeColumnName.equals(ExternalDataUtil.SORT_COLUMN_NAME)) {
-                        try {
-                            values.put(safeColumnName, Double.parseDouble(columnValue));
-                        } catch (NumberFormatException e) {
-                            throw new ExternalDataException(TranslationHandler.getString(Collect.getInstance(), R.string.ext_sortBy_numeric_error, columnValue));
+
+                    // SCTO-894 - then check if the row contains less values than the header
+                    // we should not ignore the existing values in the row,
+                    // we will just fill up the rest with empty strings
+                    if (row.length < headerRow.length) {
+                        row = ExternalDataUtil.fillUpNullValues(row, headerRow);
+                    }
+
+                    if (!sortColumnAlreadyPresent) {
+                        insertStatement.bindLong(sortColumnBindIndex, rowCount + 1);
+                    }
+
+                    for (int i = 0; i < headerRow.length; i++) {
+                        int bindIndex = bindIndexes[i];
+                        if (bindIndex == 0) {
+                            continue;
+                        }
+                        String columnValue = row[i];
+                        if (bindIndex == sortColumnBindIndex) {
+                            try {
+                                insertStatement.bindDouble(bindIndex, Double.parseDouble(columnValue));
+                            } catch (NumberFormatException e) {
+                                throw new ExternalDataException(TranslationHandler.getString(Collect.getInstance(), R.string.ext_sortBy_numeric_error, columnValue));
+                            }
+                        } else if (columnValue == null) {
+                            insertStatement.bindNull(bindIndex);
+                        } else {
+                            insertStatement.bindString(bindIndex, columnValue);
                         }
-                    } else {
-                        values.put(safeColumnName, columnValue);
+                    }
+                    insertStatement.executeInsert();
+                    row = reader.readNext();
+                    rowCount++;
+                    if (rowCount % PROGRESS_INTERVAL == 0) {
+                        externalDataReader.onRecordsImported(dataSetFile, rowCount);
                     }
                 }
-                db.insertOrThrow(tableName, null, values);
-                row = reader.readNext();
-                rowCount++;
-                if (rowCount % 100 == 0) {
-                    onProgress(TranslationHandler.getString(Collect.getInstance(), R.string.ext_import_progress_message,
-                            dataSetFile.getName(), " (" + rowCount + " records so far)"));
-                }
+
+                long duration = Math.max(System.currentTimeMillis() - start, 1);
+                Timber.i("Inserted %d rows from %s in %d ms (%d rows/s)", rowCount, dataSetFile.getName(),
+                        duration, rowCount * 1000L / duration);
+            } finally {
+                insertStatement.close();
             }
 
             if (isCancelled()) {
@@ -264,8 +300,32 @@ public class ExternalSQLiteOpenHelper extends SQLiteOpenHelper {
         }
     }
 
+    private static String createInsertSql(String tableName, List<String> columns) {
+        StringBuilder sb = new StringBuilder()
+                .append("INSERT INTO ")
+                .append(tableName)
+                .append(" (");
+
+        for (int i = 0; i < columns.size(); i++) {
+            if (i != 0) {
+                sb.append(", ");
+            }
+            sb.append(columns.get(i));
+        }
+
+        sb.append(") VALUES (");
+        for (int i = 0; i < columns.size(); i++) {
+            if (i != 0) {
+                sb.append(", ");
+            }
+            sb.append('?');
+        }
+
+        return sb.append(");").toString();
+    }
+
     protected boolean isCancelled() {
-        return formLoaderTask != null && formLoaderTask.isCancelled();
+        return externalDataReader != null && externalDataReader.isCancelled();
     }
 
     // Create a metadata table with a single column that keeps track of the date of the last import
@@ -282,7 +342,7 @@ public class ExternalSQLiteOpenHelper extends SQLiteOpenHelper {
 
         ContentValues metadata = new ContentValues();
         metadata.put(ExternalDataUtil.COLUMN_DATASET_FILENAME, dataSetFile.getName());
-        metadata.put(ExternalDataUtil.COLUMN_MD5_HASH, Md5.getMd5Hash(dataSetFile));
+        metadata.put(ExternalDataUtil.COLUMN_MD5_HASH, FileMd5Cache.getMd5Hash(dataSetFile));
         db.insertOrThrow(metadataTableName, null, metadata);
     }
 
@@ -318,7 +378,7 @@ public class ExternalSQLiteOpenHelper extends SQLiteOpenHelper {
         }
         // Import if the CSV file has been updated
         String priorImportMd5 = getLastMd5Hash(db, metadataTableName, dataSetFile);
-        String newFileMd5 = Md5.getMd5Hash(dataSetFile);
+        String newFileMd5 = FileMd5Cache.getMd5Hash(dataSetFile);
         return newFileMd5 == null || !newFileMd5.equals(priorImportMd5);
     }
 
@@ -327,8 +387,8 @@ public class ExternalSQLiteOpenHelper extends SQLiteOpenHelper {
     }
 
     private void onProgress(String message) {
-        if (formLoaderTask != null) {
-            formLoaderTask.publishExternalDataLoadingProgress(message);
+        if (externalDataReader != null) {
+            externalDataReader.onProgress(message);
         }
     }
 
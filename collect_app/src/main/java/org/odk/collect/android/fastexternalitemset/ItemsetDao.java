@@ -18,6 +18,7 @@ package org.odk.collect.android.fastexternalitemset;
 
 import android.database.Cursor;
 import android.database.sqlite.SQLiteException;
+import android.util.LruCache;
 
 import org.javarosa.core.model.FormDef;
 import org.javarosa.core.model.SelectChoice;
@@ -39,6 +40,9 @@ import timber.log.Timber;
 
 public class ItemsetDao {
     private static final String QUOTATION_MARK = "\"";
+    private static final int MAX_PARSED_QUERIES = 100;
+
+    private static final LruCache<String, ItemsetQuery> PARSED_QUERIES = new LruCache<>(MAX_PARSED_QUERIES);
 
     private final ItemsetDbAdapter adapter;
 
@@ -87,15 +91,24 @@ public class ItemsetDao {
     }
 
     public List<SelectChoice> getItems(FormEntryPrompt formEntryPrompt, XPathParseTool pathParseTool) throws FileNotFoundException, XPathSyntaxException {
-        String nodesetString = getNodesetString(formEntryPrompt);
-
-        List<String> arguments = new ArrayList<>();
-        String selectionString = getSelectionStringAndPopulateArguments(getQueryString(nodesetString), arguments);
+        ItemsetQuery query = getItemsetQuery(getNodesetString(formEntryPrompt), pathParseTool);
 
         FormController formController = Collect.getInstance().getFormController();
-        String[] selectionArgs = getSelectionArgs(arguments, nodesetString, formController, pathParseTool, formEntryPrompt);
+        String[] selectionArgs = getSelectionArgs(query, formController, formEntryPrompt);
+
+        return selectionArgs == null ? null : getItemsFromDatabase(query, selectionArgs, formController, adapter);
+    }
 
-        return selectionArgs == null ? null : getItemsFromDatabase(selectionString, selectionArgs, formController, adapter);
+    /**
+     * Returns the columns of an itemset table that an index should cover for the given query
+     * attribute: the list name and, if the filters are all ANDed, the filter columns (a composite
+     * index doesn't help disjunctions). Indexes are built when the form is loaded rather than when
+     * the query is first run so that rendering a question never waits for one.
+     */
+    public static List<String> getIndexColumns(String nodesetString) {
+        ItemsetQuery query = new ItemsetQuery();
+        getSelectionStringAndPopulateArguments(getQueryString(nodesetString), new ArrayList<>(), query);
+        return query.indexColumns;
     }
 
     private String getNodesetString(FormEntryPrompt formEntryPrompt) {
@@ -105,15 +118,47 @@ public class ItemsetDao {
         return formEntryPrompt.getQuestion().getAdditionalAttribute(null, "query");
     }
 
-    private String getQueryString(String nodesetStr) {
+    /**
+     * Cascading selects run the same query every time their screen is rendered so the selection
+     * and the expressions for its arguments are only parsed the first time each query is seen.
+     */
+    @SuppressWarnings("PMD.AvoidThrowingNewInstanceOfSameException")
+    private ItemsetQuery getItemsetQuery(String nodesetString, XPathParseTool pathParseTool) throws XPathSyntaxException {
+        ItemsetQuery query = PARSED_QUERIES.get(nodesetString);
+        if (query != null) {
+            return query;
+        }
+
+        query = new ItemsetQuery();
+
+        // parse out the list name, between the ''
+        query.listName = nodesetString.substring(nodesetString.indexOf('\'') + 1, nodesetString.lastIndexOf('\''));
+
+        List<String> arguments = new ArrayList<>();
+        query.selection = getSelectionStringAndPopulateArguments(getQueryString(nodesetString), arguments, query);
+
+        for (String argument : arguments) {
+            try {
+                query.expressions.add(pathParseTool.parseXPath(argument));
+            } catch (XPathSyntaxException e) {
+                throw new XPathSyntaxException(argument);
+            }
+        }
+
+        PARSED_QUERIES.put(nodesetString, query);
+        return query;
+    }
+
+    private static String getQueryString(String nodesetStr) {
         // isolate the string between between the [ ] characters
         return nodesetStr.substring(nodesetStr.indexOf('[') + 1, nodesetStr.lastIndexOf(']'));
     }
 
-    private String getSelectionStringAndPopulateArguments(String queryString, List<String> arguments) {
+    private static String getSelectionStringAndPopulateArguments(String queryString, List<String> arguments, ItemsetQuery query) {
         StringBuilder selectionString = new StringBuilder();
         // add the list name as the first argument, which will always be there
-        selectionString.append("list_name=?");
+        selectionString.append(ItemsetDbAdapter.KEY_LIST_NAME + "=?");
+        query.indexColumns.add(ItemsetDbAdapter.KEY_LIST_NAME);
 
         // check to see if there are any arguments
         if (queryString.indexOf('=') != -1) {
@@ -125,6 +170,8 @@ public class ItemsetDao {
         // must include the spaces in indexOf so we don't match words like "land"
         int andIndex;
         int orIndex = -1;
+        boolean hasOr = false;
+        List<String> filterColumns = new ArrayList<>();
 
         while ((andIndex = queryString.indexOf(" and ")) != -1 || (orIndex = queryString.indexOf(" or ")) != -1) {
             if (andIndex != -1) {
@@ -142,6 +189,7 @@ public class ItemsetDao {
                     arguments
                             .add(pair[1]
                                     .trim());
+                    filterColumns.add(pair[0].trim());
                 }
                 // move string forward to after " and "
                 queryString = queryString.substring(andIndex + 5, queryString.length());
@@ -156,10 +204,12 @@ public class ItemsetDao {
                             .append(QUOTATION_MARK)
                             .append("=? or ");
                     arguments.add(pair[1].trim());
+                    filterColumns.add(pair[0].trim());
                 }
                 // move string forward to after " or "
                 queryString = queryString.substring(orIndex + 4, queryString.length());
                 orIndex = -1;
+                hasOr = true;
             }
         }
 
@@ -172,19 +222,21 @@ public class ItemsetDao {
                     .append(QUOTATION_MARK)
                     .append("=?");
             arguments.add(pair[1].trim());
+            filterColumns.add(pair[0].trim());
+        }
+
+        // an index over all the filter columns only helps if every one of them has to match
+        if (!hasOr) {
+            query.indexColumns.addAll(filterColumns);
         }
         return selectionString.toString();
     }
 
-    @SuppressWarnings("PMD.AvoidThrowingNewInstanceOfSameException")
-    private String[] getSelectionArgs(List<String> arguments, String nodesetStr, FormController formController, XPathParseTool pathParseTool, FormEntryPrompt formEntryPrompt) throws XPathSyntaxException {
+    private String[] getSelectionArgs(ItemsetQuery query, FormController formController, FormEntryPrompt formEntryPrompt) {
         // +1 is for the list_name
-        String[] selectionArgs = new String[arguments.size() + 1];
+        String[] selectionArgs = new String[query.expressions.size() + 1];
 
-        // parse out the list name, between the ''
-        String listName = nodesetStr.substring(nodesetStr.indexOf('\'') + 1, nodesetStr.lastIndexOf('\''));
-
-        selectionArgs[0] = listName; // first argument is always listname
+        selectionArgs[0] = query.listName; // first argument is always listname
 
         if (formController == null) {
             Timber.w("Can't instantiate ItemsetWidget with a null FormController.");
@@ -192,13 +244,8 @@ public class ItemsetDao {
         }
 
         // loop through the arguments, evaluate any expressions and build the query string for the DB
-        for (int i = 0; i < arguments.size(); i++) {
-            XPathExpression xpr;
-            try {
-                xpr = pathParseTool.parseXPath(arguments.get(i));
-            } catch (XPathSyntaxException e) {
-                throw new XPathSyntaxException(arguments.get(i));
-            }
+        for (int i = 0; i < query.expressions.size(); i++) {
+            XPathExpression xpr = query.expressions.get(i);
 
             if (xpr != null) {
                 FormDef form = formController.getFormDef();
@@ -221,7 +268,7 @@ public class ItemsetDao {
         return selectionArgs;
     }
 
-    private List<SelectChoice> getItemsFromDatabase(String selection, String[] selectionArgs, FormController formController, ItemsetDbAdapter adapter) throws FileNotFoundException {
+    private List<SelectChoice> getItemsFromDatabase(ItemsetQuery query, String[] selectionArgs, FormController formController, ItemsetDbAdapter adapter) throws FileNotFoundException {
         List<SelectChoice> items = new ArrayList<>();
 
         File itemsetFile = getItemsetFile(formController.getMediaFolder().getAbsolutePath());
@@ -232,7 +279,7 @@ public class ItemsetDao {
             // name of the itemset table for this form
             String pathHash = ItemsetDbAdapter.getMd5FromString(itemsetFile.getAbsolutePath());
             try {
-                Cursor c = adapter.query(pathHash, selection, selectionArgs);
+                Cursor c = adapter.query(pathHash, query.selection, selectionArgs);
                 if (c != null) {
                     c.move(-1);
                     int index = 0;
@@ -279,4 +326,11 @@ public class ItemsetDao {
     public File getItemsetFile(String mediaFolderPath) {
         return new File(mediaFolderPath + "/itemsets.csv");
     }
+
+    private static class ItemsetQuery {
+        String listName;
+        String selection;
+        final List<XPathExpression> expressions = new ArrayList<>();
+        final List<String> indexColumns = new ArrayList<>();
+    }
 }
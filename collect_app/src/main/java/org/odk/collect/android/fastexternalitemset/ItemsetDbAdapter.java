@@ -15,6 +15,7 @@ import java.io.Closeable;
 import java.math.BigInteger;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.List;
 
 import timber.log.Timber;
 
@@ -31,6 +32,9 @@ public class ItemsetDbAdapter implements Closeable {
     public static final String KEY_ITEMSET_HASH = "hash";
     public static final String KEY_PATH = "path";
 
+    public static final String KEY_LIST_NAME = "list_name";
+    public static final String KEY_NAME = "name";
+
     private static final String CREATE_ITEMSET_TABLE =
             "CREATE TABLE IF NOT EXISTS " + ITEMSET_TABLE + " (_id integer primary key autoincrement, "
                     + KEY_ITEMSET_HASH + " text, "
@@ -141,6 +145,25 @@ public class ItemsetDbAdapter implements Closeable {
         return true;
     }
 
+    /**
+     * Creates an index over the given columns of an itemset table unless one already exists. The
+     * index is named after the columns so each combination is only ever created once per table and
+     * it's dropped along with the table.
+     */
+    public void createIndex(String pathHash, List<String> columns) {
+        StringBuilder columnList = new StringBuilder();
+        for (String column : columns) {
+            if (columnList.length() > 0) {
+                columnList.append(", ");
+            }
+            columnList.append('"').append(column).append('"');
+        }
+
+        String indexName = DATABASE_TABLE + pathHash + "_" + getMd5FromString(columnList.toString());
+        db.execSQL("CREATE INDEX IF NOT EXISTS \"" + indexName + "\" ON "
+                + DATABASE_TABLE + pathHash + " (" + columnList + ");");
+    }
+
     public void beginTransaction() {
         db.execSQL("BEGIN");
     }
@@ -149,6 +172,10 @@ public class ItemsetDbAdapter implements Closeable {
         db.execSQL("COMMIT");
     }
 
+    public void rollback() {
+        db.execSQL("ROLLBACK");
+    }
+
     public Cursor query(String hash, String selection, String[] selectionArgs) throws SQLException {
         return db.query(true, DATABASE_TABLE + hash, null, selection, selectionArgs,
                 null, null, null, null);
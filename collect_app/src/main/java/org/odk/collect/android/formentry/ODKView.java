@@ -38,6 +38,8 @@ import android.widget.Toast;
 import androidx.activity.ComponentActivity;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.core.widget.NestedScrollView;
 import androidx.lifecycle.LifecycleOwner;
 
 import com.google.android.material.button.MaterialButton;
@@ -95,6 +97,7 @@ import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 import javax.inject.Inject;
@@ -109,14 +112,32 @@ import static org.odk.collect.android.utilities.ApplicationConstants.RequestCode
  * Contains either one {@link QuestionWidget} if the current form element is a question or
  * multiple {@link QuestionWidget}s if the current form element is a group with the
  * {@code field-list} appearance.
+ * <p>
+ * Large field-lists are virtualized: widgets are only created for questions that are on (or
+ * close to) the screen, the rest being represented by placeholders of about the same height.
+ * Widgets that are scrolled far away are released back to placeholders as long as they don't
+ * hold anything that isn't already in the form (see {@link #canReleaseWidget(WidgetSlot)}).
  */
 @SuppressLint("ViewConstructor")
 public class ODKView extends FrameLayout implements OnLongClickListener, WidgetValueChangedListener {
 
+    /**
+     * Field-lists with more questions than this have their widgets created as they are scrolled to
+     */
+    private static final int MAX_NON_VIRTUALIZED_WIDGETS = 20;
+    private static final int INITIAL_VIRTUALIZED_WIDGETS = 8;
+    private static final int ESTIMATED_WIDGET_HEIGHT_DP = 160;
+
+    private final NestedScrollView scrollView;
     private final LinearLayout widgetsList;
     private final LinearLayout.LayoutParams layout;
-    private final ArrayList<QuestionWidget> widgets;
+    private final ArrayList<WidgetSlot> slots;
     private final AudioHelper audioHelper;
+    private final WaitingForDataRegistry waitingForDataRegistry;
+    private final boolean virtualized;
+
+    private OnFocusChangeListener widgetFocusChangeListener;
+    private boolean updatingWidgets;
 
     private WidgetValueChangedListener widgetValueChangedListener;
 
@@ -153,6 +174,7 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
         viewLifecycle = ((ScreenContext) context).getViewLifecycle();
         this.audioRecorder = audioRecorder;
         this.formEntryViewModel = formEntryViewModel;
+        this.waitingForDataRegistry = waitingForDataRegistry;
 
         getComponent(context).inject(this);
         this.audioHelper = audioHelperFactory.create(context);
@@ -189,7 +211,8 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
                 viewLifecycle
         );
 
-        widgets = new ArrayList<>();
+        slots = new ArrayList<>();
+        scrollView = findViewById(R.id.odk_view_container);
         widgetsList = findViewById(R.id.widgets);
 
         layout = new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT,
@@ -197,10 +220,22 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
         // display which group you are in as well as the question
         setGroupText(groups);
 
+        // Widgets in intent groups are all populated at once by setDataForFields
+        virtualized = questionPrompts.length > MAX_NON_VIRTUALIZED_WIDGETS && !readOnlyOverride;
+
         for (FormEntryPrompt question : questionPrompts) {
             addWidgetForQuestion(question);
         }
 
+        if (virtualized) {
+            scrollView.setOnScrollChangeListener((NestedScrollView.OnScrollChangeListener) (v, scrollX, scrollY, oldScrollX, oldScrollY) -> createWidgetsNearViewport());
+            widgetsList.addOnLayoutChangeListener((v, left, top, right, bottom, oldLeft, oldTop, oldRight, oldBottom) -> {
+                if (bottom - top != oldBottom - oldTop) {
+                    post(this::createWidgetsNearViewport);
+                }
+            });
+        }
+
         setupAudioErrors();
         autoplayIfNeeded(advancingPage);
 
@@ -226,8 +261,8 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
 
         // see if there is an autoplay option.
         // Only execute it during forward swipes through the form
-        if (advancingPage && widgets.size() == 1) {
-            FormEntryPrompt firstPrompt = widgets.get(0).getFormEntryPrompt();
+        if (advancingPage && slots.size() == 1) {
+            FormEntryPrompt firstPrompt = slots.get(0).prompt;
             Boolean autoplayedAudio = autoplayAudio(firstPrompt);
 
             if (!autoplayedAudio) {
@@ -254,7 +289,7 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
         if (autoplayOption != null) {
             if (autoplayOption.equalsIgnoreCase("video")) {
                 new Handler().postDelayed(() -> {
-                    widgets.get(0).getAudioVideoImageTextLabel().playVideo();
+                    getOrCreateWidget(0).getAudioVideoImageTextLabel().playVideo();
                 }, 150);
             }
         }
@@ -266,14 +301,19 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
      * it.
      */
     private void addWidgetForQuestion(FormEntryPrompt question) {
-        QuestionWidget qw = configureWidgetForQuestion(question);
-
-        widgets.add(qw);
+        WidgetSlot slot = new WidgetSlot(question);
+        slots.add(slot);
 
-        if (widgets.size() > 1) {
+        if (slots.size() > 1) {
             widgetsList.addView(getDividerView());
         }
-        widgetsList.addView(qw, layout);
+
+        if (!virtualized || slots.size() <= INITIAL_VIRTUALIZED_WIDGETS) {
+            slot.widget = configureWidgetForQuestion(question);
+            widgetsList.addView(slot.widget, layout);
+        } else {
+            widgetsList.addView(getPlaceholderView(getEstimatedWidgetHeight()));
+        }
     }
 
     /**
@@ -283,14 +323,18 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
      * add it to the end.
      */
     public void addWidgetForQuestion(FormEntryPrompt question, int index) {
-        if (index > widgets.size() - 1) {
+        if (index > slots.size() - 1) {
             addWidgetForQuestion(question);
+            slots.get(slots.size() - 1).analyticsLogged = true;
             return;
         }
 
         QuestionWidget qw = configureWidgetForQuestion(question);
 
-        widgets.add(index, qw);
+        WidgetSlot slot = new WidgetSlot(question);
+        slot.widget = qw;
+        slot.analyticsLogged = true;
+        slots.add(index, slot);
 
         int indexAccountingForDividers = index * 2;
         if (index > 0) {
@@ -309,10 +353,146 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
         QuestionWidget qw = widgetFactory.createWidgetFromPrompt(question, permissionsProvider);
         qw.setOnLongClickListener(this);
         qw.setValueChangedListener(this);
+        if (widgetFocusChangeListener != null) {
+            qw.setOnFocusChangeListener(widgetFocusChangeListener);
+        }
 
         return qw;
     }
 
+    /**
+     * Returns the widget for the question at {@code index}, creating it in place of its
+     * placeholder if it hasn't been created yet (or has been released).
+     */
+    private QuestionWidget getOrCreateWidget(int index) {
+        WidgetSlot slot = slots.get(index);
+        if (slot.widget == null) {
+            int scrollOffset = createWidget(index);
+            if (scrollOffset != 0) {
+                scrollView.scrollBy(0, scrollOffset);
+            }
+        }
+
+        return slot.widget;
+    }
+
+    /**
+     * Creates the widget for the question at {@code index} in place of its placeholder.
+     *
+     * @return how far the view needs to be scrolled to keep what's on screen where it is if the
+     * widget is above the viewport and is taller or shorter than its placeholder was
+     */
+    private int createWidget(int index) {
+        WidgetSlot slot = slots.get(index);
+        View placeholder = widgetsList.getChildAt(index * 2);
+        boolean abovePlaceholder = placeholder.getBottom() + widgetsList.getTop() <= scrollView.getScrollY();
+
+        slot.widget = configureWidgetForQuestion(slot.prompt);
+        widgetsList.removeViewAt(index * 2);
+        widgetsList.addView(slot.widget, index * 2, layout);
+
+        if (!slot.analyticsLogged) {
+            logAnalyticsForWidget(slot.widget);
+            slot.analyticsLogged = true;
+        }
+
+        if (abovePlaceholder && widgetsList.getWidth() > 0) {
+            slot.widget.measure(MeasureSpec.makeMeasureSpec(widgetsList.getWidth(), MeasureSpec.EXACTLY),
+                    MeasureSpec.makeMeasureSpec(0, MeasureSpec.UNSPECIFIED));
+            return slot.widget.getMeasuredHeight() - placeholder.getHeight();
+        } else {
+            return 0;
+        }
+    }
+
+    /**
+     * Replaces the widget for the question at {@code index} with a placeholder of the same height
+     * if {@link #canReleaseWidget(WidgetSlot)} allows it.
+     *
+     * @return true if the widget was released
+     */
+    @VisibleForTesting
+    boolean releaseWidget(int index) {
+        WidgetSlot slot = slots.get(index);
+        if (!canReleaseWidget(slot)) {
+            return false;
+        }
+
+        int height = widgetsList.getChildAt(index * 2).getHeight();
+        widgetsList.removeViewAt(index * 2);
+        widgetsList.addView(getPlaceholderView(height > 0 ? height : getEstimatedWidgetHeight()), index * 2);
+        slot.widget = null;
+        return true;
+    }
+
+    /**
+     * Creates the widgets that are within a screen's height of the viewport and releases the ones
+     * that are more than a few screens away.
+     */
+    private void createWidgetsNearViewport() {
+        int viewportHeight = scrollView.getHeight();
+        if (viewportHeight == 0 || updatingWidgets) {
+            return;
+        }
+
+        int scrollY = scrollView.getScrollY() - widgetsList.getTop();
+        int createTop = scrollY - viewportHeight;
+        int createBottom = scrollY + 2 * viewportHeight;
+        int releaseTop = scrollY - 3 * viewportHeight;
+        int releaseBottom = scrollY + 4 * viewportHeight;
+
+        // Scrolling calls back into this method so the view is only scrolled once it's up to date
+        int scrollOffset = 0;
+        updatingWidgets = true;
+        try {
+            for (int i = 0; i < slots.size(); i++) {
+                View view = widgetsList.getChildAt(i * 2);
+
+                if (view.getBottom() >= createTop && view.getTop() <= createBottom) {
+                    if (slots.get(i).widget == null) {
+                        scrollOffset += createWidget(i);
+                    }
+                } else if (view.getHeight() > 0 && (view.getBottom() < releaseTop || view.getTop() > releaseBottom)) {
+                    releaseWidget(i);
+                }
+            }
+        } finally {
+            updatingWidgets = false;
+        }
+
+        if (scrollOffset != 0) {
+            scrollView.scrollBy(0, scrollOffset);
+        }
+    }
+
+    /**
+     * Widgets can only be released if they can be recreated from the form as they are: they aren't
+     * waiting for data from another app, don't have focus and show the answer the form has.
+     */
+    private boolean canReleaseWidget(WidgetSlot slot) {
+        QuestionWidget widget = slot.widget;
+        if (widget == null || widget.hasFocus() || waitingForDataRegistry.isWaitingForData(slot.prompt.getIndex())) {
+            return false;
+        }
+
+        IAnswerData widgetAnswer = widget.getAnswer();
+        IAnswerData formAnswer = slot.prompt.getAnswerValue();
+        return Objects.equals(
+                widgetAnswer == null ? null : widgetAnswer.getDisplayText(),
+                formAnswer == null ? null : formAnswer.getDisplayText()
+        );
+    }
+
+    private int getEstimatedWidgetHeight() {
+        return (int) TypedValue.applyDimension(TypedValue.COMPLEX_UNIT_DIP, ESTIMATED_WIDGET_HEIGHT_DP, getResources().getDisplayMetrics());
+    }
+
+    private View getPlaceholderView(int height) {
+        View placeholder = new View(getContext());
+        placeholder.setLayoutParams(new LinearLayout.LayoutParams(LinearLayout.LayoutParams.MATCH_PARENT, height));
+        return placeholder;
+    }
+
     private View getDividerView() {
         View divider = new View(getContext());
         divider.setBackgroundResource(new ThemeUtils(getContext()).getDivider());
@@ -326,13 +506,14 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
      */
     public HashMap<FormIndex, IAnswerData> getAnswers() {
         HashMap<FormIndex, IAnswerData> answers = new LinkedHashMap<>();
-        for (QuestionWidget q : widgets) {
+        for (WidgetSlot slot : slots) {
             /*
              * The FormEntryPrompt has the FormIndex, which is where the answer gets stored. The
-             * QuestionWidget has the answer the user has entered.
+             * QuestionWidget has the answer the user has entered. Questions without a widget
+             * haven't been changed since the form was last updated.
              */
-            FormEntryPrompt p = q.getFormEntryPrompt();
-            answers.put(p.getIndex(), q.getAnswer());
+            FormEntryPrompt p = slot.prompt;
+            answers.put(p.getIndex(), slot.widget != null ? slot.widget.getAnswer() : p.getAnswerValue());
         }
 
         return answers;
@@ -467,8 +648,8 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
     }
 
     public void setFocus(Context context) {
-        if (!widgets.isEmpty()) {
-            widgets.get(0).setFocus(context);
+        if (!slots.isEmpty()) {
+            getOrCreateWidget(0).setFocus(context);
         }
     }
 
@@ -482,8 +663,8 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
     }
 
     public void scrollTo(@Nullable QuestionWidget qw) {
-        if (qw != null && widgets.contains(qw)) {
-            findViewById(R.id.odk_view_container).scrollTo(0, qw.getTop());
+        if (qw != null && getWidgets().contains(qw)) {
+            scrollView.scrollTo(0, qw.getTop());
         }
     }
 
@@ -503,7 +684,7 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
                 if (answer == null) {
                     continue;
                 }
-                for (QuestionWidget questionWidget : widgets) {
+                for (QuestionWidget questionWidget : getWidgets()) {
                     FormEntryPrompt prompt = questionWidget.getFormEntryPrompt();
                     TreeReference treeReference =
                             (TreeReference) prompt.getFormElement().getBind().getReference();
@@ -573,7 +754,7 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
 
     public boolean suppressFlingGesture(MotionEvent e1, MotionEvent e2, float velocityX,
                                         float velocityY) {
-        for (QuestionWidget q : widgets) {
+        for (QuestionWidget q : getWidgets()) {
             if (q.suppressFlingGesture(e1, e2, velocityX, velocityY)) {
                 return true;
             }
@@ -587,22 +768,33 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
     public boolean clearAnswer() {
         // If there's only one widget, clear the answer.
         // If there are more, then force a long-press to clear the answer.
-        if (widgets.size() == 1 && !widgets.get(0).getFormEntryPrompt().isReadOnly()) {
-            widgets.get(0).clearAnswer();
+        if (slots.size() == 1 && !slots.get(0).prompt.isReadOnly()) {
+            getOrCreateWidget(0).clearAnswer();
             return true;
         } else {
             return false;
         }
     }
 
+    /**
+     * @return the widgets that have been created for this view. In a virtualized field-list this
+     * doesn't include widgets for questions that are far from the screen.
+     */
     public ArrayList<QuestionWidget> getWidgets() {
+        ArrayList<QuestionWidget> widgets = new ArrayList<>();
+        for (WidgetSlot slot : slots) {
+            if (slot.widget != null) {
+                widgets.add(slot.widget);
+            }
+        }
+
         return widgets;
     }
 
     @Override
     public void setOnFocusChangeListener(OnFocusChangeListener l) {
-        for (int i = 0; i < widgets.size(); i++) {
-            QuestionWidget qw = widgets.get(i);
+        widgetFocusChangeListener = l;
+        for (QuestionWidget qw : getWidgets()) {
             qw.setOnFocusChangeListener(l);
         }
     }
@@ -615,7 +807,7 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
     @Override
     public void cancelLongPress() {
         super.cancelLongPress();
-        for (QuestionWidget qw : widgets) {
+        for (QuestionWidget qw : getWidgets()) {
             qw.cancelLongPress();
         }
     }
@@ -645,9 +837,9 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
     }
 
     private QuestionWidget getQuestionWidget(FormIndex formIndex) {
-        for (QuestionWidget qw : widgets) {
-            if (formIndex.equals(qw.getFormEntryPrompt().getIndex())) {
-                return qw;
+        for (int i = 0; i < slots.size(); i++) {
+            if (formIndex.equals(slots.get(i).prompt.getIndex())) {
+                return getOrCreateWidget(i);
             }
         }
         return null;
@@ -669,7 +861,7 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
             widgetsList.removeViewAt(indexAccountingForDividers - 1);
         }
 
-        widgets.remove(index);
+        slots.remove(index);
     }
 
     public void setWidgetValueChangedListener(WidgetValueChangedListener listener) {
@@ -688,10 +880,32 @@ public class ODKView extends FrameLayout implements OnLongClickListener, WidgetV
     }
 
     private void logAnalyticsForWidgets() {
-        for (QuestionWidget widget : widgets) {
-            if (widget instanceof UrlWidget) {
-                formEntryViewModel.logFormEvent(AnalyticsEvents.URL_QUESTION);
+        for (WidgetSlot slot : slots) {
+            if (slot.widget != null) {
+                logAnalyticsForWidget(slot.widget);
+                slot.analyticsLogged = true;
             }
         }
     }
+
+    private void logAnalyticsForWidget(QuestionWidget widget) {
+        if (widget instanceof UrlWidget) {
+            formEntryViewModel.logFormEvent(AnalyticsEvents.URL_QUESTION);
+        }
+    }
+
+    /**
+     * A question in this view and its widget if one has been created for it.
+     */
+    private static class WidgetSlot {
+
+        private final FormEntryPrompt prompt;
+        @Nullable
+        private QuestionWidget widget;
+        private boolean analyticsLogged;
+
+        WidgetSlot(FormEntryPrompt prompt) {
+            this.prompt = prompt;
+        }
+    }
 }
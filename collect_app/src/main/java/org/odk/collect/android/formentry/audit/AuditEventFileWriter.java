@@ -0,0 +1,263 @@
+package org.odk.collect.android.formentry.audit;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import timber.log.Timber;
+
+import static org.odk.collect.android.formentry.audit.AuditEventCSVLine.toCSVLine;
+
+/**
+ * Appends events to an instance's audit log on a single long-lived background thread shared by
+ * all instances. The log is kept open between batches so that writing events doesn't cost a file
+ * open every time the user navigates. Each batch is flushed to the OS as it's written but the log
+ * is only synced to disk at checkpoints (savepoints, saves and form exit). Writing events never
+ * blocks: if the background thread falls {@link #MAX_PENDING_EVENTS} events behind, further
+ * events wait in an overflow list until it catches up.
+ */
+public class AuditEventFileWriter implements AuditEventLogger.AuditEventWriter {
+
+    private static final int MAX_PENDING_EVENTS = 1000;
+
+    private static final String DEFAULT_COLUMNS = "event,node,start,end";
+    private static final String LOCATION_COORDINATES_COLUMNS = ",latitude,longitude,accuracy";
+    private static final String ANSWER_VALUES_COLUMNS = ",old-value,new-value";
+    private static final String USER_COLUMNS = ",user";
+    private static final String CHANGE_REASON_COLUMNS = ",change-reason";
+
+    private static final ExecutorService WRITER_THREAD = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "AuditEventWriter");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final File file;
+    private final boolean isLocationEnabled;
+    private final boolean isTrackingChangesEnabled;
+    private final boolean isUserRequired;
+    private final boolean isTrackChangesReasonEnabled;
+    private final Executor executor;
+
+    private final BlockingQueue<AuditEvent> pendingEvents = new ArrayBlockingQueue<>(MAX_PENDING_EVENTS);
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    // Events that didn't fit in pendingEvents. While there are any, new events are added here too
+    // so that they're written in order.
+    private final List<AuditEvent> overflowEvents = new ArrayList<>();
+
+    // Only accessed from the executor
+    private FileOutputStream fileOutputStream;
+    private Writer writer;
+    private boolean headerChecked;
+
+    public AuditEventFileWriter(@NonNull File file, boolean isLocationEnabled, boolean isTrackingChangesEnabled, boolean isUserRequired, boolean isTrackChangesReasonEnabled) {
+        this(file, isLocationEnabled, isTrackingChangesEnabled, isUserRequired, isTrackChangesReasonEnabled, WRITER_THREAD);
+    }
+
+    @VisibleForTesting
+    AuditEventFileWriter(@NonNull File file, boolean isLocationEnabled, boolean isTrackingChangesEnabled, boolean isUserRequired, boolean isTrackChangesReasonEnabled, Executor executor) {
+        this.file = file;
+        this.isLocationEnabled = isLocationEnabled;
+        this.isTrackingChangesEnabled = isTrackingChangesEnabled;
+        this.isUserRequired = isUserRequired;
+        this.isTrackChangesReasonEnabled = isTrackChangesReasonEnabled;
+        this.executor = executor;
+    }
+
+    @Override
+    public void writeEvents(List<AuditEvent> auditEvents) {
+        synchronized (overflowEvents) {
+            for (AuditEvent auditEvent : auditEvents) {
+                if (!overflowEvents.isEmpty() || !pendingEvents.offer(auditEvent)) {
+                    if (overflowEvents.isEmpty()) {
+                        Timber.w("Audit events are being written more slowly than they're logged");
+                    }
+                    overflowEvents.add(auditEvent);
+                }
+            }
+        }
+
+        scheduleDrain();
+    }
+
+    /**
+     * Writes any events that are waiting and syncs the log to disk, returning once that's done.
+     * This does disk I/O so it shouldn't be called on the main thread.
+     */
+    @Override
+    public void checkpoint() {
+        FutureTask<Void> checkpoint = new FutureTask<>(() -> {
+            drainPendingEvents();
+            close();
+        }, null);
+        executor.execute(checkpoint);
+
+        try {
+            checkpoint.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            Timber.w("Interrupted while waiting for audit events to be written");
+        } catch (ExecutionException e) {
+            Timber.e(e.getCause());
+        }
+    }
+
+    private void scheduleDrain() {
+        if (drainScheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                drainScheduled.set(false);
+                drainPendingEvents();
+            });
+        }
+    }
+
+    private void drainPendingEvents() {
+        List<AuditEvent> batch = new ArrayList<>();
+        synchronized (overflowEvents) {
+            pendingEvents.drainTo(batch);
+            batch.addAll(overflowEvents);
+            overflowEvents.clear();
+        }
+
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        boolean formExited = false;
+        try {
+            Writer writer = getWriter();
+            for (AuditEvent auditEvent : batch) {
+                writer.write(toCSVLine(auditEvent, isLocationEnabled, isTrackingChangesEnabled, isTrackChangesReasonEnabled) + "\n");
+                formExited |= auditEvent.getAuditEventType() == AuditEvent.AuditEventType.FORM_EXIT;
+            }
+
+            // Hand the batch to the OS so that it isn't lost if the app is killed
+            writer.flush();
+        } catch (IOException e) {
+            Timber.e(e, "Unable to write %d audit events", batch.size());
+            close();
+            return;
+        }
+
+        // Nothing more is logged after the form is exited so there's no reason to keep the log open
+        if (formExited) {
+            close();
+        }
+    }
+
+    /**
+     * Flushes everything written so far to disk and closes the log. It's opened again if there are
+     * more events to write.
+     */
+    private void close() {
+        if (writer == null) {
+            return;
+        }
+
+        try {
+            writer.flush();
+            fileOutputStream.getFD().sync();
+        } catch (IOException e) {
+            Timber.e(e);
+        }
+
+        try {
+            writer.close();
+        } catch (IOException e) {
+            Timber.e(e);
+        }
+
+        writer = null;
+        fileOutputStream = null;
+    }
+
+    private Writer getWriter() throws IOException {
+        if (writer == null) {
+            boolean newFile = !file.exists();
+            if (!newFile && !headerChecked) {
+                updateHeaderIfNeeded();
+            }
+            headerChecked = true;
+
+            fileOutputStream = new FileOutputStream(file, true);
+            writer = new BufferedWriter(new OutputStreamWriter(fileOutputStream));
+            if (newFile) {
+                writer.write(getHeader() + "\n");
+            }
+        }
+
+        return writer;
+    }
+
+    /**
+     * Rewrites the log with a header that includes the columns for this writer's config if the
+     * existing one doesn't. This can happen if the app was updated between editing sessions.
+     * Only done the first time the log is opened by this writer.
+     */
+    private void updateHeaderIfNeeded() throws IOException {
+        File temporaryFile = new File(file.getParentFile(), "temporaryAudit.csv");
+
+        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
+            if (!shouldHeaderBeUpdated(br.readLine())) {
+                return;
+            }
+
+            try (Writer tfw = new BufferedWriter(new FileWriter(temporaryFile))) {
+                tfw.write(getHeader() + "\n");
+                String line;
+                while ((line = br.readLine()) != null) {
+                    tfw.write(line + "\n");
+                }
+            }
+        }
+
+        if (!temporaryFile.renameTo(file)) {
+            temporaryFile.delete();
+            throw new IOException("Unable to update header of " + file.getAbsolutePath());
+        }
+    }
+
+    private boolean shouldHeaderBeUpdated(String header) {
+        return header == null
+                || (isLocationEnabled && !header.contains(LOCATION_COORDINATES_COLUMNS))
+                || (isTrackingChangesEnabled && !header.contains(ANSWER_VALUES_COLUMNS))
+                || (isUserRequired && !header.contains(USER_COLUMNS));
+    }
+
+    private String getHeader() {
+        String header = DEFAULT_COLUMNS;
+        if (isLocationEnabled) {
+            header += LOCATION_COORDINATES_COLUMNS;
+        }
+        if (isTrackingChangesEnabled) {
+            header += ANSWER_VALUES_COLUMNS;
+        }
+        if (isUserRequired) {
+            header += USER_COLUMNS;
+        }
+        if (isTrackChangesReasonEnabled) {
+            header += CHANGE_REASON_COLUMNS;
+        }
+        return header;
+    }
+}
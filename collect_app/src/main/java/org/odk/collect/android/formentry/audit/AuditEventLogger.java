@@ -19,7 +19,7 @@ import static org.odk.collect.android.formentry.audit.AuditEvent.AuditEventType.
 
 /**
  * Handle logging of auditEvents (which contain time and might contain location coordinates),
- * and pass them to an Async task to append to a file
+ * and pass them to an {@link AuditEventWriter} to append to a file
  * Notes:
  * 1) If the user has saved the form, then resumes editing, then exits without saving then the timing data during the
  * second editing session will be saved.  This is OK as it records user activity.  However if the user exits
@@ -107,6 +107,17 @@ public class AuditEventLogger {
         }
     }
 
+    /*
+     * Makes sure events that have been written so far are on disk, blocking until they are. Called
+     * from the background at savepoints and before saves (the log is synced when the form is
+     * exited automatically).
+     */
+    public void checkpoint() {
+        if (isAuditEnabled()) {
+            writer.checkpoint();
+        }
+    }
+
     private void addLocationCoordinatesToAuditEvent(AuditEvent auditEvent, long currentTime) {
         Location location = getMostAccurateLocation(currentTime);
         String latitude = location != null ? Double.toString(location.getLatitude()) : "";
@@ -209,12 +220,8 @@ public class AuditEventLogger {
     }
 
     private void writeEvents() {
-        if (!writer.isWriting()) {
-            writer.writeEvents(auditEvents);
-            auditEvents = new ArrayList<>();
-        } else {
-            Timber.i("Queueing AuditEvent");
-        }
+        writer.writeEvents(auditEvents);
+        auditEvents = new ArrayList<>();
     }
 
     /*
@@ -303,6 +310,6 @@ public class AuditEventLogger {
 
         void writeEvents(List<AuditEvent> auditEvents);
 
-        boolean isWriting();
+        void checkpoint();
     }
 }
\ No newline at end of file
@@ -504,6 +504,10 @@ public class FormSaveViewModel extends ViewModel implements ProgressDialogFragme
 
         @Override
         protected SaveToDiskResult doInBackground(Void... voids) {
+            // Events logged before saving (including the change reason) need to be in the audit
+            // log before it's encrypted
+            formController.getAuditEventLogger().checkpoint();
+
             return formSaver.save(saveRequest.uri, formController,
                     mediaUtils, saveRequest.shouldFinalize,
                     saveRequest.viewExiting, saveRequest.updatedSaveName,
@@ -4,6 +4,7 @@ import android.content.Context
 import org.odk.collect.analytics.Analytics
 import org.odk.collect.android.R
 import org.odk.collect.android.analytics.AnalyticsUtils
+import org.odk.collect.android.backgroundwork.FormUpdateScheduler
 import org.odk.collect.android.formmanagement.matchexactly.ServerFormsSynchronizer
 import org.odk.collect.android.formmanagement.matchexactly.SyncStatusAppState
 import org.odk.collect.android.notifications.Notifier
@@ -31,7 +32,8 @@ class FormsUpdater(
     private val formSourceProvider: FormSourceProvider,
     private val syncStatusAppState: SyncStatusAppState,
     private val instancesRepositoryProvider: InstancesRepositoryProvider,
-    private val changeLockProvider: ChangeLockProvider
+    private val changeLockProvider: ChangeLockProvider,
+    private val formUpdateScheduler: FormUpdateScheduler
 ) {
 
     /**
@@ -62,6 +64,7 @@ class FormsUpdater(
                     )
 
                     notifier.onUpdatesDownloaded(results)
+                    formUpdateScheduler.scheduleWarmUp(projectId)
                 } else {
                     notifier.onUpdatesAvailable(updatedForms)
                 }
@@ -97,6 +100,7 @@ class FormsUpdater(
 
                 val exception = try {
                     serverFormsSynchronizer.synchronize()
+                    formUpdateScheduler.scheduleWarmUp(projectId)
                     syncStatusAppState.finishSync(projectId, null)
                     notifier.onSync(null)
                     null
@@ -169,7 +173,8 @@ private fun serverFormsDetailsFetcher(
     return ServerFormsDetailsFetcher(
         projectSandbox.formsRepository,
         projectSandbox.formSource,
-        diskFormsSynchronizer
+        diskFormsSynchronizer,
+        File(projectSandbox.cacheDir)
     )
 }
 
@@ -17,13 +17,22 @@ import org.odk.collect.shared.strings.Md5;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Supplier;
 
 import javax.annotation.Nullable;
@@ -35,6 +44,15 @@ import static org.odk.collect.android.analytics.AnalyticsEvents.DOWNLOAD_SAME_FO
 
 public class ServerFormDownloader implements FormDownloader {
 
+    private static final int MAX_CONCURRENT_MEDIA_DOWNLOADS = 3;
+    private static final int MAX_MEDIA_DOWNLOAD_ATTEMPTS = 3;
+    private static final int MEDIA_BUFFER_SIZE = 64 * 1024;
+    // Longer than the HTTP read timeout so that downloads blocked on the network have given up
+    private static final long MEDIA_DOWNLOAD_SHUTDOWN_TIMEOUT_SECONDS = 90;
+    private static final String PARTIAL_DOWNLOADS_DIR_NAME = "partial-media";
+    private static final String PARTIAL_FILE_EXTENSION = ".partial";
+    private static final long PARTIAL_DOWNLOAD_MAX_AGE = TimeUnit.DAYS.toMillis(7);
+
     private final FormsRepository formsRepository;
     private final FormSource formSource;
     private final File cacheDir;
@@ -371,41 +389,227 @@ public class ServerFormDownloader implements FormDownloader {
         }
     }
 
+    /**
+     * Downloads media files {@link #MAX_CONCURRENT_MEDIA_DOWNLOADS} at a time. Each file is first
+     * written to a partial file that's named after its hash so that if the connection drops the
+     * download can be resumed from where it stopped (even from a later download of the same form)
+     * and is then moved to the temp media dir once its hash has been verified.
+     */
     private void downloadMediaFiles(String tempMediaPath, FormDownloaderListener stateListener, List<MediaFile> files, File tempDir, String formFileName) throws FormSourceException, IOException, InterruptedException {
         File tempMediaDir = new File(tempMediaPath);
         tempMediaDir.mkdir();
 
-        for (int i = 0; i < files.size(); i++) {
-            if (stateListener != null) {
-                stateListener.progressUpdate("", String.valueOf(i + 1), "");
+        String finalMediaPath = FileUtils.constructMediaPath(formsDirPath + File.separator + formFileName);
+        File partialDownloadsDir = new File(cacheDir, PARTIAL_DOWNLOADS_DIR_NAME);
+        deleteStalePartialDownloads(partialDownloadsDir);
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(files.size(), MAX_CONCURRENT_MEDIA_DOWNLOADS));
+        List<Future<Void>> downloads = new ArrayList<>();
+
+        try {
+            for (MediaFile toDownload : files) {
+                File tempMediaFile = new File(tempMediaDir, toDownload.getFilename());
+                File finalMediaFile = new File(finalMediaPath, toDownload.getFilename());
+
+                downloads.add(executor.submit(() -> {
+                    downloadMediaFileIfChanged(toDownload, tempMediaFile, finalMediaFile, partialDownloadsDir, tempDir, stateListener);
+                    return null;
+                }));
             }
 
-            MediaFile toDownload = files.get(i);
+            for (int i = 0; i < downloads.size(); i++) {
+                if (stateListener != null) {
+                    stateListener.progressUpdate("", String.valueOf(i + 1), "");
+                }
 
-            File tempMediaFile = new File(tempMediaDir, toDownload.getFilename());
-            String finalMediaPath = FileUtils.constructMediaPath(formsDirPath + File.separator + formFileName);
-            File finalMediaFile = new File(finalMediaPath, toDownload.getFilename());
+                getMediaDownloadResult(downloads.get(i));
+            }
+        } catch (InterruptedException e) {
+            shutdownAndWait(executor);
 
-            if (!finalMediaFile.exists()) {
-                InputStream mediaFile = formSource.fetchMediaFile(toDownload.getDownloadUrl());
-                writeFile(mediaFile, tempMediaFile, tempDir, stateListener);
+            // Downloads cancelled by the user aren't resumed
+            if (stateListener != null && stateListener.isTaskCancelled()) {
+                for (MediaFile mediaFile : files) {
+                    FileUtils.deleteAndReport(getPartialFile(mediaFile, partialDownloadsDir, tempDir));
+                }
+            }
+
+            throw e;
+        } finally {
+            shutdownAndWait(executor);
+
+            // Only removes the dir if there are no partial downloads left to resume
+            partialDownloadsDir.delete();
+        }
+    }
+
+    private void downloadMediaFileIfChanged(MediaFile toDownload, File tempMediaFile, File finalMediaFile, File partialDownloadsDir, File tempDir, FormDownloaderListener stateListener) throws FormSourceException, IOException, InterruptedException {
+        if (finalMediaFile.exists()) {
+            String currentFileHash = Md5.getMd5Hash(finalMediaFile);
+            String downloadFileHash = getMd5HashWithoutPrefix(toDownload.getHash());
+
+            if (currentFileHash != null && downloadFileHash != null && !currentFileHash.contentEquals(downloadFileHash)) {
+                // if the hashes match, it's the same file
+                // otherwise delete our current one and replace it with the new one
+                FileUtils.deleteAndReport(finalMediaFile);
             } else {
-                String currentFileHash = Md5.getMd5Hash(finalMediaFile);
-                String downloadFileHash = getMd5HashWithoutPrefix(toDownload.getHash());
-
-                if (currentFileHash != null && downloadFileHash != null && !currentFileHash.contentEquals(downloadFileHash)) {
-                    // if the hashes match, it's the same file
-                    // otherwise delete our current one and replace it with the new one
-                    FileUtils.deleteAndReport(finalMediaFile);
-                    InputStream mediaFile = formSource.fetchMediaFile(toDownload.getDownloadUrl());
-                    writeFile(mediaFile, tempMediaFile, tempDir, stateListener);
-                } else {
-                    // exists, and the hash is the same
-                    // no need to download it again
-                    Timber.i("Skipping media file fetch -- file hashes identical: %s", finalMediaFile.getAbsolutePath());
+                // exists, and the hash is the same
+                // no need to download it again
+                Timber.i("Skipping media file fetch -- file hashes identical: %s", finalMediaFile.getAbsolutePath());
+                return;
+            }
+        }
+
+        downloadMediaFile(toDownload, tempMediaFile, getPartialFile(toDownload, partialDownloadsDir, tempDir), stateListener);
+    }
+
+    private void downloadMediaFile(MediaFile mediaFile, File destinationFile, File partialFile, FormDownloaderListener stateListener) throws FormSourceException, IOException, InterruptedException {
+        String expectedHash = getVerifiableMd5Hash(mediaFile.getHash());
+        partialFile.getParentFile().mkdirs();
+
+        // Connections on flaky networks drop often so retry a few times, picking up from the last
+        // byte that made it to disk each time
+        int attemptCount = 0;
+        while (true) {
+            attemptCount++;
+            long fromByte = partialFile.length();
+
+            try {
+                MessageDigest md5 = hashPartialFile(partialFile);
+                InputStream inputStream = fromByte > 0
+                        ? formSource.fetchMediaFile(mediaFile.getDownloadUrl(), fromByte)
+                        : formSource.fetchMediaFile(mediaFile.getDownloadUrl());
+                appendToPartialFile(inputStream, partialFile, md5, stateListener);
+
+                if (expectedHash != null && !expectedHash.equals(Md5.toHexString(md5.digest()))) {
+                    FileUtils.deleteAndReport(partialFile);
+                    throw new IOException(mediaFile.getFilename() + " does not match the hash in the manifest");
+                }
+
+                break;
+            } catch (FormSourceException | IOException e) {
+                Timber.w(e, "Attempt %d to download %s failed", attemptCount, mediaFile.getFilename());
+
+                if (attemptCount >= MAX_MEDIA_DOWNLOAD_ATTEMPTS) {
+                    if (partialFile.exists() && partialFile.length() == 0) {
+                        FileUtils.deleteAndReport(partialFile);
+                    }
+
+                    throw e;
+                }
+
+                if (fromByte > 0 && e instanceof FormSourceException) {
+                    // The server might not be able to serve the rest of the file so start over
+                    FileUtils.deleteAndReport(partialFile);
                 }
             }
         }
+
+        if (!partialFile.renameTo(destinationFile)) {
+            throw new IOException("Unable to move " + partialFile.getAbsolutePath() + " to " + destinationFile.getAbsolutePath());
+        }
+    }
+
+    private static void appendToPartialFile(InputStream inputStream, File partialFile, MessageDigest md5, FormDownloaderListener stateListener) throws IOException, InterruptedException {
+        try (InputStream is = inputStream;
+             OutputStream os = new FileOutputStream(partialFile, true)) {
+            byte[] buf = new byte[MEDIA_BUFFER_SIZE];
+            int len;
+            while ((len = is.read(buf)) != -1) {
+                if (Thread.currentThread().isInterrupted() || (stateListener != null && stateListener.isTaskCancelled())) {
+                    throw new InterruptedException();
+                }
+
+                os.write(buf, 0, len);
+                md5.update(buf, 0, len);
+            }
+        }
+
+        if (stateListener != null && stateListener.isTaskCancelled()) {
+            throw new InterruptedException();
+        }
+    }
+
+    private static MessageDigest hashPartialFile(File partialFile) throws IOException {
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        if (partialFile.exists()) {
+            try (InputStream is = new FileInputStream(partialFile)) {
+                byte[] buf = new byte[MEDIA_BUFFER_SIZE];
+                int len;
+                while ((len = is.read(buf)) != -1) {
+                    md5.update(buf, 0, len);
+                }
+            }
+        }
+
+        return md5;
+    }
+
+    private static File getPartialFile(MediaFile mediaFile, File partialDownloadsDir, File tempDir) {
+        String hash = getVerifiableMd5Hash(mediaFile.getHash());
+
+        // Without a hash there's no way to tell whether a partial file from an earlier download
+        // is for the same version of the file so it's only kept for this download
+        if (hash != null) {
+            return new File(partialDownloadsDir, hash + "-" + mediaFile.getFilename());
+        } else {
+            return new File(tempDir, mediaFile.getFilename() + PARTIAL_FILE_EXTENSION);
+        }
+    }
+
+    private static void deleteStalePartialDownloads(File partialDownloadsDir) {
+        File[] partialFiles = partialDownloadsDir.listFiles();
+        if (partialFiles != null) {
+            long now = System.currentTimeMillis();
+            for (File partialFile : partialFiles) {
+                if (now - partialFile.lastModified() > PARTIAL_DOWNLOAD_MAX_AGE) {
+                    FileUtils.deleteAndReport(partialFile);
+                }
+            }
+        }
+    }
+
+    private static void getMediaDownloadResult(Future<Void> download) throws FormSourceException, IOException, InterruptedException {
+        try {
+            download.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof FormSourceException) {
+                throw (FormSourceException) cause;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InterruptedException) {
+                throw (InterruptedException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else {
+                throw new IOException(cause);
+            }
+        }
+    }
+
+    private static void shutdownAndWait(ExecutorService executor) {
+        executor.shutdownNow();
+
+        try {
+            // Make sure nothing is still writing to the temp dir before it's cleaned up
+            if (!executor.awaitTermination(MEDIA_DOWNLOAD_SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                Timber.w("Media downloads still running after %d seconds", MEDIA_DOWNLOAD_SHUTDOWN_TIMEOUT_SECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Nullable
+    private static String getVerifiableMd5Hash(String hash) {
+        return hash != null && hash.startsWith("md5:") ? hash.substring("md5:".length()) : null;
     }
 
     @NotNull
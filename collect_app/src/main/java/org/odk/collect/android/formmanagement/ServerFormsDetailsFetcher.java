@@ -21,31 +21,56 @@ import org.odk.collect.forms.Form;
 import org.odk.collect.forms.FormListItem;
 import org.odk.collect.forms.FormSource;
 import org.odk.collect.forms.FormSourceException;
+import org.odk.collect.android.utilities.FileMd5Cache;
 import org.odk.collect.android.utilities.FormUtils;
 import org.odk.collect.forms.FormsRepository;
 import org.odk.collect.forms.ManifestFile;
 import org.odk.collect.forms.MediaFile;
 import org.odk.collect.android.utilities.WebCredentialsUtils;
-import org.odk.collect.shared.strings.Md5;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import timber.log.Timber;
 
 public class ServerFormsDetailsFetcher {
 
+    private static final String MEDIA_INDEX_EXTENSION = ".media-md5-index";
+    private static final int DEFAULT_MAX_CONCURRENT_MANIFEST_FETCHES = 4;
+
     private final FormsRepository formsRepository;
     private final FormSource formSource;
     private final DiskFormsSynchronizer diskFormsSynchronizer;
+    private final File cacheDir;
+    private final int maxConcurrentManifestFetches;
+
+    public ServerFormsDetailsFetcher(FormsRepository formsRepository,
+                                     FormSource formSource,
+                                     DiskFormsSynchronizer diskFormsSynchronizer,
+                                     File cacheDir) {
+        this(formsRepository, formSource, diskFormsSynchronizer, cacheDir, DEFAULT_MAX_CONCURRENT_MANIFEST_FETCHES);
+    }
 
     public ServerFormsDetailsFetcher(FormsRepository formsRepository,
                                      FormSource formSource,
-                                     DiskFormsSynchronizer diskFormsSynchronizer) {
+                                     DiskFormsSynchronizer diskFormsSynchronizer,
+                                     File cacheDir,
+                                     int maxConcurrentManifestFetches) {
         this.formsRepository = formsRepository;
         this.formSource = formSource;
         this.diskFormsSynchronizer = diskFormsSynchronizer;
+        this.cacheDir = cacheDir;
+        this.maxConcurrentManifestFetches = maxConcurrentManifestFetches;
     }
 
     public void updateUrl(String url) {
@@ -60,21 +85,30 @@ public class ServerFormsDetailsFetcher {
         diskFormsSynchronizer.synchronize();
 
         List<FormListItem> formListItems = formSource.fetchFormList();
-        List<ServerFormDetails> serverFormDetailsList = new ArrayList<>();
+        Map<String, ManifestFile> manifestFiles = fetchManifestFiles(formListItems);
 
-        for (FormListItem listItem : formListItems) {
-            ManifestFile manifestFile = null;
+        // Look up all forms at once rather than querying the repository for every list item
+        Map<String, List<Form>> notDeletedFormsByFormId = new HashMap<>();
+        Set<String> formHashes = new HashSet<>();
+        for (Form form : formsRepository.getAll()) {
+            formHashes.add(form.getMD5Hash());
 
-            if (listItem.getManifestURL() != null) {
-                manifestFile = getManifestFile(formSource, listItem.getManifestURL());
+            if (!form.isDeleted()) {
+                notDeletedFormsByFormId.computeIfAbsent(form.getFormId(), formId -> new ArrayList<>()).add(form);
             }
+        }
 
-            List<Form> forms = formsRepository.getAllNotDeletedByFormId(listItem.getFormID());
-            boolean thisFormAlreadyDownloaded = !forms.isEmpty();
+        List<ServerFormDetails> serverFormDetailsList = new ArrayList<>();
+
+        for (FormListItem listItem : formListItems) {
+            ManifestFile manifestFile = manifestFiles.get(listItem.getManifestURL());
+
+            List<Form> forms = notDeletedFormsByFormId.get(listItem.getFormID());
+            boolean thisFormAlreadyDownloaded = forms != null;
 
             boolean isNewerFormVersionAvailable = false;
             if (thisFormAlreadyDownloaded) {
-                if (isNewerFormVersionAvailable(listItem)) {
+                if (isNewerFormVersionAvailable(listItem, formHashes)) {
                     isNewerFormVersionAvailable = true;
                 } else if (manifestFile != null) {
                     List<MediaFile> newMediaFiles = manifestFile.getMediaFiles();
@@ -101,6 +135,48 @@ public class ServerFormsDetailsFetcher {
         return serverFormDetailsList;
     }
 
+    /**
+     * Fetches the manifests of all the forms in the list, {@link #maxConcurrentManifestFetches}
+     * at a time, so that the latency of each request isn't paid once per form.
+     *
+     * @return the manifests that could be fetched keyed by their URL
+     */
+    private Map<String, ManifestFile> fetchManifestFiles(List<FormListItem> formListItems) {
+        Map<String, Future<ManifestFile>> pendingManifestFiles = new LinkedHashMap<>();
+        Map<String, ManifestFile> manifestFiles = new HashMap<>();
+
+        ExecutorService executor = null;
+        try {
+            for (FormListItem listItem : formListItems) {
+                String manifestUrl = listItem.getManifestURL();
+
+                if (manifestUrl != null && !pendingManifestFiles.containsKey(manifestUrl)) {
+                    if (executor == null) {
+                        executor = Executors.newFixedThreadPool(maxConcurrentManifestFetches);
+                    }
+
+                    pendingManifestFiles.put(manifestUrl, executor.submit(() -> getManifestFile(formSource, manifestUrl)));
+                }
+            }
+
+            for (Map.Entry<String, Future<ManifestFile>> pendingManifestFile : pendingManifestFiles.entrySet()) {
+                try {
+                    manifestFiles.put(pendingManifestFile.getKey(), pendingManifestFile.getValue().get());
+                } catch (ExecutionException e) {
+                    Timber.w(e.getCause());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+
+        return manifestFiles;
+    }
+
     private ManifestFile getManifestFile(FormSource formSource, String manifestUrl) {
         if (manifestUrl == null) {
             return null;
@@ -114,21 +190,23 @@ public class ServerFormsDetailsFetcher {
         }
     }
 
-    private boolean isNewerFormVersionAvailable(FormListItem formListItem) {
+    private boolean isNewerFormVersionAvailable(FormListItem formListItem, Set<String> formHashes) {
         if (formListItem.getHashWithPrefix() == null) {
             return false;
         }
 
         String hash = getMd5HashWithoutPrefix(formListItem.getHashWithPrefix());
-        return formsRepository.getOneByMd5Hash(hash) == null;
+        return !formHashes.contains(hash);
     }
 
     private boolean areNewerMediaFilesAvailable(Form existingForm, List<MediaFile> newMediaFiles) {
         List<File> localMediaFiles = FormUtils.getMediaFiles(existingForm);
 
         if (localMediaFiles != null) {
+            Set<String> localMediaFileHashes = getMediaFileHashes(existingForm, localMediaFiles);
+
             for (MediaFile newMediaFile : newMediaFiles) {
-                if (!isMediaFileAlreadyDownloaded(localMediaFiles, newMediaFile)) {
+                if (!isMediaFileAlreadyDownloaded(localMediaFileHashes, newMediaFile)) {
                     return true;
                 }
             }
@@ -139,7 +217,20 @@ public class ServerFormsDetailsFetcher {
         return false;
     }
 
-    private static boolean isMediaFileAlreadyDownloaded(List<File> localMediaFiles, MediaFile newMediaFile) {
+    /**
+     * Each form's media hashes are kept in their own index in the cache dir so that only media
+     * files that changed since the last check have to be read.
+     */
+    private Set<String> getMediaFileHashes(Form form, List<File> localMediaFiles) {
+        if (localMediaFiles.isEmpty()) {
+            return new HashSet<>();
+        }
+
+        File indexFile = new File(cacheDir, new File(form.getFormMediaPath()).getName() + MEDIA_INDEX_EXTENSION);
+        return new HashSet<>(FileMd5Cache.getMd5Hashes(indexFile, localMediaFiles).values());
+    }
+
+    private static boolean isMediaFileAlreadyDownloaded(Set<String> localMediaFileHashes, MediaFile newMediaFile) {
         // TODO Zip files are ignored we should find a way to take them into account too
         if (newMediaFile.getFilename().endsWith(".zip")) {
             return true;
@@ -147,12 +238,7 @@ public class ServerFormsDetailsFetcher {
 
         String mediaFileHash = newMediaFile.getHash();
         mediaFileHash = mediaFileHash.substring(4, mediaFileHash.length());
-        for (File localMediaFile : localMediaFiles) {
-            if (mediaFileHash.equals(Md5.getMd5Hash(localMediaFile))) {
-                return true;
-            }
-        }
-        return false;
+        return localMediaFileHashes.contains(mediaFileHash);
     }
 
     private String getMd5HashWithoutPrefix(String hash) {
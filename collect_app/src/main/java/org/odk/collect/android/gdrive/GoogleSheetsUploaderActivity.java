@@ -269,7 +269,7 @@ public class GoogleSheetsUploaderActivity extends CollectAbstractActivity implem
     }
 
     @Override
-    public void progressUpdate(int progress, int total) {
+    public void progressUpdate(int progress, int total, long bytesSent) {
         alertMsg = getString(R.string.sending_items, String.valueOf(progress), String.valueOf(total));
         GoogleSheetsUploaderProgressDialog progressDialog = getProgressDialog();
         if (progressDialog != null) {
@@ -95,6 +95,7 @@ public class GoogleMapFragment extends SupportMapFragment implements
     private PointListener gpsLocationListener;
     private FeatureListener featureClickListener;
     private FeatureListener dragEndListener;
+    private ViewportListener viewportChangeListener;
 
     private LocationClient locationClient;
     private boolean clientWantsLocationUpdates;
@@ -137,6 +138,11 @@ public class GoogleMapFragment extends SupportMapFragment implements
             map.setOnMarkerClickListener(this);
             map.setOnPolylineClickListener(this);
             map.setOnMarkerDragListener(this);
+            map.setOnCameraIdleListener(() -> {
+                if (viewportChangeListener != null) {
+                    viewportChangeListener.onViewportChanged();
+                }
+            });
             map.getUiSettings().setCompassEnabled(true);
             // Don't show the blue dot on the map; we'll draw crosshairs instead.
             map.setMyLocationEnabled(false);
@@ -256,6 +262,15 @@ public class GoogleMapFragment extends SupportMapFragment implements
         }
     }
 
+    @Override public @Nullable MapBounds getVisibleBounds() {
+        if (map == null) {  // during Robolectric tests, map will be null
+            return null;
+        }
+        LatLngBounds bounds = map.getProjection().getVisibleRegion().latLngBounds;
+        return new MapBounds(bounds.southwest.latitude, bounds.southwest.longitude,
+            bounds.northeast.latitude, bounds.northeast.longitude);
+    }
+
     @Override public int addMarker(MapPoint point, boolean draggable, @IconAnchor String iconAnchor) {
         int featureId = nextFeatureId++;
         features.put(featureId, new MarkerFeature(map, point, draggable, iconAnchor));
@@ -335,6 +350,10 @@ public class GoogleMapFragment extends SupportMapFragment implements
         dragEndListener = listener;
     }
 
+    @Override public void setViewportChangeListener(@Nullable ViewportListener listener) {
+        viewportChangeListener = listener;
+    }
+
     @Override public void setGpsLocationListener(@Nullable PointListener listener) {
         gpsLocationListener = listener;
     }
@@ -0,0 +1,32 @@
+package org.odk.collect.android.geo;
+
+import java.util.Locale;
+
+/**
+ * The area of the map shown in a map view. If the view spans the antimeridian, west is greater
+ * than east.
+ */
+public class MapBounds {
+    public final double south;
+    public final double west;
+    public final double north;
+    public final double east;
+
+    public MapBounds(double south, double west, double north, double east) {
+        this.south = south;
+        this.west = west;
+        this.north = north;
+        this.east = east;
+    }
+
+    public boolean contains(double lat, double lon) {
+        if (lat < south || lat > north) {
+            return false;
+        }
+        return west <= east ? lon >= west && lon <= east : lon >= west || lon <= east;
+    }
+
+    @Override public String toString() {
+        return String.format(Locale.US, "MapBounds(%+.6f, %+.6f, %+.6f, %+.6f)", south, west, north, east);
+    }
+}
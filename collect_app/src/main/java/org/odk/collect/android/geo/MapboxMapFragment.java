@@ -107,6 +107,7 @@ public class MapboxMapFragment extends org.odk.collect.android.geo.mapboxsdk.Map
     private PointListener longPressListener;
     private FeatureListener featureClickListener;
     private FeatureListener dragEndListener;
+    private ViewportListener viewportChangeListener;
 
     private LocationComponent locationComponent;
     private boolean clientWantsLocationUpdates;
@@ -169,6 +170,11 @@ public class MapboxMapFragment extends org.odk.collect.android.geo.mapboxsdk.Map
 
                 map.addOnMapClickListener(this);
                 map.addOnMapLongClickListener(this);
+                map.addOnCameraIdleListener(() -> {
+                    if (viewportChangeListener != null) {
+                        viewportChangeListener.onViewportChanged();
+                    }
+                });
 
                 // MAPBOX ISSUE: https://github.com/mapbox/mapbox-gl-native/issues/15262
                 // Unfortunately, the API no longer provides a way to to get an ID
@@ -344,6 +350,15 @@ public class MapboxMapFragment extends org.odk.collect.android.geo.mapboxsdk.Map
         }
     }
 
+    @Override public @Nullable MapBounds getVisibleBounds() {
+        if (map == null) {  // during Robolectric tests, map will be null
+            return null;
+        }
+        LatLngBounds bounds = map.getProjection().getVisibleRegion().latLngBounds;
+        return new MapBounds(bounds.getLatSouth(), bounds.getLonWest(),
+            bounds.getLatNorth(), bounds.getLonEast());
+    }
+
     @Override public int addMarker(MapPoint point, boolean draggable, @IconAnchor String iconAnchor) {
         int featureId = nextFeatureId++;
         features.put(featureId, new MarkerFeature(featureId, symbolManager, point, draggable, iconAnchor));
@@ -379,6 +394,10 @@ public class MapboxMapFragment extends org.odk.collect.android.geo.mapboxsdk.Map
         dragEndListener = listener;
     }
 
+    @Override public void setViewportChangeListener(@Nullable ViewportListener listener) {
+        viewportChangeListener = listener;
+    }
+
     @Override public @Nullable String getLocationProvider() {
         return lastLocationProvider;
     }
@@ -86,6 +86,8 @@ public class OsmDroidMapFragment extends Fragment implements MapFragment,
     // Bundle keys understood by applyConfig().
     static final String KEY_WEB_MAP_SERVICE = "WEB_MAP_SERVICE";
 
+    private static final long VIEWPORT_SETTLE_MILLIS = 250;
+
     @Inject
     MapProvider mapProvider;
 
@@ -99,6 +101,7 @@ public class OsmDroidMapFragment extends Fragment implements MapFragment,
     private PointListener gpsLocationListener;
     private FeatureListener featureClickListener;
     private FeatureListener dragEndListener;
+    private ViewportListener viewportChangeListener;
     private MyLocationNewOverlay myLocationOverlay;
     private LocationClient locationClient;
     private OsmLocationClientWrapper osmLocationClientWrapper;
@@ -109,6 +112,11 @@ public class OsmDroidMapFragment extends Fragment implements MapFragment,
     private WebMapService webMapService;
     private File referenceLayerFile;
     private TilesOverlay referenceOverlay;
+    private final Runnable notifyViewportChange = () -> {
+        if (viewportChangeListener != null) {
+            viewportChangeListener.onViewportChanged();
+        }
+    };
 
     @Override public Intent registerReceiver(BroadcastReceiver receiver, IntentFilter filter) {
         Context context = getActivity();
@@ -292,6 +300,14 @@ public class OsmDroidMapFragment extends Fragment implements MapFragment,
         }
     }
 
+    @Override public @Nullable MapBounds getVisibleBounds() {
+        if (map.getWidth() == 0 || map.getHeight() == 0) {
+            return null;
+        }
+        BoundingBox box = map.getBoundingBox();
+        return new MapBounds(box.getLatSouth(), box.getLonWest(), box.getLatNorth(), box.getLonEast());
+    }
+
     @Override public int addMarker(MapPoint point, boolean draggable, @IconAnchor String iconAnchor) {
         int featureId = nextFeatureId++;
         features.put(featureId, new MarkerFeature(map, point, draggable, iconAnchor));
@@ -370,6 +386,10 @@ public class OsmDroidMapFragment extends Fragment implements MapFragment,
         dragEndListener = listener;
     }
 
+    @Override public void setViewportChangeListener(@Nullable ViewportListener listener) {
+        viewportChangeListener = listener;
+    }
+
     @Override public void setGpsLocationListener(@Nullable PointListener listener) {
         gpsLocationListener = listener;
     }
@@ -513,17 +533,21 @@ public class OsmDroidMapFragment extends Fragment implements MapFragment,
      * We have to do this because the MapView is buggy and fails to preserve its
      * view on a layout change, causing the map viewport to jump around when the
      * screen is resized or rotated in a way that doesn't restart the activity.
+     * The first listener also lets the viewport listener know when the map has
+     * stopped moving (OSMDroid reports every step of a scroll or zoom).
      */
     private void addMapLayoutChangeListener(MapView map) {
         lastMapCenter = map.getMapCenter();
         map.setMapListener(new MapListener() {
             @Override public boolean onScroll(ScrollEvent event) {
                 lastMapCenter = map.getMapCenter();
+                scheduleViewportChange();
                 return false;
             }
 
             @Override public boolean onZoom(ZoomEvent event) {
                 lastMapCenter = map.getMapCenter();
+                scheduleViewportChange();
                 return false;
             }
         });
@@ -532,6 +556,11 @@ public class OsmDroidMapFragment extends Fragment implements MapFragment,
                 map.getController().setCenter(lastMapCenter));
     }
 
+    private void scheduleViewportChange() {
+        map.removeCallbacks(notifyViewportChange);
+        map.postDelayed(notifyViewportChange, VIEWPORT_SETTLE_MILLIS);
+    }
+
     private Marker createMarker(MapView map, MapPoint point, MapFeature feature, @IconAnchor String iconAnchor) {
         // A Marker's position is a GeoPoint with latitude, longitude, and
         // altitude fields.  We need to store the standard deviation value
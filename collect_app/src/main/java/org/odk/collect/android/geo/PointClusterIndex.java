@@ -0,0 +1,217 @@
+package org.odk.collect.android.geo;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Groups a fixed (and possibly very large) set of points into clusters for display, only looking
+ * at the points in the visible part of the map. The points are kept in primitive arrays sorted by
+ * longitude so that the ones in a viewport can be found with a binary search. When there are too
+ * many visible points to show a marker for each, they're grouped by the square of the map (about
+ * {@link #CELL_SIZE_PX} across at the current zoom) they fall in. Squares are fixed to the map
+ * rather than the viewport so clusters don't change as the map is panned.
+ */
+public class PointClusterIndex {
+
+    private static final int TILE_SIZE_PX = 256;
+    private static final int CELL_SIZE_PX = 64;
+
+    /** Beyond this zoom, points that are still together are most likely in the same place. */
+    private static final double MAX_CLUSTERING_ZOOM = 20;
+
+    private static final double MAX_MERCATOR_LAT = 85.05112878;
+
+    private final double[] lats;
+    private final double[] lons;
+    private final int[] items;
+
+    /**
+     * Builds an index over the points with the given coordinates. Clusters refer to points by
+     * their position in these arrays.
+     */
+    public PointClusterIndex(@NonNull double[] lats, @NonNull double[] lons) {
+        int count = lats.length;
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(lons[a], lons[b]));
+
+        this.lats = new double[count];
+        this.lons = new double[count];
+        this.items = new int[count];
+        for (int i = 0; i < count; i++) {
+            this.lats[i] = lats[order[i]];
+            this.lons[i] = lons[order[i]];
+            this.items[i] = order[i];
+        }
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    /**
+     * Returns the clusters for the points within the given bounds (or for all points if the
+     * bounds aren't known) at the given zoom level. Points are only grouped if there are more
+     * than maxMarkers of them in the bounds; otherwise each one gets a cluster of its own.
+     */
+    public List<Cluster> getClusters(@Nullable MapBounds bounds, double zoom, int maxMarkers) {
+        int[] visible = getVisible(bounds);
+        List<Cluster> clusters = new ArrayList<>();
+
+        if (visible.length <= maxMarkers || zoom >= MAX_CLUSTERING_ZOOM) {
+            for (int i : visible) {
+                Cluster cluster = new Cluster();
+                cluster.add(items[i], lats[i], lons[i]);
+                clusters.add(cluster);
+            }
+            return clusters;
+        }
+
+        double cellSize = (double) CELL_SIZE_PX / (TILE_SIZE_PX * Math.pow(2, zoom));
+        Map<Long, Cluster> clustersByCell = new LinkedHashMap<>();
+        for (int i : visible) {
+            long x = (long) Math.floor(getWorldX(lons[i]) / cellSize);
+            long y = (long) Math.floor(getWorldY(lats[i]) / cellSize);
+            long cell = (x << 32) | (y & 0xffffffffL);
+
+            Cluster cluster = clustersByCell.get(cell);
+            if (cluster == null) {
+                cluster = new Cluster();
+                clustersByCell.put(cell, cluster);
+            }
+            cluster.add(items[i], lats[i], lons[i]);
+        }
+
+        clusters.addAll(clustersByCell.values());
+        return clusters;
+    }
+
+    /**
+     * Returns the positions (in the sorted arrays) of the points within the given bounds.
+     */
+    private int[] getVisible(@Nullable MapBounds bounds) {
+        if (bounds == null) {
+            int[] all = new int[items.length];
+            for (int i = 0; i < all.length; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] visible = new int[items.length];
+        int count;
+        if (bounds.west <= bounds.east) {
+            count = addInLatRange(visible, 0, lowerBound(bounds.west), upperBound(bounds.east), bounds);
+        } else {
+            count = addInLatRange(visible, 0, lowerBound(bounds.west), items.length, bounds);
+            count = addInLatRange(visible, count, 0, upperBound(bounds.east), bounds);
+        }
+        return Arrays.copyOf(visible, count);
+    }
+
+    private int addInLatRange(int[] visible, int count, int from, int to, MapBounds bounds) {
+        for (int i = from; i < to; i++) {
+            if (lats[i] >= bounds.south && lats[i] <= bounds.north) {
+                visible[count++] = i;
+            }
+        }
+        return count;
+    }
+
+    /** Returns the position of the first point with a longitude of at least lon. */
+    private int lowerBound(double lon) {
+        int low = 0;
+        int high = lons.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lons[mid] < lon) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Returns the position after the last point with a longitude of at most lon. */
+    private int upperBound(double lon) {
+        int low = 0;
+        int high = lons.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (lons[mid] <= lon) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** Returns the Web Mercator x coordinate of a longitude, from 0 to 1. */
+    private static double getWorldX(double lon) {
+        return (lon + 180) / 360;
+    }
+
+    /** Returns the Web Mercator y coordinate of a latitude, from 0 (north) to 1 (south). */
+    private static double getWorldY(double lat) {
+        double clamped = Math.max(-MAX_MERCATOR_LAT, Math.min(MAX_MERCATOR_LAT, lat));
+        double sin = Math.sin(Math.toRadians(clamped));
+        return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+    }
+
+    public static class Cluster {
+        private int[] items = new int[1];
+        private int size;
+        private double latSum;
+        private double lonSum;
+        private double south = Double.MAX_VALUE;
+        private double west = Double.MAX_VALUE;
+        private double north = -Double.MAX_VALUE;
+        private double east = -Double.MAX_VALUE;
+
+        void add(int item, double lat, double lon) {
+            if (size == items.length) {
+                items = Arrays.copyOf(items, size * 2);
+            }
+            items[size++] = item;
+
+            latSum += lat;
+            lonSum += lon;
+            south = Math.min(south, lat);
+            west = Math.min(west, lon);
+            north = Math.max(north, lat);
+            east = Math.max(east, lon);
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /** Returns the position of the index-th point in this cluster in the original arrays. */
+        public int getItem(int index) {
+            return items[index];
+        }
+
+        /** Returns the point markers for this cluster should be shown at (its centroid). */
+        public MapPoint getPoint() {
+            return new MapPoint(latSum / size, lonSum / size);
+        }
+
+        /** Returns the corners of the smallest box that contains all of this cluster's points. */
+        public List<MapPoint> getBoundingPoints() {
+            List<MapPoint> corners = new ArrayList<>();
+            corners.add(new MapPoint(south, west));
+            corners.add(new MapPoint(north, east));
+            return corners;
+        }
+    }
+}
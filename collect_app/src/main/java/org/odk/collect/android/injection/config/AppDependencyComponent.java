@@ -27,6 +27,7 @@ import org.odk.collect.android.audio.AudioRecordingErrorDialogFragment;
 import org.odk.collect.android.backgroundwork.AutoSendTaskSpec;
 import org.odk.collect.android.backgroundwork.AutoUpdateTaskSpec;
 import org.odk.collect.android.backgroundwork.SyncFormsTaskSpec;
+import org.odk.collect.android.backgroundwork.WarmUpFormsTaskSpec;
 import org.odk.collect.android.configure.SettingsImporter;
 import org.odk.collect.android.configure.qr.QRCodeScannerFragment;
 import org.odk.collect.android.configure.qr.QRCodeTabsActivity;
@@ -228,6 +229,8 @@ public interface AppDependencyComponent {
 
     void inject(AutoUpdateTaskSpec autoUpdateTaskSpec);
 
+    void inject(WarmUpFormsTaskSpec warmUpFormsTaskSpec);
+
     void inject(ServerAuthDialogFragment serverAuthDialogFragment);
 
     void inject(BasePreferencesFragment basePreferencesFragment);
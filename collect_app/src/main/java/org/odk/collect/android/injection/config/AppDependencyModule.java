@@ -134,6 +134,7 @@ import javax.inject.Singleton;
 
 import dagger.Module;
 import dagger.Provides;
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
 
 import static androidx.core.content.FileProvider.getUriForFile;
@@ -149,6 +150,9 @@ import static org.odk.collect.android.preferences.keys.MetaKeys.KEY_INSTALL_ID;
 @SuppressWarnings("PMD.CouplingBetweenObjects")
 public class AppDependencyModule {
 
+    private static final String HTTP_CACHE_DIR_NAME = "http";
+    private static final long HTTP_CACHE_SIZE = 10 * 1024 * 1024;
+
     @Provides
     Context context(Application application) {
         return application;
@@ -173,9 +177,13 @@ public class AppDependencyModule {
 
     @Provides
     @Singleton
-    public OpenRosaHttpInterface provideHttpInterface(MimeTypeMap mimeTypeMap, UserAgentProvider userAgentProvider) {
+    public OpenRosaHttpInterface provideHttpInterface(Context context, MimeTypeMap mimeTypeMap, UserAgentProvider userAgentProvider) {
+        OkHttpClient baseClient = new OkHttpClient.Builder()
+                .cache(new Cache(new File(context.getCacheDir(), HTTP_CACHE_DIR_NAME), HTTP_CACHE_SIZE))
+                .build();
+
         return new OkHttpConnection(
-                new OkHttpOpenRosaServerClientProvider(new OkHttpClient()),
+                new OkHttpOpenRosaServerClientProvider(baseClient),
                 new CollectThenSystemContentTypeMapper(mimeTypeMap),
                 userAgentProvider.getUserAgent()
         );
@@ -368,7 +376,7 @@ public class AppDependencyModule {
     @Provides
     public ServerFormsDetailsFetcher providesServerFormDetailsFetcher(FormsRepositoryProvider formsRepositoryProvider, FormSourceProvider formSourceProvider, StoragePathProvider storagePathProvider) {
         FormsRepository formsRepository = formsRepositoryProvider.get();
-        return new ServerFormsDetailsFetcher(formsRepository, formSourceProvider.get(), new FormsDirDiskFormsSynchronizer(formsRepository, storagePathProvider.getOdkDirPath(StorageSubdirectory.FORMS)));
+        return new ServerFormsDetailsFetcher(formsRepository, formSourceProvider.get(), new FormsDirDiskFormsSynchronizer(formsRepository, storagePathProvider.getOdkDirPath(StorageSubdirectory.FORMS)), new File(storagePathProvider.getOdkDirPath(StorageSubdirectory.CACHE)));
     }
 
     @Provides
@@ -551,8 +559,8 @@ public class AppDependencyModule {
     }
 
     @Provides
-    public FormsUpdater providesFormUpdateChecker(Context context, Notifier notifier, Analytics analytics, StoragePathProvider storagePathProvider, SettingsProvider settingsProvider, FormsRepositoryProvider formsRepositoryProvider, FormSourceProvider formSourceProvider, SyncStatusAppState syncStatusAppState, InstancesRepositoryProvider instancesRepositoryProvider, ChangeLockProvider changeLockProvider) {
-        return new FormsUpdater(context, notifier, analytics, storagePathProvider, settingsProvider, formsRepositoryProvider, formSourceProvider, syncStatusAppState, instancesRepositoryProvider, changeLockProvider);
+    public FormsUpdater providesFormUpdateChecker(Context context, Notifier notifier, Analytics analytics, StoragePathProvider storagePathProvider, SettingsProvider settingsProvider, FormsRepositoryProvider formsRepositoryProvider, FormSourceProvider formSourceProvider, SyncStatusAppState syncStatusAppState, InstancesRepositoryProvider instancesRepositoryProvider, ChangeLockProvider changeLockProvider, FormUpdateScheduler formUpdateScheduler) {
+        return new FormsUpdater(context, notifier, analytics, storagePathProvider, settingsProvider, formsRepositoryProvider, formSourceProvider, syncStatusAppState, instancesRepositoryProvider, changeLockProvider, formUpdateScheduler);
     }
 
     @Provides
@@ -2,6 +2,8 @@ package org.odk.collect.android.instancemanagement;
 
 import android.util.Pair;
 
+import androidx.annotation.Nullable;
+
 import org.odk.collect.analytics.Analytics;
 import org.odk.collect.android.R;
 import org.odk.collect.android.application.Collect;
@@ -13,6 +15,7 @@ import org.odk.collect.android.logic.PropertyManager;
 import org.odk.collect.android.openrosa.OpenRosaHttpInterface;
 import org.odk.collect.android.permissions.PermissionsProvider;
 import org.odk.collect.android.preferences.keys.GeneralKeys;
+import org.odk.collect.android.upload.InstanceBatchUploader;
 import org.odk.collect.android.upload.InstanceServerUploader;
 import org.odk.collect.android.upload.InstanceUploader;
 import org.odk.collect.android.upload.UploadException;
@@ -28,6 +31,7 @@ import org.odk.collect.shared.Settings;
 import org.odk.collect.shared.strings.Md5;
 
 import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -89,32 +93,41 @@ public class InstanceSubmitter {
             deviceId = new PropertyManager().getSingularProperty(PropertyManager.PROPMGR_DEVICE_ID);
         }
 
+        List<Instance> uploadable = new ArrayList<>();
+        Map<Long, String> destinationUrls = new HashMap<>();
         for (Instance instance : toUpload) {
-            try {
-                String destinationUrl;
-                if (protocol.equals(GeneralKeys.PROTOCOL_GOOGLE_SHEETS)) {
-                    destinationUrl = uploader.getUrlToSubmitTo(instance, null, null, generalSettings.getString(KEY_GOOGLE_SHEETS_URL));
-
-                    if (!InstanceUploaderUtils.doesUrlRefersToGoogleSheetsFile(destinationUrl)) {
-                        anyFailure = true;
-                        resultMessagesByInstanceId.put(instance.getDbId().toString(), SPREADSHEET_UPLOADED_TO_GOOGLE_DRIVE);
-                        continue;
-                    }
-                } else {
-                    destinationUrl = uploader.getUrlToSubmitTo(instance, deviceId, null, null);
+            String destinationUrl;
+            if (protocol.equals(GeneralKeys.PROTOCOL_GOOGLE_SHEETS)) {
+                destinationUrl = uploader.getUrlToSubmitTo(instance, null, null, generalSettings.getString(KEY_GOOGLE_SHEETS_URL));
+
+                if (!InstanceUploaderUtils.doesUrlRefersToGoogleSheetsFile(destinationUrl)) {
+                    anyFailure = true;
+                    resultMessagesByInstanceId.put(instance.getDbId().toString(), SPREADSHEET_UPLOADED_TO_GOOGLE_DRIVE);
+                    continue;
                 }
+            } else {
+                destinationUrl = uploader.getUrlToSubmitTo(instance, deviceId, null, null);
+            }
+
+            uploadable.add(instance);
+            destinationUrls.put(instance.getDbId(), destinationUrl);
+        }
 
-                String customMessage = uploader.uploadOneSubmission(instance, destinationUrl);
+        // Google Sheets uploads append rows to the same spreadsheet so they aren't run concurrently
+        int maxConcurrentUploads = protocol.equals(GeneralKeys.PROTOCOL_GOOGLE_SHEETS) ? 1 : InstanceBatchUploader.DEFAULT_MAX_CONCURRENT_UPLOADS;
+        List<Long> instancesToDelete = new ArrayList<>();
+        List<Long> failedInstances = new ArrayList<>();
+
+        new InstanceBatchUploader(uploader, maxConcurrentUploads).upload(uploadable, instance -> destinationUrls.get(instance.getDbId()), null, new InstanceBatchUploader.Listener() {
+            @Override
+            public void onSuccess(Instance instance, @Nullable String customMessage) {
                 resultMessagesByInstanceId.put(instance.getDbId().toString(), customMessage != null ? customMessage : TranslationHandler.getString(Collect.getInstance(), R.string.success));
 
                 // If the submission was successful, delete the instance if either the app-level
                 // delete preference is set or the form definition requests auto-deletion.
-                // TODO: this could take some time so might be better to do in a separate process,
-                // perhaps another worker. It also feels like this could fail and if so should be
-                // communicated to the user. Maybe successful delete should also be communicated?
                 if (InstanceUploaderUtils.shouldFormBeDeleted(formsRepository, instance.getFormId(), instance.getFormVersion(),
                         generalSettings.getBoolean(GeneralKeys.KEY_DELETE_AFTER_SEND))) {
-                    new InstanceDeleter(new InstancesRepositoryProvider(Collect.getInstance()).get(), new FormsRepositoryProvider(Collect.getInstance()).get()).delete(instance.getDbId());
+                    instancesToDelete.add(instance.getDbId());
                 }
 
                 String action = protocol.equals(GeneralKeys.PROTOCOL_GOOGLE_SHEETS) ?
@@ -127,11 +140,26 @@ public class InstanceSubmitter {
                     String submissionEndpointHash = Md5.getMd5Hash(new ByteArrayInputStream(submissionEndpoint.getBytes()));
                     analytics.logEvent(CUSTOM_ENDPOINT_SUB, submissionEndpointHash);
                 }
-            } catch (UploadException e) {
-                Timber.d(e);
-                anyFailure = true;
+            }
+
+            @Override
+            public void onFailure(Instance instance, UploadException exception) {
+                Timber.d(exception);
+                failedInstances.add(instance.getDbId());
                 resultMessagesByInstanceId.put(instance.getDbId().toString(),
-                        e.getDisplayMessage());
+                        exception.getDisplayMessage());
+            }
+        });
+        anyFailure |= !failedInstances.isEmpty();
+
+        // Deleting has to wait until the batch's submitted statuses have been written.
+        // TODO: this could take some time so might be better to do in a separate process,
+        // perhaps another worker. It also feels like this could fail and if so should be
+        // communicated to the user. Maybe successful delete should also be communicated?
+        if (!instancesToDelete.isEmpty()) {
+            InstanceDeleter instanceDeleter = new InstanceDeleter(new InstancesRepositoryProvider(Collect.getInstance()).get(), new FormsRepositoryProvider(Collect.getInstance()).get());
+            for (Long instanceId : instancesToDelete) {
+                instanceDeleter.delete(instanceId);
             }
         }
 
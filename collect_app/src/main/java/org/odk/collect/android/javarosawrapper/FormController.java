@@ -44,7 +44,7 @@ import org.javarosa.xpath.XPathParseTool;
 import org.javarosa.xpath.expr.XPathExpression;
 import org.odk.collect.android.exception.JavaRosaException;
 import org.odk.collect.android.external.ExternalDataUtil;
-import org.odk.collect.android.formentry.audit.AsyncTaskAuditEventWriter;
+import org.odk.collect.android.formentry.audit.AuditEventFileWriter;
 import org.odk.collect.android.formentry.audit.AuditConfig;
 import org.odk.collect.android.formentry.audit.AuditEventLogger;
 import org.odk.collect.android.utilities.Appearances;
@@ -59,6 +59,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import timber.log.Timber;
 
@@ -121,6 +122,8 @@ public class FormController {
     private File instanceFile;
     private final FormEntryController formEntryController;
     private FormIndex indexWaitingForData;
+    @Nullable
+    private Map<String, FormIndex> indexesByXPath;
 
     public FormController(File mediaFolder, FormEntryController fec, File instanceFile) {
         this.mediaFolder = mediaFolder;
@@ -168,7 +171,7 @@ public class FormController {
             AuditConfig auditConfig = getSubmissionMetadata().auditConfig;
 
             if (auditConfig != null) {
-                auditEventLogger = new AuditEventLogger(auditConfig, new AsyncTaskAuditEventWriter(new File(instanceFile.getParentFile().getPath() + File.separator + AUDIT_FILE_NAME), auditConfig.isLocationEnabled(), auditConfig.isTrackingChangesEnabled(), auditConfig.isIdentifyUserEnabled(), auditConfig.isTrackChangesReasonEnabled()), this);
+                auditEventLogger = new AuditEventLogger(auditConfig, new AuditEventFileWriter(new File(instanceFile.getParentFile().getPath() + File.separator + AUDIT_FILE_NAME), auditConfig.isLocationEnabled(), auditConfig.isTrackingChangesEnabled(), auditConfig.isIdentifyUserEnabled(), auditConfig.isTrackChangesReasonEnabled()), this);
             } else {
                 auditEventLogger = new AuditEventLogger(null, null, this);
             }
@@ -224,26 +227,49 @@ public class FormController {
                 Timber.e("Unexpected string from XPath");
                 return null;
             default:
-                FormIndex returned = null;
-                FormIndex saved = getFormIndex();
-                // the only way I know how to do this is to step through the entire form
-                // until the XPath of a form entry matches that of the supplied XPath
-                try {
-                    jumpToIndex(FormIndex.createBeginningOfFormIndex());
-                    int event = stepToNextEvent(true);
-                    while (event != FormEntryController.EVENT_END_OF_FORM) {
-                        String candidateXPath = getXPath(getFormIndex());
-                        if (candidateXPath.equals(xpath)) {
-                            returned = getFormIndex();
-                            break;
-                        }
-                        event = stepToNextEvent(true);
+                boolean indexIsNew = indexesByXPath == null;
+                FormIndex index = getIndexesByXPath().get(xpath);
+
+                // The index is only invalidated by the changes to the form's structure made
+                // through this class so check it's still right in case something else changed it
+                if (!indexIsNew && (index == null || !xpath.equals(getXPath(index)))) {
+                    indexesByXPath = null;
+                    index = getIndexesByXPath().get(xpath);
+                }
+
+                return index;
+        }
+    }
+
+    /**
+     * Builds (the first time it's needed after the form's structure changes) a map from the XPath
+     * of every event in the form to its index. That way looking up any number of XPaths only
+     * costs one pass through the form.
+     */
+    private Map<String, FormIndex> getIndexesByXPath() {
+        if (indexesByXPath == null) {
+            Map<String, FormIndex> indexes = new HashMap<>();
+            FormIndex saved = getFormIndex();
+            // the only way I know how to do this is to step through the entire form
+            try {
+                jumpToIndex(FormIndex.createBeginningOfFormIndex());
+                int event = stepToNextEvent(true);
+                while (event != FormEntryController.EVENT_END_OF_FORM) {
+                    FormIndex index = getFormIndex();
+                    String candidateXPath = getXPath(index);
+                    if (!indexes.containsKey(candidateXPath)) {
+                        indexes.put(candidateXPath, index);
                     }
-                } finally {
-                    jumpToIndex(saved);
+                    event = stepToNextEvent(true);
                 }
-                return returned;
+            } finally {
+                jumpToIndex(saved);
+            }
+
+            indexesByXPath = indexes;
         }
+
+        return indexesByXPath;
     }
 
     /**
@@ -476,6 +502,8 @@ public class FormController {
      * Attempts to save answer into the given FormIndex into the data model.
      */
     public int answerQuestion(FormIndex index, IAnswerData data) throws JavaRosaException {
+        // Answers can change the number of repeats (jr:count)
+        indexesByXPath = null;
         try {
             return formEntryController.answerQuestion(index, data, true);
         } catch (Exception e) {
@@ -512,6 +540,7 @@ public class FormController {
      * @return true if saved successfully, false otherwise.
      */
     public boolean saveAnswer(FormIndex index, IAnswerData data) throws JavaRosaException {
+        indexesByXPath = null;
         try {
             return formEntryController.saveAnswer(index, data, true);
         } catch (Exception e) {
@@ -554,6 +583,23 @@ public class FormController {
         return stepToNextEvent(STEP_OVER_GROUP);
     }
 
+    /**
+     * Moves to the event after the group or repeat instance at {@code index} without visiting any
+     * of its children (including nested repeats). Non-relevant elements are skipped the same way
+     * as when stepping through the form.
+     *
+     * @return the event at the new index
+     */
+    public int stepOverElement(FormIndex index) {
+        FormEntryModel formEntryModel = formEntryController.getModel();
+        FormIndex nextIndex = formEntryModel.incrementIndex(index, false);
+        while (nextIndex.isInForm() && !formEntryModel.isIndexRelevant(nextIndex)) {
+            nextIndex = formEntryModel.incrementIndex(nextIndex, true);
+        }
+
+        return jumpToIndex(nextIndex);
+    }
+
     /**
      * Move the current form index to the index of the previous question in the form.
      * Step backward out of repeats and groups as needed. If the resulting question
@@ -874,6 +920,7 @@ public class FormController {
      * Creates a new repeated instance of the group referenced by the current FormIndex.
      */
     public void newRepeat() {
+        indexesByXPath = null;
         formEntryController.newRepeat();
     }
 
@@ -884,6 +931,7 @@ public class FormController {
      * (2) > group2 (3) and you call deleteRepeat, it will delete the 3rd instance of group2.
      */
     public void deleteRepeat() {
+        indexesByXPath = null;
         FormIndex fi = formEntryController.deleteRepeat();
         formEntryController.jumpToIndex(fi);
     }
@@ -928,9 +976,9 @@ public class FormController {
                 if (formEntryController.getModel().isIndexRelevant(index)) {
                     questionList.add(getQuestionPrompt(index));
                 }
-                questions = new FormEntryPrompt[questionList.size()];
-                questionList.toArray(questions);
             }
+
+            questions = questionList.toArray(questions);
         } else {
             // We have a question, so just get the one prompt
             questions = new FormEntryPrompt[1];
@@ -979,9 +1027,30 @@ public class FormController {
     public boolean isGroupRelevant() {
         GroupDef groupDef = (GroupDef) getCaptionPrompt().getFormElement();
         FormIndex currentChildIndex = formEntryController.getModel().incrementIndex(getFormIndex(), true);
-        for (FormIndex index : getIndicesForGroup(groupDef, currentChildIndex, true)) {
-            if (formEntryController.getModel().isIndexRelevant(index)) {
-                return true;
+        return containsRelevantIndex(groupDef, currentChildIndex);
+    }
+
+    /**
+     * Visits the same indices as {@link #getIndicesForGroup(GroupDef, FormIndex, boolean)} (jumping
+     * into repeats) but stops at the first relevant one rather than collecting all of them first.
+     */
+    private boolean containsRelevantIndex(GroupDef gd, FormIndex currentChildIndex) {
+        final FormEntryModel formEntryModel = formEntryController.getModel();
+        for (int i = 0; i < gd.getChildren().size(); i++) {
+            int event = getEvent(currentChildIndex);
+            if (event == FormEntryController.EVENT_GROUP || event == FormEntryController.EVENT_REPEAT) {
+                IFormElement nestedElement = formEntryModel.getForm().getChild(currentChildIndex);
+                if (nestedElement instanceof GroupDef) {
+                    if (containsRelevantIndex((GroupDef) nestedElement, formEntryModel.incrementIndex(currentChildIndex, true))) {
+                        return true;
+                    }
+                    currentChildIndex = formEntryModel.incrementIndex(currentChildIndex, false);
+                }
+            } else if (event != FormEntryController.EVENT_PROMPT_NEW_REPEAT) {
+                if (formEntryModel.isIndexRelevant(currentChildIndex)) {
+                    return true;
+                }
+                currentChildIndex = formEntryModel.incrementIndex(currentChildIndex, false);
             }
         }
         return false;
@@ -24,7 +24,10 @@ import java.util.HashMap;
 public interface InstanceUploaderListener {
     void uploadingComplete(HashMap<String, String> result);
 
-    void progressUpdate(int progress, int total);
+    /**
+     * @param bytesSent the number of bytes sent for all the forms so far or 0 if it isn't known
+     */
+    void progressUpdate(int progress, int total, long bytesSent);
 
     void authRequest(Uri url, HashMap<String, String> doneSoFar);
 }
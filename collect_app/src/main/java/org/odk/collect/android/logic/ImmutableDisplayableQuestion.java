@@ -64,7 +64,13 @@ public class ImmutableDisplayableQuestion {
     private final boolean isReadOnly;
 
     /**
-     * The choices displayed to a user if this question is of a type that has choices.
+     * Whether the question's choices come from an itemset and so can change as the form is filled.
+     */
+    private final boolean hasDynamicChoices;
+
+    /**
+     * The choices displayed to a user if this question is of a type that has choices. Only kept
+     * for questions with dynamic choices as static ones can't change.
      */
     private List<SelectChoice> selectChoices;
 
@@ -78,11 +84,14 @@ public class ImmutableDisplayableQuestion {
         guidanceText = question.getSpecialFormQuestionText(question.getQuestion().getHelpTextID(), "guidance");
         answerText = question.getAnswerText();
         isReadOnly = question.isReadOnly();
+        hasDynamicChoices = question.getQuestion().getDynamicChoices() != null;
 
-        List<SelectChoice> choices = question.getSelectChoices();
-        if (choices != null) {
-            selectChoices = new ArrayList<>();
-            selectChoices.addAll(choices);
+        if (hasDynamicChoices) {
+            List<SelectChoice> choices = question.getSelectChoices();
+            if (choices != null) {
+                selectChoices = new ArrayList<>();
+                selectChoices.addAll(choices);
+            }
         }
     }
 
@@ -106,7 +115,7 @@ public class ImmutableDisplayableQuestion {
                 && (getGuidanceHintText(question) == null ? guidanceText == null : getGuidanceHintText(question).equals(guidanceText))
                 && (question.getAnswerText() == null ? answerText == null : question.getAnswerText().equals(answerText))
                 && (question.isReadOnly() == isReadOnly)
-                && selectChoiceListsEqual(question.getSelectChoices(), selectChoices);
+                && (!hasDynamicChoices || selectChoiceListsEqual(question.getSelectChoices(), selectChoices));
     }
 
     private static boolean selectChoiceListsEqual(List<SelectChoice> selectChoiceList1, List<SelectChoice> selectChoiceList2) {
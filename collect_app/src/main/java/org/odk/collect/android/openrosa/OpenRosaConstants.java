@@ -4,6 +4,8 @@ public final class OpenRosaConstants {
     // HTTP Header strings
     public static final String VERSION_HEADER = "X-OpenRosa-Version";
     public static final String ACCEPT_CONTENT_LENGTH_HEADER = "X-OpenRosa-Accept-Content-Length";
+    // Sent by servers that accept compressed request bodies (RFC 7694)
+    public static final String ACCEPT_ENCODING_HEADER = "Accept-Encoding";
 
     private OpenRosaConstants() {
         // cannot construct
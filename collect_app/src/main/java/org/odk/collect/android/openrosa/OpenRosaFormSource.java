@@ -1,5 +1,6 @@
 package org.odk.collect.android.openrosa;
 
+import org.apache.commons.io.IOUtils;
 import org.jetbrains.annotations.NotNull;
 import org.odk.collect.android.utilities.DocumentFetchResult;
 import org.odk.collect.android.utilities.WebCredentialsUtils;
@@ -18,6 +19,7 @@ import java.util.concurrent.Callable;
 import javax.net.ssl.SSLException;
 
 import static java.net.HttpURLConnection.HTTP_NOT_FOUND;
+import static java.net.HttpURLConnection.HTTP_PARTIAL;
 import static java.net.HttpURLConnection.HTTP_UNAUTHORIZED;
 
 public class OpenRosaFormSource implements FormSource {
@@ -116,6 +118,25 @@ public class OpenRosaFormSource implements FormSource {
         }
     }
 
+    @Override
+    @NotNull
+    public InputStream fetchMediaFile(String mediaFileURL, long fromByte) throws FormSourceException {
+        HttpGetResult result = mapException(() -> openRosaXMLFetcher.fetch(mediaFileURL, null, fromByte));
+
+        if (result.getInputStream() == null) {
+            throw new FormSourceException.ServerError(result.getStatusCode(), serverURL);
+        } else if (result.getStatusCode() == HTTP_PARTIAL) {
+            return result.getInputStream();
+        } else {
+            // The server ignored the range and is sending the whole file
+            InputStream inputStream = result.getInputStream();
+            return mapException(() -> {
+                IOUtils.skipFully(inputStream, fromByte);
+                return inputStream;
+            });
+        }
+    }
+
     public void updateUrl(String url) {
         this.serverURL = url;
     }
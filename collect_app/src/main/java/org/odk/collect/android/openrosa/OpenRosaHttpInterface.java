@@ -38,6 +38,21 @@ public interface OpenRosaHttpInterface {
     @NonNull
     HttpGetResult executeGetRequest(@NonNull URI uri, @Nullable String contentType, @Nullable HttpCredentialsInterface credentials) throws Exception;
 
+    /**
+     * Creates a http connection and sets up an input stream for the part of the entity starting
+     * at {@code fromByte} (using a Range request). Servers that don't support ranges respond with
+     * the whole entity and a 200 rather than a 206.
+     *
+     * @param uri         of the stream
+     * @param contentType check the returned Mime Type to ensure it matches
+     * @param credentials to use for this executeGetRequest request
+     * @param fromByte    offset of the first byte of the entity to return
+     * @return HttpGetResult - An object containing the Stream, Hash and Headers
+     * @throws Exception various Exceptions such as IOException can be thrown
+     */
+    @NonNull
+    HttpGetResult executeGetRequest(@NonNull URI uri, @Nullable String contentType, @Nullable HttpCredentialsInterface credentials, long fromByte) throws Exception;
+
     /**
      * Performs a Http Head request.
      *
@@ -66,9 +81,39 @@ public interface OpenRosaHttpInterface {
                                             @Nullable HttpCredentialsInterface credentials,
                                             @NonNull long contentLength) throws Exception;
 
+    /**
+     * Uploads submission files and then list of other files to server. Submissions too big for a
+     * single request are split into several. If uploading one of them fails, uploading the same
+     * files to the same uri again starts from the first request the server didn't accept.
+     *
+     * @param submissionFile    The main file to be uploaded (Form file)
+     * @param fileList          List of Files to be uploaded
+     * @param uri               where to send the submissionFile and fileList
+     * @param contentLength     contentLength requested by the server
+     * @param compressTextFiles whether requests that are mostly XML, CSV and GeoJSON should be
+     *                          sent with a gzipped body. Only pass true for servers that have said
+     *                          they accept gzip.
+     * @param progressListener  notified as the files are sent
+     * @return ResponseMessageParser object that contains the response XML
+     * @throws IOException can be thrown if files do not exist
+     */
+    @NonNull
+    HttpPostResult uploadSubmissionAndFiles(@NonNull File submissionFile,
+                                            @NonNull List<File> fileList,
+                                            @NonNull URI uri,
+                                            @Nullable HttpCredentialsInterface credentials,
+                                            @NonNull long contentLength,
+                                            boolean compressTextFiles,
+                                            @Nullable UploadProgressListener progressListener) throws Exception;
+
     interface FileToContentTypeMapper {
 
         @NonNull
         String map(String fileName);
     }
+
+    interface UploadProgressListener {
+
+        void onProgress(long bytesSent, long totalBytes);
+    }
 }
@@ -87,6 +87,16 @@ class OpenRosaXmlFetcher {
 
     @NonNull
     public HttpGetResult fetch(@NonNull String downloadUrl, @Nullable final String contentType) throws Exception {
+        return fetch(downloadUrl, contentType, 0);
+    }
+
+    /**
+     * Creates a Http connection and input stream for the part of the document starting at
+     * {@code fromByte}. The server might ignore the range and return the whole document (with a
+     * 200 rather than a 206).
+     */
+    @NonNull
+    public HttpGetResult fetch(@NonNull String downloadUrl, @Nullable final String contentType, long fromByte) throws Exception {
         URI uri;
         try {
             // assume the downloadUrl is escaped properly
@@ -102,7 +112,11 @@ class OpenRosaXmlFetcher {
             throw new Exception("Invalid server URL (no hostname): " + downloadUrl);
         }
 
-        return httpInterface.executeGetRequest(uri, contentType, webCredentialsUtils.getCredentials(uri));
+        if (fromByte > 0) {
+            return httpInterface.executeGetRequest(uri, contentType, webCredentialsUtils.getCredentials(uri), fromByte);
+        } else {
+            return httpInterface.executeGetRequest(uri, contentType, webCredentialsUtils.getCredentials(uri));
+        }
     }
 
     public WebCredentialsUtils getWebCredentialsUtils() {
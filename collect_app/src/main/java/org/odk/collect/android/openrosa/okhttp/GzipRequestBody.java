@@ -0,0 +1,44 @@
+package org.odk.collect.android.openrosa.okhttp;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+import okio.GzipSink;
+import okio.Okio;
+
+/**
+ * Gzips the wrapped body as it is written to the network. The request it is sent with needs a
+ * "Content-Encoding: gzip" header. The compressed length isn't known up front so the body is sent
+ * chunked.
+ */
+class GzipRequestBody extends RequestBody {
+
+    private final RequestBody delegate;
+
+    GzipRequestBody(RequestBody delegate) {
+        this.delegate = delegate;
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return delegate.contentType();
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        BufferedSink gzipSink = Okio.buffer(new GzipSink(sink));
+        delegate.writeTo(gzipSink);
+        gzipSink.close();
+    }
+}
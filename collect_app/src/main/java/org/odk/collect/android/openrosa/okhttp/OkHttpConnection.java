@@ -12,6 +12,7 @@ import org.odk.collect.android.openrosa.HttpHeadResult;
 import org.odk.collect.android.openrosa.HttpPostResult;
 import org.odk.collect.android.openrosa.OpenRosaHttpInterface;
 import org.odk.collect.android.openrosa.OpenRosaServerClient;
+import org.odk.collect.android.utilities.FileUtils;
 import org.odk.collect.shared.strings.Md5;
 
 import java.io.ByteArrayInputStream;
@@ -19,12 +20,18 @@ import java.io.File;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
+import okhttp3.CacheControl;
 import okhttp3.Headers;
 import okhttp3.MediaType;
 import okhttp3.MultipartBody;
@@ -37,6 +44,27 @@ import timber.log.Timber;
 public class OkHttpConnection implements OpenRosaHttpInterface {
 
     private static final String HTTP_CONTENT_TYPE_TEXT_XML = "text/xml";
+    private static final String RANGE_HEADER = "Range";
+    private static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
+    private static final String GZIP = "gzip";
+    private static final Set<String> COMPRESSIBLE_EXTENSIONS = new HashSet<>(Arrays.asList("xml", "csv", "geojson"));
+
+    /**
+     * XML documents (form lists and manifests) can be kept in the client's cache (if it has one)
+     * but always have to be revalidated. That way documents that haven't changed are answered with
+     * a "304 Not Modified" (using If-None-Match/If-Modified-Since) rather than downloaded again.
+     */
+    private static final CacheControl REVALIDATE = new CacheControl.Builder()
+            .maxAge(0, TimeUnit.SECONDS)
+            .build();
+
+    /**
+     * Forms and media files are written to disk by their callers anyway so they shouldn't take
+     * up space in the cache.
+     */
+    private static final CacheControl NO_STORE = new CacheControl.Builder()
+            .noStore()
+            .build();
 
     private final OkHttpOpenRosaServerClientProvider clientFactory;
 
@@ -55,16 +83,26 @@ public class OkHttpConnection implements OpenRosaHttpInterface {
     @NonNull
     @Override
     public HttpGetResult executeGetRequest(@NonNull URI uri, @Nullable String contentType, @Nullable HttpCredentialsInterface credentials) throws Exception {
+        return executeGetRequest(uri, contentType, credentials, 0);
+    }
+
+    @NonNull
+    @Override
+    public HttpGetResult executeGetRequest(@NonNull URI uri, @Nullable String contentType, @Nullable HttpCredentialsInterface credentials, long fromByte) throws Exception {
         OpenRosaServerClient httpClient = clientFactory.get(uri.getScheme(), userAgent, credentials);
-        Request request = new Request.Builder()
+        Request.Builder requestBuilder = new Request.Builder()
                 .url(uri.toURL())
-                .get()
-                .build();
+                .cacheControl(HTTP_CONTENT_TYPE_TEXT_XML.equals(contentType) ? REVALIDATE : NO_STORE)
+                .get();
 
-        Response response = httpClient.makeRequest(request, new Date());
+        if (fromByte > 0) {
+            requestBuilder.header(RANGE_HEADER, "bytes=" + fromByte + "-");
+        }
+
+        Response response = httpClient.makeRequest(requestBuilder.build(), new Date());
         int statusCode = response.code();
 
-        if (statusCode != HttpURLConnection.HTTP_OK) {
+        if (statusCode != HttpURLConnection.HTTP_OK && !(fromByte > 0 && statusCode == HttpURLConnection.HTTP_PARTIAL)) {
             discardEntityBytes(response);
             Timber.i("Error: %s (%s at %s", response.message(), String.valueOf(statusCode), uri.toString());
 
@@ -139,7 +177,14 @@ public class OkHttpConnection implements OpenRosaHttpInterface {
     @NonNull
     @Override
     public HttpPostResult uploadSubmissionAndFiles(@NonNull File submissionFile, @NonNull List<File> fileList, @NonNull URI uri, @Nullable HttpCredentialsInterface credentials, @NonNull long contentLength) throws Exception {
-        HttpPostResult postResult = null;
+        return uploadSubmissionAndFiles(submissionFile, fileList, uri, credentials, contentLength, false, null);
+    }
+
+    @NonNull
+    @Override
+    public HttpPostResult uploadSubmissionAndFiles(@NonNull File submissionFile, @NonNull List<File> fileList, @NonNull URI uri, @Nullable HttpCredentialsInterface credentials, @NonNull long contentLength, boolean compressTextFiles, @Nullable UploadProgressListener progressListener) throws Exception {
+        List<MultipartBody> parts = new ArrayList<>();
+        List<Boolean> compressParts = new ArrayList<>();
 
         boolean first = true;
         int fileIndex = 0;
@@ -148,6 +193,7 @@ public class OkHttpConnection implements OpenRosaHttpInterface {
             lastFileIndex = fileIndex;
             first = false;
             long byteCount = 0L;
+            long textByteCount = 0L;
 
             RequestBody requestBody = RequestBody.create(MediaType.parse(HTTP_CONTENT_TYPE_TEXT_XML), submissionFile);
 
@@ -157,6 +203,7 @@ public class OkHttpConnection implements OpenRosaHttpInterface {
 
             Timber.i("added xml_submission_file: %s", submissionFile.getName());
             byteCount += submissionFile.length();
+            textByteCount += submissionFile.length();
 
             for (; fileIndex < fileList.size(); fileIndex++) {
                 File file = fileList.get(fileIndex);
@@ -167,6 +214,9 @@ public class OkHttpConnection implements OpenRosaHttpInterface {
                 multipartBuilder.addPart(MultipartBody.Part.createFormData(file.getName(), file.getName(), fileRequestBody));
 
                 byteCount += file.length();
+                if (COMPRESSIBLE_EXTENSIONS.contains(FileUtils.getFileExtension(file.getName()))) {
+                    textByteCount += file.length();
+                }
                 Timber.i("added file of type '%s' %s", contentType, file.getName());
 
                 // we've added at least one attachment to the request...
@@ -182,27 +232,72 @@ public class OkHttpConnection implements OpenRosaHttpInterface {
                 }
             }
 
-            MultipartBody multipartBody = multipartBuilder.build();
-            postResult = executePostRequest(uri, credentials, multipartBody);
+            parts.add(multipartBuilder.build());
+
+            // Gzipping already compressed media (most attachments) only costs time so posts are
+            // only compressed when they're mostly text. Posts are split by uncompressed size which
+            // is an upper bound for the compressed size (apart from a few bytes of gzip framing),
+            // so compressed posts stay within the server's limit too.
+            compressParts.add(compressTextFiles && textByteCount * 2 >= byteCount);
+        }
+
+        // Parts the server already accepted during a previous attempt don't need to be sent again
+        UploadJournal journal = UploadJournal.forSubmission(submissionFile, fileList, uri, contentLength);
+        int firstPart = Math.min(journal.getAcceptedParts(), parts.size() - 1);
+        if (firstPart > 0) {
+            Timber.i("Resuming upload of %s from post %d of %d", submissionFile.getName(), firstPart + 1, parts.size());
+        }
+
+        long totalBytes = 0;
+        for (int i = firstPart; i < parts.size(); i++) {
+            totalBytes += parts.get(i).contentLength();
+        }
+
+        HttpPostResult postResult = null;
+        long bytesSent = 0;
+        for (int i = firstPart; i < parts.size(); i++) {
+            MultipartBody part = parts.get(i);
+
+            RequestBody body = part;
+            if (progressListener != null) {
+                long partOffset = bytesSent;
+                long finalTotalBytes = totalBytes;
+                body = new ProgressRequestBody(part, partBytesSent -> progressListener.onProgress(partOffset + partBytesSent, finalTotalBytes));
+            }
+
+            boolean compress = compressParts.get(i);
+            if (compress) {
+                body = new GzipRequestBody(body);
+            }
+
+            postResult = executePostRequest(uri, credentials, body, compress);
 
             if (postResult.getResponseCode() != HttpURLConnection.HTTP_CREATED &&
                     postResult.getResponseCode() != HttpURLConnection.HTTP_ACCEPTED) {
                 return postResult;
             }
 
+            bytesSent += part.contentLength();
+            if (i + 1 < parts.size()) {
+                journal.setAcceptedParts(i + 1);
+            }
         }
 
+        journal.delete();
         return postResult;
     }
 
     @NonNull
-    private HttpPostResult executePostRequest(@NonNull URI uri, @Nullable HttpCredentialsInterface credentials, MultipartBody multipartBody) throws Exception {
+    private HttpPostResult executePostRequest(@NonNull URI uri, @Nullable HttpCredentialsInterface credentials, RequestBody multipartBody, boolean gzipped) throws Exception {
         OpenRosaServerClient httpClient = clientFactory.get(uri.getScheme(), userAgent, credentials);
         HttpPostResult postResult;
-        Request request = new Request.Builder()
+        Request.Builder requestBuilder = new Request.Builder()
                 .url(uri.toURL())
-                .post(multipartBody)
-                .build();
+                .post(multipartBody);
+        if (gzipped) {
+            requestBuilder.header(CONTENT_ENCODING_HEADER, GZIP);
+        }
+        Request request = requestBuilder.build();
         Response response = httpClient.makeRequest(request, new Date());
 
         if (response.code() == 204) {
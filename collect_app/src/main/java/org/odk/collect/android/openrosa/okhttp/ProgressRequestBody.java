@@ -0,0 +1,60 @@
+package org.odk.collect.android.openrosa.okhttp;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.io.IOException;
+import java.util.function.LongConsumer;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
+
+/**
+ * Reports the number of bytes of the wrapped body that have been written to the network as they
+ * are written. The count starts again from zero if the body is written more than once (when a
+ * request is retried after an authentication challenge for instance).
+ */
+class ProgressRequestBody extends RequestBody {
+
+    private final RequestBody delegate;
+    private final LongConsumer onBytesWritten;
+
+    ProgressRequestBody(RequestBody delegate, LongConsumer onBytesWritten) {
+        this.delegate = delegate;
+        this.onBytesWritten = onBytesWritten;
+    }
+
+    @Nullable
+    @Override
+    public MediaType contentType() {
+        return delegate.contentType();
+    }
+
+    @Override
+    public long contentLength() throws IOException {
+        return delegate.contentLength();
+    }
+
+    @Override
+    public void writeTo(@NonNull BufferedSink sink) throws IOException {
+        onBytesWritten.accept(0);
+
+        BufferedSink countingSink = Okio.buffer(new ForwardingSink(sink) {
+            private long bytesWritten;
+
+            @Override
+            public void write(@NonNull Buffer source, long byteCount) throws IOException {
+                super.write(source, byteCount);
+                bytesWritten += byteCount;
+                onBytesWritten.accept(bytesWritten);
+            }
+        });
+
+        delegate.writeTo(countingSink);
+        countingSink.flush();
+    }
+}
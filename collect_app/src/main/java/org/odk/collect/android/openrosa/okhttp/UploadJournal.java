@@ -0,0 +1,108 @@
+package org.odk.collect.android.openrosa.okhttp;
+
+import org.odk.collect.shared.strings.Md5;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.List;
+import java.util.Properties;
+
+import timber.log.Timber;
+
+/**
+ * Records how many of the POSTs a submission is split into have been accepted by the server so
+ * that a failed upload can be resumed from the first one that wasn't. The journal is kept as a
+ * hidden file next to the submission (so it isn't uploaded as an attachment and is removed along
+ * with the instance) and is only used if the destination and the files being sent haven't
+ * changed since it was written.
+ */
+final class UploadJournal {
+
+    private static final String KEY_FINGERPRINT = "fingerprint";
+    private static final String KEY_ACCEPTED_PARTS = "acceptedParts";
+
+    private final File journalFile;
+    private final String fingerprint;
+
+    private UploadJournal(File journalFile, String fingerprint) {
+        this.journalFile = journalFile;
+        this.fingerprint = fingerprint;
+    }
+
+    static UploadJournal forSubmission(File submissionFile, List<File> fileList, URI uri, long contentLength) {
+        StringBuilder fingerprint = new StringBuilder()
+                .append(uri).append('\n')
+                .append(contentLength).append('\n');
+
+        appendFingerprint(fingerprint, submissionFile);
+        for (File file : fileList) {
+            appendFingerprint(fingerprint, file);
+        }
+
+        File journalFile = new File(submissionFile.getParentFile(), "." + submissionFile.getName() + ".upload-journal");
+        return new UploadJournal(journalFile, Md5.getMd5Hash(new ByteArrayInputStream(fingerprint.toString().getBytes())));
+    }
+
+    /**
+     * @return the number of parts (counting from the first) that have already been accepted
+     */
+    int getAcceptedParts() {
+        if (!journalFile.exists()) {
+            return 0;
+        }
+
+        Properties journal = new Properties();
+        try (InputStream is = new FileInputStream(journalFile)) {
+            journal.load(is);
+        } catch (IOException | IllegalArgumentException e) {
+            Timber.w(e, "Discarding unreadable upload journal %s", journalFile.getAbsolutePath());
+            return 0;
+        }
+
+        if (!fingerprint.equals(journal.getProperty(KEY_FINGERPRINT))) {
+            return 0;
+        }
+
+        try {
+            return Integer.parseInt(journal.getProperty(KEY_ACCEPTED_PARTS, "0"));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    void setAcceptedParts(int acceptedParts) {
+        Properties journal = new Properties();
+        journal.setProperty(KEY_FINGERPRINT, fingerprint);
+        journal.setProperty(KEY_ACCEPTED_PARTS, String.valueOf(acceptedParts));
+
+        File tempJournalFile = new File(journalFile.getParentFile(), journalFile.getName() + ".tmp");
+        try (OutputStream os = new FileOutputStream(tempJournalFile)) {
+            journal.store(os, null);
+        } catch (IOException e) {
+            // Without a journal the next attempt just starts from the first part again
+            Timber.w(e, "Unable to write upload journal %s", journalFile.getAbsolutePath());
+            tempJournalFile.delete();
+            return;
+        }
+
+        if (!tempJournalFile.renameTo(journalFile)) {
+            tempJournalFile.delete();
+        }
+    }
+
+    void delete() {
+        journalFile.delete();
+    }
+
+    private static void appendFingerprint(StringBuilder fingerprint, File file) {
+        fingerprint.append(file.getName()).append(':')
+                .append(file.length()).append(':')
+                .append(file.lastModified()).append('\n');
+    }
+}
@@ -21,6 +21,8 @@ import android.os.AsyncTask;
 
 import org.javarosa.core.model.FormDef;
 import org.javarosa.core.model.FormIndex;
+import org.javarosa.core.model.IFormElement;
+import org.javarosa.core.model.QuestionDef;
 import org.javarosa.core.model.instance.InstanceInitializationFactory;
 import org.javarosa.core.model.instance.TreeElement;
 import org.javarosa.core.model.instance.TreeReference;
@@ -40,22 +42,30 @@ import org.odk.collect.android.external.ExternalDataManagerImpl;
 import org.odk.collect.android.external.ExternalDataReader;
 import org.odk.collect.android.external.ExternalDataReaderImpl;
 import org.odk.collect.android.external.handler.ExternalDataHandlerPull;
+import org.odk.collect.android.fastexternalitemset.ItemsetDao;
 import org.odk.collect.android.fastexternalitemset.ItemsetDbAdapter;
 import org.odk.collect.android.javarosawrapper.FormController;
 import org.odk.collect.android.listeners.FormLoaderListener;
+import org.odk.collect.android.utilities.FileMd5Cache;
 import org.odk.collect.android.utilities.FileUtils;
 import org.odk.collect.android.utilities.FormDefCache;
 import org.odk.collect.android.utilities.TranslationHandler;
 import org.odk.collect.android.utilities.ZipUtils;
-import org.odk.collect.shared.strings.Md5;
 
 import java.io.File;
 import java.io.FileFilter;
 import java.io.FileReader;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 
 import au.com.bytecode.opencsv.CSVReader;
 import timber.log.Timber;
@@ -71,6 +81,11 @@ import static org.odk.collect.android.utilities.FormUtils.setupReferenceManagerF
 public class FormLoaderTask extends AsyncTask<String, String, FormLoaderTask.FECWrapper> {
     private static final String ITEMSETS_CSV = "itemsets.csv";
 
+    // Loading a form sets up the global ReferenceManager and imports into shared databases so
+    // loads and warm-ups are run one at a time
+    private static final ReentrantLock LOAD_LOCK = new ReentrantLock();
+    private static final AtomicInteger PENDING_LOADS = new AtomicInteger();
+
     private FormLoaderListener stateListener;
     private String errorMsg;
     private String warningMsg;
@@ -83,6 +98,7 @@ public class FormLoaderTask extends AsyncTask<String, String, FormLoaderTask.FEC
     private Intent intent;
     private ExternalDataManager externalDataManager;
     private FormDef formDef;
+    private volatile boolean warmingUp;
 
     public static class FECWrapper {
         FormController controller;
@@ -120,6 +136,17 @@ public class FormLoaderTask extends AsyncTask<String, String, FormLoaderTask.FEC
      */
     @Override
     protected FECWrapper doInBackground(String... path) {
+        PENDING_LOADS.incrementAndGet();
+        LOAD_LOCK.lock();
+        try {
+            return loadForm(path);
+        } finally {
+            LOAD_LOCK.unlock();
+            PENDING_LOADS.decrementAndGet();
+        }
+    }
+
+    private FECWrapper loadForm(String... path) {
         errorMsg = null;
 
         final String formPath = path[0];
@@ -198,7 +225,7 @@ public class FormLoaderTask extends AsyncTask<String, String, FormLoaderTask.FEC
             }
         }
 
-        processItemSets(formMediaDir);
+        processItemSets(formMediaDir, formDef);
 
         final FormController fc = new FormController(formMediaDir, fec, instancePath == null ? null
                 : new File(instancePath));
@@ -220,6 +247,72 @@ public class FormLoaderTask extends AsyncTask<String, String, FormLoaderTask.FEC
         return data;
     }
 
+    /**
+     * Does the parts of loading a form that don't depend on an instance: parsing and caching the
+     * FormDef, extracting zipped media and importing external data sets and itemsets.csv. The
+     * results are kept on disk so that the next time the form is loaded those steps are skipped.
+     * Steps whose results are already up to date (the form is cached or the media hasn't changed
+     * since it was imported) are skipped here too. Runs on the calling thread.
+     * <p>
+     * Imports stop (and are rolled back) as soon as a form starts loading.
+     *
+     * @return false if the warm up didn't run or stopped early because a form is being loaded
+     */
+    public boolean warmUp(String formPath) {
+        if (PENDING_LOADS.get() > 0 || !LOAD_LOCK.tryLock()) {
+            return false;
+        }
+
+        warmingUp = true;
+        try {
+            final File formXml = new File(formPath);
+            final File formMediaDir = FileUtils.getFormMediaDir(formXml);
+
+            setupReferenceManagerForForm(ReferenceManager.instance(), formMediaDir);
+
+            FormDef formDef = null;
+            if (!FormDefCache.isCached(formXml)) {
+                formDef = createFormDefFromCacheOrXml(formPath, formXml);
+                if (formDef == null) {
+                    return true;
+                }
+            }
+
+            if (isLoadCancelled()) {
+                return false;
+            }
+
+            loadExternalData(formMediaDir);
+            if (isLoadCancelled()) {
+                return false;
+            }
+
+            if (importItemSets(formMediaDir)) {
+                // The indexes for the form's queries were dropped along with the old itemsets
+                if (formDef == null) {
+                    formDef = createFormDefFromCacheOrXml(formPath, formXml);
+                }
+                if (formDef != null) {
+                    String pathHash = ItemsetDbAdapter.getMd5FromString(new File(formMediaDir, ITEMSETS_CSV).getAbsolutePath());
+                    indexItemsetQueries(formDef, pathHash);
+                }
+            }
+
+            return !isLoadCancelled();
+        } finally {
+            warmingUp = false;
+            LOAD_LOCK.unlock();
+        }
+    }
+
+    /**
+     * @return true if loading should stop: the task has been cancelled or, if it's warming up a
+     * form, a form has started loading
+     */
+    public boolean isLoadCancelled() {
+        return isCancelled() || (warmingUp && PENDING_LOADS.get() > 0);
+    }
+
     private FormDef createFormDefFromCacheOrXml(String formPath, File formXml) {
         publishProgress(
                 TranslationHandler.getString(Collect.getInstance(), R.string.survey_loading_reading_form_message));
@@ -254,14 +347,26 @@ public class FormLoaderTask extends AsyncTask<String, String, FormLoaderTask.FEC
         return null;
     }
 
-    private void processItemSets(File formMediaDir) {
+    private void processItemSets(File formMediaDir, FormDef formDef) {
+        importItemSets(formMediaDir);
+
+        final File csv = new File(formMediaDir.getAbsolutePath() + "/" + ITEMSETS_CSV);
+        if (csv.exists()) {
+            indexItemsetQueries(formDef, ItemsetDbAdapter.getMd5FromString(csv.getAbsolutePath()));
+        }
+    }
+
+    /**
+     * @return true if itemsets.csv was (re)imported in full
+     */
+    private boolean importItemSets(File formMediaDir) {
         // for itemsets.csv, we only check to see if the itemset file has been
         // updated
         final File csv = new File(formMediaDir.getAbsolutePath() + "/" + ITEMSETS_CSV);
         String csvmd5 = null;
+        boolean readFile = false;
         if (csv.exists()) {
-            csvmd5 = Md5.getMd5Hash(csv);
-            boolean readFile = false;
+            csvmd5 = FileMd5Cache.getMd5Hash(csv);
             final ItemsetDbAdapter ida = new ItemsetDbAdapter();
             ida.open();
             // get the database entry (if exists) for this itemsets.csv, based
@@ -288,7 +393,54 @@ public class FormLoaderTask extends AsyncTask<String, String, FormLoaderTask.FEC
             }
             ida.close();
             if (readFile) {
-                readCSV(csv, csvmd5, ItemsetDbAdapter.getMd5FromString(csv.getAbsolutePath()));
+                return readCSV(csv, csvmd5, ItemsetDbAdapter.getMd5FromString(csv.getAbsolutePath()));
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Creates the indexes the form's itemset queries need (if they don't exist already) so that
+     * they're ready before any question that uses them is shown.
+     */
+    private void indexItemsetQueries(FormDef formDef, String pathHash) {
+        Set<List<String>> indexes = new LinkedHashSet<>();
+        addItemsetQueryIndexes(formDef, indexes);
+        if (indexes.isEmpty()) {
+            return;
+        }
+
+        ItemsetDbAdapter ida = new ItemsetDbAdapter();
+        ida.open();
+        try {
+            for (List<String> columns : indexes) {
+                try {
+                    ida.createIndex(pathHash, columns);
+                } catch (SQLException e) {
+                    // the query will fail in the same way if one of the columns doesn't exist
+                    Timber.i(e);
+                }
+            }
+        } finally {
+            ida.close();
+        }
+    }
+
+    private void addItemsetQueryIndexes(IFormElement element, Set<List<String>> indexes) {
+        if (element instanceof QuestionDef) {
+            String query = ((QuestionDef) element).getAdditionalAttribute(null, "query");
+            if (query != null) {
+                try {
+                    indexes.add(ItemsetDao.getIndexColumns(query));
+                } catch (RuntimeException e) {
+                    // the widget reports badly formed queries when it's shown
+                    Timber.i(e);
+                }
+            }
+        } else if (element.getChildren() != null) {
+            for (IFormElement child : element.getChildren()) {
+                addItemsetQueryIndexes(child, indexes);
             }
         }
     }
@@ -316,6 +468,10 @@ public class FormLoaderTask extends AsyncTask<String, String, FormLoaderTask.FEC
                     Timber.i("Importing data");
                     publishProgress(TranslationHandler.getString(Collect.getInstance(), R.string.survey_loading_reading_data_message));
                     importData(instanceXml, fec);
+                    if (usedSavepoint) {
+                        // Answers changed since the savepoint was last written in full
+                        SavePointJournal.replay(savepointFile, formDef);
+                    }
                     formDef.initialize(false, instanceInit);
                 } catch (IOException | RuntimeException e) {
                     // Skip a savepoint file that is corrupted or 0-sized
@@ -523,7 +679,10 @@ public class FormLoaderTask extends AsyncTask<String, String, FormLoaderTask.FEC
         this.intent = intent;
     }
 
-    private void readCSV(File csv, String formHash, String pathHash) {
+    /**
+     * @return false if the import was cancelled and rolled back
+     */
+    private boolean readCSV(File csv, String formHash, String pathHash) {
 
         CSVReader reader;
         ItemsetDbAdapter ida = new ItemsetDbAdapter();
@@ -553,9 +712,35 @@ public class FormLoaderTask extends AsyncTask<String, String, FormLoaderTask.FEC
                     withinTransaction = true;
                     ida.beginTransaction();
                 }
+
+                if (isLoadCancelled()) {
+                    // drop what has been imported so far so it's imported in full next time
+                    withinTransaction = false;
+                    ida.rollback();
+                    ida.dropTable(pathHash, csv.getAbsolutePath());
+                    Timber.w("Import of %s cancelled", csv.getName());
+                    return false;
+                }
+
                 ida.addRow(pathHash, columnHeaders, nextLine);
 
             }
+            if (withinTransaction) {
+                withinTransaction = false;
+                ida.commit();
+            }
+
+            // every itemset query filters by list name and labels are looked up by name so index
+            // both once all the rows are in rather than maintaining the indexes on each insert
+            if (columnHeaders != null) {
+                List<String> columns = Arrays.asList(columnHeaders);
+                if (columns.contains(ItemsetDbAdapter.KEY_LIST_NAME)) {
+                    ida.createIndex(pathHash, Collections.singletonList(ItemsetDbAdapter.KEY_LIST_NAME));
+                }
+                if (columns.contains(ItemsetDbAdapter.KEY_NAME)) {
+                    ida.createIndex(pathHash, Collections.singletonList(ItemsetDbAdapter.KEY_NAME));
+                }
+            }
         } catch (IOException | SQLException e) {
             warningMsg = e.getMessage();
         } finally {
@@ -564,6 +749,8 @@ public class FormLoaderTask extends AsyncTask<String, String, FormLoaderTask.FEC
             }
             ida.close();
         }
+
+        return true;
     }
 
     public FormDef getFormDef() {
@@ -14,12 +14,15 @@
 
 package org.odk.collect.android.tasks;
 
+import androidx.annotation.Nullable;
+
 import org.odk.collect.analytics.Analytics;
 import org.odk.collect.android.R;
 import org.odk.collect.android.application.Collect;
 import org.odk.collect.forms.instances.Instance;
 import org.odk.collect.android.logic.PropertyManager;
 import org.odk.collect.android.openrosa.OpenRosaHttpInterface;
+import org.odk.collect.android.upload.InstanceBatchUploader;
 import org.odk.collect.android.upload.InstanceServerUploader;
 import org.odk.collect.android.upload.UploadAuthRequestedException;
 import org.odk.collect.android.upload.UploadException;
@@ -28,6 +31,10 @@ import org.odk.collect.android.utilities.WebCredentialsUtils;
 
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.inject.Inject;
 
@@ -39,6 +46,10 @@ import static org.odk.collect.android.analytics.AnalyticsEvents.SUBMISSION;
  * @author Carl Hartung (carlhartung@gmail.com)
  */
 public class InstanceServerUploaderTask extends InstanceUploaderTask {
+
+    // How many more bytes need to be sent before the progress shown is updated
+    private static final long PROGRESS_BYTES_STEP = 64 * 1024;
+
     @Inject
     OpenRosaHttpInterface httpInterface;
 
@@ -54,6 +65,8 @@ public class InstanceServerUploaderTask extends InstanceUploaderTask {
     private String customUsername;
     private String customPassword;
 
+    private final AtomicLong bytesSent = new AtomicLong();
+
     public InstanceServerUploaderTask() {
         Collect.getInstance().getComponent().inject(this);
     }
@@ -67,35 +80,55 @@ public class InstanceServerUploaderTask extends InstanceUploaderTask {
 
         String deviceId = new PropertyManager().getSingularProperty(PropertyManager.PROPMGR_DEVICE_ID);
 
-        for (int i = 0; i < instancesToUpload.size(); i++) {
-            if (isCancelled()) {
-                return outcome;
-            }
-            Instance instance = instancesToUpload.get(i);
-
-            publishProgress(i + 1, instancesToUpload.size());
-
-            try {
-                String destinationUrl = uploader.getUrlToSubmitTo(instance, deviceId, completeDestinationUrl, null);
-                String customMessage = uploader.uploadOneSubmission(instance, destinationUrl);
-                outcome.messagesByInstanceId.put(instance.getDbId().toString(),
-                        customMessage != null ? customMessage : TranslationHandler.getString(Collect.getInstance(), R.string.success));
-
-                analytics.logEvent(SUBMISSION, "HTTP", Collect.getFormIdentifierHash(instance.getFormId(), instance.getFormVersion()));
-            } catch (UploadAuthRequestedException e) {
-                outcome.authRequestingServer = e.getAuthRequestingServer();
-                // Don't add the instance that caused an auth request to the map because we want to
-                // retry. Items present in the map are considered already attempted and won't be
-                // retried.
-            } catch (UploadException e) {
-                outcome.messagesByInstanceId.put(instance.getDbId().toString(),
-                        e.getDisplayMessage());
+        AtomicInteger uploaded = new AtomicInteger();
+        Map<Long, Long> bytesSentByInstance = new ConcurrentHashMap<>();
+        AtomicLong lastPublishedBytesSent = new AtomicLong();
+        uploader.setProgressListener((instance, instanceBytesSent) -> {
+            Long previous = bytesSentByInstance.put(instance.getDbId(), instanceBytesSent);
+            long total = bytesSent.addAndGet(instanceBytesSent - (previous != null ? previous : 0));
+
+            long lastPublished = lastPublishedBytesSent.get();
+            if (Math.abs(total - lastPublished) >= PROGRESS_BYTES_STEP && lastPublishedBytesSent.compareAndSet(lastPublished, total)) {
+                publishProgress(uploaded.get(), instancesToUpload.size());
             }
-        }
-        
+        });
+
+        new InstanceBatchUploader(uploader).upload(instancesToUpload,
+                instance -> uploader.getUrlToSubmitTo(instance, deviceId, completeDestinationUrl, null),
+                this::isCancelled,
+                new InstanceBatchUploader.Listener() {
+                    @Override
+                    public void onSuccess(Instance instance, @Nullable String customMessage) {
+                        publishProgress(uploaded.incrementAndGet(), instancesToUpload.size());
+                        outcome.messagesByInstanceId.put(instance.getDbId().toString(),
+                                customMessage != null ? customMessage : TranslationHandler.getString(Collect.getInstance(), R.string.success));
+
+                        analytics.logEvent(SUBMISSION, "HTTP", Collect.getFormIdentifierHash(instance.getFormId(), instance.getFormVersion()));
+                    }
+
+                    @Override
+                    public void onFailure(Instance instance, UploadException exception) {
+                        publishProgress(uploaded.incrementAndGet(), instancesToUpload.size());
+                        if (exception instanceof UploadAuthRequestedException) {
+                            outcome.authRequestingServer = ((UploadAuthRequestedException) exception).getAuthRequestingServer();
+                            // Don't add the instance that caused an auth request to the map because we want to
+                            // retry. Items present in the map are considered already attempted and won't be
+                            // retried.
+                        } else {
+                            outcome.messagesByInstanceId.put(instance.getDbId().toString(),
+                                    exception.getDisplayMessage());
+                        }
+                    }
+                });
+
         return outcome;
     }
 
+    @Override
+    protected long getBytesSent() {
+        return bytesSent.get();
+    }
+
     @Override
     protected void onPostExecute(Outcome outcome) {
         super.onPostExecute(outcome);
@@ -82,11 +82,18 @@ public abstract class InstanceUploaderTask extends AsyncTask<Long, Integer, Inst
     protected void onProgressUpdate(Integer... values) {
         synchronized (this) {
             if (stateListener != null) {
-                stateListener.progressUpdate(values[0], values[1]);
+                stateListener.progressUpdate(values[0], values[1], getBytesSent());
             }
         }
     }
 
+    /**
+     * @return the number of bytes sent so far or 0 if the uploader doesn't report it
+     */
+    protected long getBytesSent() {
+        return 0;
+    }
+
     public void setUploaderListener(InstanceUploaderListener sl) {
         synchronized (this) {
             stateListener = sl;
@@ -16,10 +16,10 @@ package org.odk.collect.android.tasks;
 
 import android.content.ContentValues;
 import android.net.Uri;
-import android.util.Pair;
 
 import androidx.annotation.NonNull;
 
+import org.apache.commons.io.IOUtils;
 import org.javarosa.core.model.condition.EvaluationContext;
 import org.javarosa.core.model.data.GeoPointData;
 import org.javarosa.core.model.data.IAnswerData;
@@ -59,9 +59,10 @@ import org.odk.collect.forms.instances.Instance;
 import org.odk.collect.forms.instances.InstancesRepository;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.RandomAccessFile;
 import java.util.ArrayList;
 
 import timber.log.Timber;
@@ -91,6 +92,8 @@ public class SaveFormToDisk {
     public static final int SAVED_AND_EXIT = 504;
     public static final int ENCRYPTION_ERROR = 505;
 
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
     public SaveFormToDisk(FormController formController, MediaUtils mediaUtils, boolean saveAndExit, boolean shouldFinalize, String updatedName,
                           Uri uri, Analytics analytics, ArrayList<String> tempFiles, String currentProjectId) {
         this.formController = formController;
@@ -199,11 +202,7 @@ public class SaveFormToDisk {
 
         if (instance != null) {
             String geometryXpath = getGeometryXpathForInstance(instance);
-            Pair<String, String> geometryContentValues = extractGeometryContentValues(formInstance, geometryXpath);
-            if (geometryContentValues != null) {
-                instanceBuilder.geometryType(geometryContentValues.first);
-                instanceBuilder.geometry(geometryContentValues.second);
-            }
+            extractGeometry(instanceBuilder, formInstance, geometryXpath);
 
             Instance newInstance = new InstancesRepositoryProvider(Collect.getInstance()).get().save(instanceBuilder.build());
             uri = InstanceProviderAPI.getUri(currentProjectId, newInstance.getDbId());
@@ -223,11 +222,7 @@ public class SaveFormToDisk {
             instanceBuilder.formId(form.getFormId());
             instanceBuilder.formVersion(form.getVersion());
 
-            Pair<String, String> geometryContentValues = extractGeometryContentValues(formInstance, form.getGeometryXpath());
-            if (geometryContentValues != null) {
-                instanceBuilder.geometryType(geometryContentValues.first);
-                instanceBuilder.geometry(geometryContentValues.second);
-            }
+            extractGeometry(instanceBuilder, formInstance, form.getGeometryXpath());
         }
 
         Instance newInstance = new InstancesRepositoryProvider(Collect.getInstance()).get().save(instanceBuilder.build());
@@ -235,17 +230,15 @@ public class SaveFormToDisk {
     }
 
     /**
-     * Extracts geometry information from the given xpath path in the given instance.
+     * Extracts geometry information from the given xpath path in the given instance and sets the
+     * geometry, geometry type and geometry bounds on the builder. Those values are set to null if
+     * anything goes wrong with parsing the geometry and converting it to GeoJSON.
      * <p>
-     * Returns a ContentValues object with values set for InstanceColumns.GEOMETRY and
-     * InstanceColumns.GEOMETRY_TYPE. Those value are null if anything goes wrong with
-     * parsing the geometry and converting it to GeoJSON.
-     * <p>
-     * Returns null if the given XPath path is null.
+     * Leaves the builder unchanged if the given XPath path is null or doesn't match a node.
      */
-    private Pair<String, String> extractGeometryContentValues(FormInstance instance, String xpath) {
+    private void extractGeometry(Instance.Builder builder, FormInstance instance, String xpath) {
         if (xpath == null) {
-            return null;
+            return;
         }
 
         try {
@@ -256,7 +249,7 @@ public class SaveFormToDisk {
                 XPathNodeset nodes = (XPathNodeset) result;
                 if (nodes.size() == 0) {
                     Timber.i("TreeElement is missing for xpath %s!, probably it's just not relevant", xpath);
-                    return null;
+                    return;
                 }
 
                 // For now, only use the first node found.
@@ -265,11 +258,15 @@ public class SaveFormToDisk {
 
                 if (value instanceof GeoPointData) {
                     try {
-                        JSONObject json = toGeoJson((GeoPointData) value);
+                        GeoPointData point = (GeoPointData) value;
+                        JSONObject json = toGeoJson(point);
                         Timber.i("Geometry for \"%s\" instance found at %s: %s",
                                 instance.getName(), xpath, json);
 
-                        return new Pair<>(json.getString("type"), json.toString());
+                        builder.geometryType(json.getString("type"))
+                                .geometry(json.toString())
+                                .geometryBounds(point.getPart(0), point.getPart(1), point.getPart(0), point.getPart(1));
+                        return;
                     } catch (JSONException e) {
                         Timber.w("Could not convert GeoPointData %s to GeoJSON", value);
                     }
@@ -279,7 +276,9 @@ public class SaveFormToDisk {
             Timber.w(e, "Could not evaluate geometry XPath %s in instance", xpath);
         }
 
-        return new Pair<>(null, null);
+        builder.geometryType(null)
+                .geometry(null)
+                .geometryBounds(null, null, null, null);
     }
 
     @NonNull
@@ -320,6 +319,7 @@ public class SaveFormToDisk {
         File savepointFile = getSavepointFile(instanceName);
         File formIndexFile = getFormIndexFile(instanceName);
         FileUtils.deleteAndReport(savepointFile);
+        FileUtils.deleteAndReport(SavePointJournal.getJournalFile(savepointFile));
         FileUtils.deleteAndReport(formIndexFile);
     }
 
@@ -347,7 +347,7 @@ public class SaveFormToDisk {
 
         // Write last-saved instance
         String lastSavedPath = formController.getLastSavedPath();
-        writeFile(payload, lastSavedPath);
+        copyFile(new File(instancePath), lastSavedPath);
 
         // update the uri. We have exported the reloadable instance, so update status...
         // Since we saved a reloadable instance, it is flagged as re-openable so that if any error
@@ -430,6 +430,7 @@ public class SaveFormToDisk {
                 instancesRepository.save(new Instance.Builder(instance)
                         .geometry(null)
                         .geometryType(null)
+                        .geometryBounds(null, null, null, null)
                         .build()
                 );
 
@@ -485,38 +486,49 @@ public class SaveFormToDisk {
     }
 
     /**
-     * Writes payload contents to the disk.
+     * Writes payload contents to the disk. The payload is streamed into a temporary file which is
+     * synced once and then renamed over the destination so a failed write never leaves a
+     * truncated file behind.
      */
     static void writeFile(ByteArrayPayload payload, String path) throws IOException {
         File file = new File(path);
-        if (file.exists() && !file.delete()) {
-            throw new IOException("Cannot overwrite " + path + ". Perhaps the file is locked?");
+        if (payload.getLength() <= 0) {
+            if (file.exists() && !file.delete()) {
+                throw new IOException("Cannot overwrite " + path + ". Perhaps the file is locked?");
+            }
+            return;
         }
 
-        // create data stream
-        InputStream is = payload.getPayloadStream();
-        int len = (int) payload.getLength();
-
-        // read from data stream
-        byte[] data = new byte[len];
-        int read = is.read(data, 0, len);
-        if (read > 0) {
-            // Make sure the directory path to this file exists.
-            file.getParentFile().mkdirs();
-            // write xml file
-            RandomAccessFile randomAccessFile = null;
-            try {
-                randomAccessFile = new RandomAccessFile(file, "rws");
-                randomAccessFile.write(data);
-            } finally {
-                if (randomAccessFile != null) {
-                    try {
-                        randomAccessFile.close();
-                    } catch (IOException e) {
-                        Timber.e(e, "Error closing RandomAccessFile: %s", path);
-                    }
-                }
-            }
+        writeFileAtomically(payload.getPayloadStream(), file);
+    }
+
+    /**
+     * Copies a file that has already been written (e.g. the instance) to another path without
+     * serializing the form again.
+     */
+    static void copyFile(File sourceFile, String path) throws IOException {
+        try (InputStream is = new FileInputStream(sourceFile)) {
+            writeFileAtomically(is, new File(path));
+        }
+    }
+
+    private static void writeFileAtomically(InputStream is, File file) throws IOException {
+        // Make sure the directory path to this file exists.
+        file.getParentFile().mkdirs();
+
+        // Hidden so that it is never picked up as an attachment (e.g. during encryption)
+        File tempFile = new File(file.getParentFile(), "." + file.getName() + ".tmp");
+        try (FileOutputStream os = new FileOutputStream(tempFile)) {
+            IOUtils.copyLarge(is, os, new byte[WRITE_BUFFER_SIZE]);
+            os.getChannel().force(true);
+        } catch (IOException e) {
+            tempFile.delete();
+            throw e;
+        }
+
+        if (!tempFile.renameTo(file)) {
+            tempFile.delete();
+            throw new IOException("Cannot overwrite " + file.getAbsolutePath() + ". Perhaps the file is locked?");
         }
     }
 }
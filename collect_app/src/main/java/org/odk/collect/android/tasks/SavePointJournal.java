@@ -0,0 +1,322 @@
+package org.odk.collect.android.tasks;
+
+import androidx.annotation.Nullable;
+
+import org.apache.commons.io.input.CountingInputStream;
+import org.javarosa.core.model.FormDef;
+import org.javarosa.core.model.data.IAnswerData;
+import org.javarosa.core.model.instance.TreeElement;
+import org.javarosa.core.model.instance.TreeReference;
+import org.odk.collect.android.external.ExternalAnswerResolver;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import timber.log.Timber;
+
+/**
+ * Keeps savepoints cheap for large instances. Rather than serializing the whole instance every
+ * time, the answers that changed since the last full savepoint are appended to a journal next to
+ * it (keyed by the reference of the node they belong to). A full savepoint is only written (and
+ * the journal discarded) the first time for a form session, when repeats have been added or
+ * removed, or every {@link #MAX_JOURNALED_SAVEPOINTS} savepoints to keep the journal short.
+ * <p>
+ * When an instance is loaded from its savepoint, {@link #replay(File, FormDef)} applies the
+ * journal on top of it.
+ */
+final class SavePointJournal {
+
+    private static final int MAX_JOURNALED_SAVEPOINTS = 20;
+    private static final long MAX_JOURNAL_SIZE = 1024 * 1024;
+    private static final int VERSION = 1;
+
+    @Nullable
+    private static SavePointJournal current;
+
+    private final FormDef formDef;
+    private final File savepointFile;
+    private final File journalFile;
+
+    // The answers in the savepoint (and journal) as of the last time it was written
+    @Nullable
+    private Map<TreeReference, String> savedAnswers;
+    @Nullable
+    private Map<TreeReference, String> answersBeingSaved;
+    private String baseFingerprint;
+    private int journaledSavepoints;
+
+    private SavePointJournal(FormDef formDef, File savepointFile) {
+        this.formDef = formDef;
+        this.savepointFile = savepointFile;
+        this.journalFile = getJournalFile(savepointFile);
+    }
+
+    /**
+     * @return the journal for the savepoint of the form currently being filled. Its state is
+     * kept for as long as the same form is being filled.
+     */
+    static synchronized SavePointJournal get(FormDef formDef, File savepointFile) {
+        if (current == null || current.formDef != formDef || !current.savepointFile.equals(savepointFile)) {
+            current = new SavePointJournal(formDef, savepointFile);
+        }
+
+        return current;
+    }
+
+    static File getJournalFile(File savepointFile) {
+        return new File(savepointFile.getParentFile(), savepointFile.getName() + ".journal");
+    }
+
+    /**
+     * Appends the answers that have changed since the savepoint was last written to the journal.
+     *
+     * @return false if a full savepoint needs to be written instead (in which case
+     * {@link #fullSavepointWritten()} should be called once it has been)
+     */
+    boolean appendChangedAnswers() throws IOException {
+        Map<TreeReference, String> answers = collectAnswers(formDef.getMainInstance().getRoot());
+
+        if (!canAppendTo(answers)) {
+            answersBeingSaved = answers;
+            return false;
+        }
+
+        List<TreeReference> changedRefs = new ArrayList<>();
+        for (Map.Entry<TreeReference, String> answer : answers.entrySet()) {
+            String savedAnswer = savedAnswers.get(answer.getKey());
+            if (savedAnswer == null ? answer.getValue() != null : !savedAnswer.equals(answer.getValue())) {
+                changedRefs.add(answer.getKey());
+            }
+        }
+
+        if (!changedRefs.isEmpty()) {
+            ByteArrayOutputStream record = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(record);
+            if (!journalFile.exists()) {
+                out.writeInt(VERSION);
+                out.writeUTF(baseFingerprint);
+            }
+
+            out.writeInt(changedRefs.size());
+            for (TreeReference ref : changedRefs) {
+                writeAnswer(out, ref, answers.get(ref));
+            }
+            out.flush();
+
+            // Records are written in one go so a crash can at worst leave the last one incomplete
+            try (OutputStream os = new FileOutputStream(journalFile, true)) {
+                os.write(record.toByteArray());
+            } catch (IOException e) {
+                // Part of the record might have made it in which would corrupt anything appended
+                // after it so start over from a full savepoint
+                Timber.w(e, "Could not append to savepoint journal");
+                answersBeingSaved = answers;
+                return false;
+            }
+
+            journaledSavepoints++;
+        }
+
+        savedAnswers = answers;
+        return true;
+    }
+
+    /**
+     * Starts a new journal on top of the full savepoint that has just been written.
+     */
+    void fullSavepointWritten() {
+        journalFile.delete();
+        savedAnswers = answersBeingSaved;
+        answersBeingSaved = null;
+        baseFingerprint = getFingerprint(savepointFile);
+        journaledSavepoints = 0;
+    }
+
+    private boolean canAppendTo(Map<TreeReference, String> answers) {
+        if (savedAnswers == null || !getFingerprint(savepointFile).equals(baseFingerprint)) {
+            return false;
+        }
+
+        if (journaledSavepoints >= MAX_JOURNALED_SAVEPOINTS || journalFile.length() > MAX_JOURNAL_SIZE) {
+            return false;
+        }
+
+        // Repeats added or removed. The journal only records values so write everything out.
+        return answers.size() == savedAnswers.size() && savedAnswers.keySet().containsAll(answers.keySet());
+    }
+
+    /**
+     * Applies the journal for a savepoint to the main instance of a form that has just been
+     * populated from that savepoint. Journals that were started on top of a different version of
+     * the savepoint (or that can't be read) are ignored.
+     */
+    static void replay(File savepointFile, FormDef formDef) {
+        File journalFile = getJournalFile(savepointFile);
+        if (!journalFile.exists()) {
+            return;
+        }
+
+        List<JournaledAnswer> answers = new ArrayList<>();
+        long journalLength = journalFile.length();
+        try (CountingInputStream counter = new CountingInputStream(new BufferedInputStream(new FileInputStream(journalFile)));
+             DataInputStream in = new DataInputStream(counter)) {
+            if (in.readInt() != VERSION || !in.readUTF().equals(getFingerprint(savepointFile))) {
+                Timber.w("Ignoring savepoint journal that doesn't match %s", savepointFile.getName());
+                return;
+            }
+
+            while (true) {
+                int count;
+                try {
+                    count = in.readInt();
+                } catch (EOFException e) {
+                    break;
+                }
+
+                List<JournaledAnswer> record = new ArrayList<>();
+                try {
+                    checkLength(count, journalLength - counter.getByteCount());
+                    for (int i = 0; i < count; i++) {
+                        record.add(readAnswer(in, journalLength - counter.getByteCount()));
+                    }
+                } catch (IOException e) {
+                    Timber.w(e, "Ignoring incomplete savepoint journal record");
+                    break;
+                }
+                answers.addAll(record);
+            }
+        } catch (IOException e) {
+            Timber.e(e, "Ignoring unreadable savepoint journal");
+            return;
+        }
+
+        TreeElement root = formDef.getMainInstance().getRoot();
+        ExternalAnswerResolver answerResolver = new ExternalAnswerResolver();
+        for (JournaledAnswer answer : answers) {
+            TreeElement element = answer.resolve(root);
+            if (element == null) {
+                Timber.w("Savepoint journal refers to a node that doesn't exist");
+                continue;
+            }
+
+            element.setValue(answer.value == null ? null : answerResolver.resolveAnswer(answer.value, element, formDef));
+        }
+
+        Timber.i("Replayed %d answers from savepoint journal", answers.size());
+    }
+
+    private static Map<TreeReference, String> collectAnswers(TreeElement root) {
+        Map<TreeReference, String> answers = new HashMap<>();
+        collectAnswers(root, answers);
+        return answers;
+    }
+
+    private static void collectAnswers(TreeElement element, Map<TreeReference, String> answers) {
+        if (element.getMult() == TreeReference.INDEX_TEMPLATE) {
+            return;
+        }
+
+        if (element.getNumChildren() == 0) {
+            IAnswerData value = element.getValue();
+            answers.put(element.getRef(), value == null ? null : value.uncast().getString());
+            return;
+        }
+
+        for (int i = 0; i < element.getNumChildren(); i++) {
+            collectAnswers(element.getChildAt(i), answers);
+        }
+    }
+
+    private static void writeAnswer(DataOutputStream out, TreeReference ref, @Nullable String value) throws IOException {
+        out.writeInt(ref.size());
+        for (int i = 0; i < ref.size(); i++) {
+            out.writeUTF(ref.getName(i));
+            out.writeInt(ref.getMultiplicity(i));
+        }
+
+        out.writeBoolean(value != null);
+        if (value != null) {
+            // Answers can be longer than writeUTF allows
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * @param remaining the number of bytes left in the journal. Lengths are checked against it so
+     *                  that a corrupt record can't make us allocate more than the journal holds.
+     */
+    private static JournaledAnswer readAnswer(DataInputStream in, long remaining) throws IOException {
+        int size = in.readInt();
+        checkLength(size, remaining);
+        String[] names = new String[size];
+        int[] multiplicities = new int[size];
+        for (int i = 0; i < size; i++) {
+            names[i] = in.readUTF();
+            multiplicities[i] = in.readInt();
+        }
+
+        String value = null;
+        if (in.readBoolean()) {
+            int length = in.readInt();
+            checkLength(length, remaining);
+            byte[] bytes = new byte[length];
+            in.readFully(bytes);
+            value = new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        return new JournaledAnswer(names, multiplicities, value);
+    }
+
+    private static void checkLength(int length, long remaining) throws IOException {
+        if (length < 0 || length > remaining) {
+            throw new IOException("Invalid length in savepoint journal: " + length);
+        }
+    }
+
+    private static String getFingerprint(File file) {
+        return file.length() + ":" + file.lastModified();
+    }
+
+    private static class JournaledAnswer {
+
+        private final String[] names;
+        private final int[] multiplicities;
+        @Nullable
+        private final String value;
+
+        JournaledAnswer(String[] names, int[] multiplicities, @Nullable String value) {
+            this.names = names;
+            this.multiplicities = multiplicities;
+            this.value = value;
+        }
+
+        @Nullable
+        TreeElement resolve(TreeElement root) {
+            if (names.length == 0 || !root.getName().equals(names[0])) {
+                return null;
+            }
+
+            TreeElement element = root;
+            for (int i = 1; i < names.length && element != null; i++) {
+                element = element.getChild(names[i], multiplicities[i]);
+            }
+
+            return element;
+        }
+    }
+}
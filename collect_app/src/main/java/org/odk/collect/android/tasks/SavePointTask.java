@@ -60,15 +60,23 @@ public class SavePointTask extends AsyncTask<Void, Void, String> {
             try {
                 FormController formController = Collect.getInstance().getFormController();
                 File temp = SaveFormToDisk.getSavepointFile(formController.getInstanceFile().getName());
-                ByteArrayPayload payload = formController.getFilledInFormXml();
 
-                if (priority < lastPriorityUsed) {
-                    Timber.w("Savepoint thread (p=%d) was cancelled (b) because another one is waiting (p=%d)", priority, lastPriorityUsed);
-                    return null;
+                // Most of the time only a few answers have changed since the last savepoint
+                SavePointJournal journal = SavePointJournal.get(formController.getFormDef(), temp);
+                if (!journal.appendChangedAnswers()) {
+                    ByteArrayPayload payload = formController.getFilledInFormXml();
+
+                    if (priority < lastPriorityUsed) {
+                        Timber.w("Savepoint thread (p=%d) was cancelled (b) because another one is waiting (p=%d)", priority, lastPriorityUsed);
+                        return null;
+                    }
+
+                    // write out xml
+                    SaveFormToDisk.writeFile(payload, temp.getAbsolutePath());
+                    journal.fullSavepointWritten();
                 }
 
-                // write out xml
-                SaveFormToDisk.writeFile(payload, temp.getAbsolutePath());
+                formController.getAuditEventLogger().checkpoint();
 
                 long end = System.currentTimeMillis();
                 Timber.i("Savepoint ms: %s to %s", Long.toString(end - start), temp.toString());
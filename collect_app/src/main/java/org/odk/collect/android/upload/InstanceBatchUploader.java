@@ -0,0 +1,117 @@
+package org.odk.collect.android.upload;
+
+import androidx.annotation.Nullable;
+
+import org.odk.collect.forms.instances.Instance;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import timber.log.Timber;
+
+/**
+ * Uploads a batch of instances with an {@link InstanceUploader}, several of them at a time. The
+ * uploader (and the HTTP client behind it) is shared by all the uploads so that they reuse the
+ * same connections, credentials and endpoint checks. Results are still reported in the order the
+ * instances were passed in, on the calling thread.
+ */
+public class InstanceBatchUploader {
+
+    public static final int DEFAULT_MAX_CONCURRENT_UPLOADS = 4;
+
+    private final InstanceUploader uploader;
+    private final int maxConcurrentUploads;
+
+    public InstanceBatchUploader(InstanceUploader uploader) {
+        this(uploader, DEFAULT_MAX_CONCURRENT_UPLOADS);
+    }
+
+    public InstanceBatchUploader(InstanceUploader uploader, int maxConcurrentUploads) {
+        this.uploader = uploader;
+        this.maxConcurrentUploads = maxConcurrentUploads;
+    }
+
+    /**
+     * @param destinationUrls returns the URL each instance should be submitted to
+     * @param isCancelled     checked before each upload starts. Uploads already in progress are
+     *                        allowed to finish so that their status is recorded correctly.
+     * @return false if the batch was cancelled before all the instances were uploaded
+     */
+    public boolean upload(List<Instance> instances, Function<Instance, String> destinationUrls,
+                          @Nullable Supplier<Boolean> isCancelled, Listener listener) {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(maxConcurrentUploads, instances.size())));
+        uploader.startBatchingStatusUpdates();
+
+        try {
+            List<Future<Result>> results = new ArrayList<>();
+            for (Instance instance : instances) {
+                results.add(executor.submit(() -> {
+                    if (isCancelled != null && isCancelled.get()) {
+                        return null;
+                    }
+
+                    try {
+                        return new Result(uploader.uploadOneSubmission(instance, destinationUrls.apply(instance)), null);
+                    } catch (UploadException e) {
+                        return new Result(null, e);
+                    }
+                }));
+            }
+
+            boolean completed = true;
+            for (int i = 0; i < instances.size(); i++) {
+                Result result = getResult(results.get(i));
+                if (result == null) {
+                    completed = false;
+                } else if (result.exception != null) {
+                    listener.onFailure(instances.get(i), result.exception);
+                } else {
+                    listener.onSuccess(instances.get(i), result.customMessage);
+                }
+            }
+
+            return completed;
+        } finally {
+            executor.shutdownNow();
+            uploader.finishBatchingStatusUpdates();
+        }
+    }
+
+    @Nullable
+    private static Result getResult(Future<Result> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            // Anything other than an UploadException is a bug in the uploader so surface it
+            Timber.e(e.getCause());
+            return new Result(null, new UploadException(e.getCause()));
+        }
+    }
+
+    public interface Listener {
+
+        void onSuccess(Instance instance, @Nullable String customMessage);
+
+        void onFailure(Instance instance, UploadException exception);
+    }
+
+    private static class Result {
+
+        private final String customMessage;
+        private final UploadException exception;
+
+        Result(String customMessage, UploadException exception) {
+            this.customMessage = customMessage;
+            this.exception = exception;
+        }
+    }
+}
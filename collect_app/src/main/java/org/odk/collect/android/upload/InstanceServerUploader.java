@@ -17,6 +17,7 @@ package org.odk.collect.android.upload;
 import android.net.Uri;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 
 import org.odk.collect.android.R;
 import org.odk.collect.android.application.Collect;
@@ -38,7 +39,9 @@ import java.net.URI;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 import javax.net.ssl.HttpsURLConnection;
@@ -51,8 +54,12 @@ public class InstanceServerUploader extends InstanceUploader {
     private final OpenRosaHttpInterface httpInterface;
     private final WebCredentialsUtils webCredentialsUtils;
     private final Map<Uri, Uri> uriRemap;
+    private final Map<Uri, Endpoint> probedEndpoints = new HashMap<>();
     private final Settings generalSettings;
 
+    @Nullable
+    private ProgressListener progressListener;
+
     public InstanceServerUploader(OpenRosaHttpInterface httpInterface,
                                   WebCredentialsUtils webCredentialsUtils,
                                   Map<Uri, Uri> uriRemap, Settings generalSettings) {
@@ -62,6 +69,14 @@ public class InstanceServerUploader extends InstanceUploader {
         this.generalSettings = generalSettings;
     }
 
+    /**
+     * @param progressListener notified as each instance's files are sent. It's called on the
+     *                         thread the instance is being uploaded on.
+     */
+    public void setProgressListener(@Nullable ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
     /**
      * Uploads all files associated with an instance to the specified URL. Writes fail/success
      * status to database.
@@ -70,9 +85,100 @@ public class InstanceServerUploader extends InstanceUploader {
      */
     @Override
     public String uploadOneSubmission(Instance instance, String urlString) throws UploadException {
-        Uri submissionUri = Uri.parse(urlString);
+        Endpoint endpoint = getEndpoint(instance, Uri.parse(urlString), urlString);
+        Uri submissionUri = endpoint.submissionUri;
+        long contentLength = endpoint.contentLength;
+        boolean compressTextFiles = endpoint.acceptsGzip;
+
+        // When encrypting submissions, there is a failure window that may mark the submission as
+        // complete but leave the file-to-be-uploaded with the name "submission.xml" and the plaintext
+        // submission files on disk.  In this case, upload the submission.xml and all the files in
+        // the directory. This means the plaintext files and the encrypted files will be sent to the
+        // server and the server will have to figure out what to do with them.
+        File instanceFile = new File(instance.getInstanceFilePath());
+        File submissionFile = new File(instanceFile.getParentFile(), "submission.xml");
+        if (submissionFile.exists()) {
+            Timber.w("submission.xml will be uploaded instead of %s", instanceFile.getAbsolutePath());
+        } else {
+            submissionFile = instanceFile;
+        }
+
+        if (!instanceFile.exists() && !submissionFile.exists()) {
+            submissionComplete(instance, false);
+            throw new UploadException(FAIL + "instance XML file does not exist!");
+        }
+
+        List<File> files = getFilesInParentDirectory(instanceFile, submissionFile);
+
+        // TODO: when can this happen? It used to cause the whole submission attempt to fail. Should it?
+        if (files == null) {
+            throw new UploadException("Error reading files to upload");
+        }
+
+        HttpPostResult postResult;
+        ResponseMessageParser messageParser = new ResponseMessageParser();
+
+        try {
+            URI uri = URI.create(submissionUri.toString());
+
+            postResult = httpInterface.uploadSubmissionAndFiles(submissionFile, files, uri,
+                    webCredentialsUtils.getCredentials(uri), contentLength, compressTextFiles,
+                    progressListener != null ? (bytesSent, totalBytes) -> progressListener.onProgress(instance, bytesSent) : null);
+
+            int responseCode = postResult.getResponseCode();
+            messageParser.setMessageResponse(postResult.getHttpResponse());
+
+            if (responseCode != HttpsURLConnection.HTTP_CREATED && responseCode != HttpsURLConnection.HTTP_ACCEPTED) {
+                UploadException exception;
+                if (responseCode == HttpsURLConnection.HTTP_OK) {
+                    exception = new UploadException(FAIL + "Network login failure? Again?");
+                } else if (responseCode == HttpsURLConnection.HTTP_UNAUTHORIZED) {
+                    exception = new UploadException(FAIL + postResult.getReasonPhrase()
+                            + " (" + responseCode + ") at " + urlString);
+                } else {
+                    if (messageParser.isValid()) {
+                        exception = new UploadException(FAIL + messageParser.getMessageResponse());
+                    } else if (responseCode == HttpsURLConnection.HTTP_BAD_REQUEST) {
+                        Timber.w(FAIL + postResult.getReasonPhrase() + " (" + responseCode + ") at " + urlString);
+                        exception = new UploadException("Failed to upload. Please make sure the form is configured to accept submissions on the server");
+                    } else {
+                        exception = new UploadException(FAIL + postResult.getReasonPhrase() + " (" + responseCode + ") at " + urlString);
+                    }
+
+                }
+                submissionComplete(instance, false);
+                throw exception;
+            }
+
+        } catch (Exception e) {
+            submissionComplete(instance, false);
+            throw new UploadException(FAIL + "Generic Exception: "
+                    + (e.getMessage() != null ? e.getMessage() : e.toString()));
+        }
+
+        submissionComplete(instance, true);
+
+        if (messageParser.isValid()) {
+            return messageParser.getMessageResponse();
+        }
+
+        return null;
+    }
+
+    /**
+     * Issues a HEAD request to find out the URL and maximum request size to use for submissions to
+     * an endpoint. The result is remembered so that every other submission to the same endpoint
+     * during this session (including ones being uploaded concurrently) skips the request.
+     */
+    private synchronized Endpoint getEndpoint(Instance instance, Uri submissionUri, String urlString) throws UploadException {
+        Endpoint probedEndpoint = probedEndpoints.get(submissionUri);
+        if (probedEndpoint != null) {
+            return probedEndpoint;
+        }
 
+        Uri originalSubmissionUri = submissionUri;
         long contentLength = 10000000L;
+        boolean acceptsGzip = false;
 
         // We already issued a head request and got a response, so we know it was an
         // OpenRosa-compliant server. We also know the proper URL to send the submission to and
@@ -111,6 +217,11 @@ public class InstanceServerUploader extends InstanceUploader {
                     }
                 }
 
+                if (responseHeaders.containsHeader(OpenRosaConstants.ACCEPT_ENCODING_HEADER)) {
+                    String acceptEncoding = responseHeaders.getAnyValue(OpenRosaConstants.ACCEPT_ENCODING_HEADER);
+                    acceptsGzip = acceptEncoding != null && acceptEncoding.toLowerCase(Locale.ENGLISH).contains("gzip");
+                }
+
             } catch (Exception e) {
                 submissionComplete(instance, false);
                 throw new UploadException(FAIL
@@ -160,78 +271,9 @@ public class InstanceServerUploader extends InstanceUploader {
             }
         }
 
-        // When encrypting submissions, there is a failure window that may mark the submission as
-        // complete but leave the file-to-be-uploaded with the name "submission.xml" and the plaintext
-        // submission files on disk.  In this case, upload the submission.xml and all the files in
-        // the directory. This means the plaintext files and the encrypted files will be sent to the
-        // server and the server will have to figure out what to do with them.
-        File instanceFile = new File(instance.getInstanceFilePath());
-        File submissionFile = new File(instanceFile.getParentFile(), "submission.xml");
-        if (submissionFile.exists()) {
-            Timber.w("submission.xml will be uploaded instead of %s", instanceFile.getAbsolutePath());
-        } else {
-            submissionFile = instanceFile;
-        }
-
-        if (!instanceFile.exists() && !submissionFile.exists()) {
-            submissionComplete(instance, false);
-            throw new UploadException(FAIL + "instance XML file does not exist!");
-        }
-
-        List<File> files = getFilesInParentDirectory(instanceFile, submissionFile);
-
-        // TODO: when can this happen? It used to cause the whole submission attempt to fail. Should it?
-        if (files == null) {
-            throw new UploadException("Error reading files to upload");
-        }
-
-        HttpPostResult postResult;
-        ResponseMessageParser messageParser = new ResponseMessageParser();
-
-        try {
-            URI uri = URI.create(submissionUri.toString());
-
-            postResult = httpInterface.uploadSubmissionAndFiles(submissionFile, files, uri,
-                    webCredentialsUtils.getCredentials(uri), contentLength);
-
-            int responseCode = postResult.getResponseCode();
-            messageParser.setMessageResponse(postResult.getHttpResponse());
-
-            if (responseCode != HttpsURLConnection.HTTP_CREATED && responseCode != HttpsURLConnection.HTTP_ACCEPTED) {
-                UploadException exception;
-                if (responseCode == HttpsURLConnection.HTTP_OK) {
-                    exception = new UploadException(FAIL + "Network login failure? Again?");
-                } else if (responseCode == HttpsURLConnection.HTTP_UNAUTHORIZED) {
-                    exception = new UploadException(FAIL + postResult.getReasonPhrase()
-                            + " (" + responseCode + ") at " + urlString);
-                } else {
-                    if (messageParser.isValid()) {
-                        exception = new UploadException(FAIL + messageParser.getMessageResponse());
-                    } else if (responseCode == HttpsURLConnection.HTTP_BAD_REQUEST) {
-                        Timber.w(FAIL + postResult.getReasonPhrase() + " (" + responseCode + ") at " + urlString);
-                        exception = new UploadException("Failed to upload. Please make sure the form is configured to accept submissions on the server");
-                    } else {
-                        exception = new UploadException(FAIL + postResult.getReasonPhrase() + " (" + responseCode + ") at " + urlString);
-                    }
-
-                }
-                submissionComplete(instance, false);
-                throw exception;
-            }
-
-        } catch (Exception e) {
-            submissionComplete(instance, false);
-            throw new UploadException(FAIL + "Generic Exception: "
-                    + (e.getMessage() != null ? e.getMessage() : e.toString()));
-        }
-
-        submissionComplete(instance, true);
-
-        if (messageParser.isValid()) {
-            return messageParser.getMessageResponse();
-        }
-
-        return null;
+        Endpoint endpoint = new Endpoint(submissionUri, contentLength, acceptsGzip);
+        probedEndpoints.put(originalSubmissionUri, endpoint);
+        return endpoint;
     }
 
     private List<File> getFilesInParentDirectory(File instanceFile, File submissionFile) {
@@ -308,4 +350,25 @@ public class InstanceServerUploader extends InstanceUploader {
 
         return serverBase + submissionPath;
     }
+
+    private static class Endpoint {
+
+        private final Uri submissionUri;
+        private final long contentLength;
+        private final boolean acceptsGzip;
+
+        Endpoint(Uri submissionUri, long contentLength, boolean acceptsGzip) {
+            this.submissionUri = submissionUri;
+            this.contentLength = contentLength;
+            this.acceptsGzip = acceptsGzip;
+        }
+    }
+
+    public interface ProgressListener {
+
+        /**
+         * @param bytesSent the number of bytes of the instance's files sent so far
+         */
+        void onProgress(Instance instance, long bytesSent);
+    }
 }
@@ -22,7 +22,6 @@ import org.odk.collect.android.formmanagement.InstancesAppState;
 import org.odk.collect.android.injection.DaggerUtils;
 import org.odk.collect.android.utilities.InstancesRepositoryProvider;
 import org.odk.collect.forms.instances.Instance;
-import org.odk.collect.forms.instances.InstancesRepository;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -43,6 +42,11 @@ public abstract class InstanceUploader {
 
     public static final String FAIL = "Error: ";
 
+    private static final int STATUS_UPDATE_BATCH_SIZE = 25;
+
+    private int unrefreshedStatusUpdates;
+    private boolean batchingStatusUpdates;
+
     /**
      * Uploads the specified instance to the specified destination URL. It may return a custom
      * success message on completion or null if none is available. Errors result in an UploadException.
@@ -68,21 +72,44 @@ public abstract class InstanceUploader {
         return instances;
     }
 
-    public void submissionComplete(Instance instance, boolean successful) {
-        InstancesRepository instancesRepository = instancesRepositoryProvider.get();
-
-        if (successful) {
-            instancesRepository.save(new Instance.Builder(instance)
-                    .status(Instance.STATUS_SUBMITTED)
-                    .build()
-            );
-        } else {
-            instancesRepository.save(new Instance.Builder(instance)
-                    .status(Instance.STATUS_SUBMISSION_FAILED)
-                    .build()
-            );
+    /**
+     * While batching, the statuses passed to {@link #submissionComplete(Instance, boolean)} are
+     * still written straight away (so a submission the server has accepted is never sent again)
+     * but the app's instance counts are only refreshed once per {@link #STATUS_UPDATE_BATCH_SIZE}
+     * statuses rather than once per instance.
+     */
+    public synchronized void startBatchingStatusUpdates() {
+        batchingStatusUpdates = true;
+    }
+
+    /**
+     * Refreshes the app's instance counts for any statuses written since the last refresh and goes
+     * back to refreshing them for each status.
+     */
+    public synchronized void finishBatchingStatusUpdates() {
+        refreshInstancesAppState();
+        batchingStatusUpdates = false;
+    }
+
+    public synchronized void submissionComplete(Instance instance, boolean successful) {
+        Instance updatedInstance = new Instance.Builder(instance)
+                .status(successful ? Instance.STATUS_SUBMITTED : Instance.STATUS_SUBMISSION_FAILED)
+                .build();
+
+        instancesRepositoryProvider.get().save(updatedInstance);
+        unrefreshedStatusUpdates++;
+
+        if (!batchingStatusUpdates || unrefreshedStatusUpdates >= STATUS_UPDATE_BATCH_SIZE) {
+            refreshInstancesAppState();
+        }
+    }
+
+    private void refreshInstancesAppState() {
+        if (unrefreshedStatusUpdates == 0) {
+            return;
         }
 
+        unrefreshedStatusUpdates = 0;
         instancesAppState.update();
     }
 }
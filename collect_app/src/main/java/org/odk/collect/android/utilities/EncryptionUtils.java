@@ -34,15 +34,14 @@ import org.odk.collect.forms.Form;
 import org.odk.collect.forms.instances.Instance;
 import org.odk.collect.shared.strings.Md5;
 
-import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
-import java.io.RandomAccessFile;
 import java.io.UnsupportedEncodingException;
+import java.security.GeneralSecurityException;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.KeyFactory;
@@ -55,10 +54,13 @@ import java.security.spec.InvalidKeySpecException;
 import java.security.spec.X509EncodedKeySpec;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
-import javax.crypto.CipherOutputStream;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
 import javax.crypto.spec.IvParameterSpec;
@@ -100,6 +102,8 @@ public class EncryptionUtils {
             "base64EncryptedElementSignature";
     private static final String NEW_LINE = "\n";
     private static final String ENCRYPTION_PROVIDER = "BC";
+    private static final int ENCRYPTION_BUFFER_SIZE = 256 * 1024;
+    private static final int MAX_ENCRYPTION_THREADS = Math.min(4, Runtime.getRuntime().availableProcessors());
 
     private EncryptionUtils() {
     }
@@ -176,8 +180,7 @@ public class EncryptionUtils {
             elementSignatureSource.append(value).append('\n');
         }
 
-        public void appendFileSignatureSource(File file) {
-            String md5Hash = Md5.getMd5Hash(file);
+        public void appendFileSignatureSource(File file, String md5Hash) {
             appendElementSignatureSource(file.getName() + "::" + md5Hash);
         }
 
@@ -350,6 +353,87 @@ public class EncryptionUtils {
 
     private static void encryptFile(File file, EncryptedFormInformation formInfo)
             throws IOException, EncryptionException {
+        String md5Hash = encryptFile(file, getCipher(file, formInfo));
+
+        // add elementSignatureSource for this file...
+        formInfo.appendFileSignatureSource(file, md5Hash);
+    }
+
+    /**
+     * Encrypts the given files on a bounded pool of worker threads. Ciphers are created and
+     * signatures are appended in the order of {@code files} so the result is identical to
+     * encrypting the files one after another.
+     */
+    private static void encryptFiles(List<File> files, EncryptedFormInformation formInfo)
+            throws IOException, EncryptionException {
+        // each cipher advances the shared iv so they have to be created in file order
+        List<Cipher> ciphers = new ArrayList<>();
+        for (File file : files) {
+            ciphers.add(getCipher(file, formInfo));
+        }
+
+        List<String> md5Hashes = new ArrayList<>();
+        int threadCount = Math.min(files.size(), MAX_ENCRYPTION_THREADS);
+        if (threadCount <= 1) {
+            for (int i = 0; i < files.size(); i++) {
+                md5Hashes.add(encryptFile(files.get(i), ciphers.get(i)));
+            }
+        } else {
+            ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+            try {
+                List<Future<String>> futures = new ArrayList<>();
+                for (int i = 0; i < files.size(); i++) {
+                    File file = files.get(i);
+                    Cipher cipher = ciphers.get(i);
+                    futures.add(executor.submit(() -> encryptFile(file, cipher)));
+                }
+
+                for (Future<String> future : futures) {
+                    md5Hashes.add(getEncryptionResult(future));
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        // add elementSignatureSource for each file in the same order as the manifest...
+        for (int i = 0; i < files.size(); i++) {
+            formInfo.appendFileSignatureSource(files.get(i), md5Hashes.get(i));
+        }
+    }
+
+    private static String getEncryptionResult(Future<String> future)
+            throws IOException, EncryptionException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EncryptionException("Interrupted while encrypting submission files", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof EncryptionException) {
+                throw (EncryptionException) cause;
+            } else {
+                throw new EncryptionException("Error encrypting submission files", cause);
+            }
+        }
+    }
+
+    private static Cipher getCipher(File file, EncryptedFormInformation formInfo)
+            throws EncryptionException {
+        try {
+            return formInfo.getCipher();
+        } catch (GeneralSecurityException e) {
+            String msg = "Error creating cipher for: " + file.getName();
+            Timber.e(e, "%s due to %s ", msg, e.getMessage());
+            throw new EncryptionException(msg, e);
+        }
+    }
+
+    private static String encryptFile(File file, Cipher c)
+            throws IOException, EncryptionException {
         File encryptedFile = new File(file.getParentFile(), file.getName()
                 + ".enc");
 
@@ -358,43 +442,44 @@ public class EncryptionUtils {
                     + ". Perhaps the file is locked?");
         }
 
-        // add elementSignatureSource for this file...
-        formInfo.appendFileSignatureSource(file);
-
-        RandomAccessFile randomAccessFile = null;
-        CipherOutputStream cipherOutputStream = null;
         try {
-            Cipher c = formInfo.getCipher();
-
-            randomAccessFile = new RandomAccessFile(encryptedFile, "rws");
-            ByteArrayOutputStream encryptedData = new ByteArrayOutputStream();
-            cipherOutputStream = new CipherOutputStream(encryptedData, c);
-            InputStream fin = new FileInputStream(file);
-            byte[] buffer = new byte[2048];
-            int len = fin.read(buffer);
-            while (len != -1) {
-                cipherOutputStream.write(buffer, 0, len);
-                len = fin.read(buffer);
-            }
-            fin.close();
-            cipherOutputStream.flush();
-            cipherOutputStream.close();
-
-            randomAccessFile.write(encryptedData.toByteArray());
-
+            String md5Hash = encryptFile(file, encryptedFile, c);
             Timber.i("Encrpyted:%s -> %s", file.getName(), encryptedFile.getName());
+            return md5Hash;
         } catch (Exception e) {
             String msg = "Error encrypting: " + file.getName() + " -> "
                     + encryptedFile.getName();
             Timber.e(e, "%s due to %s ", msg, e.getMessage());
             throw new EncryptionException(msg, e);
-        } finally {
-            IOUtils.closeQuietly(cipherOutputStream);
+        }
+    }
 
-            if (randomAccessFile != null) {
-                randomAccessFile.close();
+    /**
+     * Streams {@code file} through the cipher straight into {@code encryptedFile} and returns the
+     * md5 hash of the plaintext, computed in the same pass. The encrypted file is synced to disk
+     * once, after the final block has been written.
+     */
+    private static String encryptFile(File file, File encryptedFile, Cipher c)
+            throws IOException, GeneralSecurityException {
+        MessageDigest md = MessageDigest.getInstance("MD5");
+        byte[] buffer = new byte[ENCRYPTION_BUFFER_SIZE];
+        byte[] encryptedBuffer = new byte[c.getOutputSize(ENCRYPTION_BUFFER_SIZE)];
+
+        try (InputStream fin = new FileInputStream(file);
+             FileOutputStream fout = new FileOutputStream(encryptedFile)) {
+            int len = fin.read(buffer);
+            while (len != -1) {
+                md.update(buffer, 0, len);
+                int encryptedLen = c.update(buffer, 0, len, encryptedBuffer);
+                fout.write(encryptedBuffer, 0, encryptedLen);
+                len = fin.read(buffer);
             }
+            int encryptedLen = c.doFinal(encryptedBuffer, 0);
+            fout.write(encryptedBuffer, 0, encryptedLen);
+            fout.getChannel().force(true);
         }
+
+        return Md5.toHexString(md.digest());
     }
 
     public static boolean deletePlaintextFiles(File instanceXml, @Nullable File lastSaved) {
@@ -460,9 +545,7 @@ public class EncryptionUtils {
             }
         }
         // encrypt here...
-        for (File f : filesToProcess) {
-            encryptFile(f, formInfo);
-        }
+        encryptFiles(filesToProcess, formInfo);
 
         // encrypt the submission.xml as the last file...
         encryptFile(submissionXml, formInfo);
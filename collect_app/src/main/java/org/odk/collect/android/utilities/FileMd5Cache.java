@@ -0,0 +1,216 @@
+package org.odk.collect.android.utilities;
+
+import androidx.annotation.Nullable;
+
+import org.odk.collect.android.storage.StoragePathProvider;
+import org.odk.collect.android.storage.StorageSubdirectory;
+import org.odk.collect.shared.strings.Md5;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import timber.log.Timber;
+
+/**
+ * Md5 hashes of files persisted in an index keyed by path. An entry is only reused if the size and
+ * last modified time of the file still match the ones recorded when it was hashed, otherwise the
+ * file is hashed again. This lets callers that repeatedly need the hash of large files that rarely
+ * change (forms, itemsets.csv, external data sets) avoid reading them in full every time.
+ * <p>
+ * Indexes are kept in memory once they've been read. Changes to them are written back once per
+ * group of lookups rather than once per file.
+ */
+public final class FileMd5Cache {
+
+    private static final String INDEX_FILE_NAME = ".md5-index";
+    private static final Object LOCK = new Object();
+    private static final Object WRITE_LOCK = new Object();
+
+    // Indexes that have been read keyed by index file. Guarded by LOCK.
+    private static final Map<File, Properties> INDEXES = new HashMap<>();
+    // Indexes with changes that haven't been written yet. Guarded by LOCK.
+    private static final Set<File> DIRTY_INDEXES = new HashSet<>();
+    // Indexes with a write queued on INDEX_WRITER. Guarded by LOCK.
+    private static final Set<File> SCHEDULED_WRITES = new HashSet<>();
+    private static final Executor INDEX_WRITER = Executors.newSingleThreadExecutor();
+
+    private FileMd5Cache() {
+        // Private constructor
+    }
+
+    /**
+     * @return the md5 hash of the file (in the same format as {@link Md5#getMd5Hash(File)}), or
+     * null if the file can't be read
+     */
+    @Nullable
+    public static String getMd5Hash(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+
+        File indexFile = getIndexFile();
+        Map<File, String> hashes = lookUp(indexFile, Collections.singletonList(file));
+
+        // Lookups made while a write is pending are written along with it
+        scheduleWrite(indexFile);
+        return hashes.get(file);
+    }
+
+    /**
+     * Hashes a group of files against the index in {@code indexFile}, which is only written once
+     * however many files there are. Callers that look at the same set of files together (like the
+     * media of a form) can keep them in their own index this way.
+     *
+     * @return the md5 hash of each of the files that could be read
+     */
+    public static Map<File, String> getMd5Hashes(File indexFile, Collection<File> files) {
+        Map<File, String> hashes = lookUp(indexFile, files);
+        writeIndex(indexFile);
+        return hashes;
+    }
+
+    private static Map<File, String> lookUp(File indexFile, Collection<File> files) {
+        Map<File, String> hashes = new HashMap<>();
+        Map<File, String> staleFingerprints = new HashMap<>();
+
+        synchronized (LOCK) {
+            Properties index = getIndex(indexFile);
+            for (File file : files) {
+                if (!file.exists()) {
+                    continue;
+                }
+
+                String fingerprint = getFingerprint(file);
+                String entry = index.getProperty(file.getAbsolutePath());
+                if (entry != null && entry.startsWith(fingerprint)) {
+                    hashes.put(file, entry.substring(fingerprint.length()));
+                } else {
+                    staleFingerprints.put(file, fingerprint);
+                }
+            }
+        }
+
+        if (staleFingerprints.isEmpty()) {
+            return hashes;
+        }
+
+        Properties newEntries = new Properties();
+        for (Map.Entry<File, String> stale : staleFingerprints.entrySet()) {
+            String md5Hash = Md5.getMd5Hash(stale.getKey());
+            if (md5Hash != null) {
+                hashes.put(stale.getKey(), md5Hash);
+                newEntries.setProperty(stale.getKey().getAbsolutePath(), stale.getValue() + md5Hash);
+            }
+        }
+
+        if (!newEntries.isEmpty()) {
+            synchronized (LOCK) {
+                getIndex(indexFile).putAll(newEntries);
+                DIRTY_INDEXES.add(indexFile);
+            }
+        }
+
+        return hashes;
+    }
+
+    private static String getFingerprint(File file) {
+        return file.length() + ":" + file.lastModified() + ":";
+    }
+
+    private static File getIndexFile() {
+        return new File(new StoragePathProvider().getOdkDirPath(StorageSubdirectory.CACHE) + File.separator + INDEX_FILE_NAME);
+    }
+
+    /**
+     * Reads an index the first time it's needed and keeps it in memory from then on. Entries for
+     * files that no longer exist are dropped at that point so the index doesn't grow forever.
+     */
+    private static Properties getIndex(File indexFile) {
+        Properties index = INDEXES.get(indexFile);
+        if (index != null) {
+            return index;
+        }
+
+        index = readIndex(indexFile);
+        for (String path : index.stringPropertyNames()) {
+            if (!new File(path).exists()) {
+                index.remove(path);
+                DIRTY_INDEXES.add(indexFile);
+            }
+        }
+
+        INDEXES.put(indexFile, index);
+        return index;
+    }
+
+    private static Properties readIndex(File indexFile) {
+        Properties index = new Properties();
+        if (indexFile.exists()) {
+            try (InputStream is = new FileInputStream(indexFile)) {
+                index.load(is);
+            } catch (IOException | IllegalArgumentException e) {
+                Timber.w(e, "Discarding unreadable md5 index %s", indexFile.getAbsolutePath());
+                index.clear();
+            }
+        }
+        return index;
+    }
+
+    private static void scheduleWrite(File indexFile) {
+        synchronized (LOCK) {
+            if (DIRTY_INDEXES.contains(indexFile) && SCHEDULED_WRITES.add(indexFile)) {
+                INDEX_WRITER.execute(() -> {
+                    synchronized (LOCK) {
+                        SCHEDULED_WRITES.remove(indexFile);
+                    }
+
+                    writeIndex(indexFile);
+                });
+            }
+        }
+    }
+
+    /**
+     * Writes the index if it has changed since it was last written.
+     */
+    private static void writeIndex(File indexFile) {
+        synchronized (WRITE_LOCK) {
+            Properties snapshot;
+            synchronized (LOCK) {
+                if (!DIRTY_INDEXES.remove(indexFile)) {
+                    return;
+                }
+
+                snapshot = (Properties) getIndex(indexFile).clone();
+            }
+
+            indexFile.getParentFile().mkdirs();
+            File tempIndexFile = new File(indexFile.getParentFile(), indexFile.getName() + ".tmp");
+            try (OutputStream os = new FileOutputStream(tempIndexFile)) {
+                snapshot.store(os, null);
+            } catch (IOException e) {
+                Timber.e(e, "Unable to write md5 index %s", indexFile.getAbsolutePath());
+                tempIndexFile.delete();
+                return;
+            }
+
+            if (!tempIndexFile.renameTo(indexFile)) {
+                Timber.e("Unable to rename %s to %s", tempIndexFile.getName(), indexFile.getName());
+                tempIndexFile.delete();
+            }
+        }
+    }
+}
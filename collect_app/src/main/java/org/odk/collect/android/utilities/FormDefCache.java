@@ -1,23 +1,51 @@
 package org.odk.collect.android.utilities;
 
+import android.content.ComponentCallbacks2;
+import android.util.LruCache;
+
 import org.javarosa.core.model.FormDef;
 import org.javarosa.core.util.externalizable.ExtUtil;
 import org.odk.collect.android.storage.StoragePathProvider;
 import org.odk.collect.android.storage.StorageSubdirectory;
-import org.odk.collect.shared.strings.Md5;
 
+import java.io.BufferedOutputStream;
 import java.io.DataInputStream;
 import java.io.DataOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 import timber.log.Timber;
 
 /** Methods for reading from and writing to the FormDef cache */
 public class FormDefCache {
 
+    // "ODKF"
+    private static final int MAGIC = 0x4F444B46;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_LENGTH = 16;
+
+    // A deserialized FormDef takes up several times as much heap as its cache file
+    private static final int TEMPLATE_EXPANSION_FACTOR = 8;
+    private static final int MAX_TEMPLATES_KB = (int) (Runtime.getRuntime().maxMemory() / 16 / 1024);
+
+    // Unused FormDefs of recently loaded forms keyed by cache file name. Each is handed out once
+    // and replaced in the background because a form session changes the FormDef it's given.
+    private static final LruCache<String, Template> TEMPLATES = new LruCache<String, Template>(MAX_TEMPLATES_KB) {
+        @Override
+        protected int sizeOf(String key, Template value) {
+            return value.sizeKb;
+        }
+    };
+    private static final Executor TEMPLATE_EXECUTOR = Executors.newSingleThreadExecutor();
+
     private FormDefCache() {
         // Private constructor
     }
@@ -40,9 +68,7 @@ public class FormDefCache {
 
         Exception caughtException = null;
         try {
-            DataOutputStream dos = new DataOutputStream(new FileOutputStream(tempCacheFile));
-            formDef.writeExternal(dos);
-            dos.close();
+            serializeFormDef(formDef, tempCacheFile);
         } catch (IOException exception) {
             caughtException = exception;
         }
@@ -62,6 +88,7 @@ public class FormDefCache {
                         tempCacheFile.getName(), cachedFormDefFile.getName());
                 Timber.i("Caching %s took %.3f seconds.", formDef.getTitle(),
                         (System.currentTimeMillis() - formSaveStart) / 1000F);
+                prepareTemplate(cachedFormDefFile);
             } else {
                 Timber.e("Unable to rename temporary file %s to cache file %s",
                         tempCacheFile.toString(), cachedFormDefFile.toString());
@@ -74,13 +101,22 @@ public class FormDefCache {
     }
 
     /**
-     * If a form is present in the cache, deserializes and returns it as as FormDef.
+     * If a form is present in the cache, deserializes and returns it as as FormDef. A fresh
+     * FormDef is returned every time. For recently used forms it has already been deserialized in
+     * the background so loading the same form again is almost instant.
      * @param formXml a File containing the XML version of the form
      * @return a FormDef, or null if the form is not present in the cache
      */
     public static FormDef readCache(File formXml) {
         final File cachedForm = getCacheFile(formXml);
         if (cachedForm.exists()) {
+            final Template template = TEMPLATES.remove(cachedForm.getName());
+            if (template != null) {
+                Timber.i("Loaded %s from memory.", formXml.getName());
+                prepareTemplate(cachedForm);
+                return template.formDef;
+            }
+
             Timber.i("Attempting to load %s from cached file: %s.", formXml.getName(), cachedForm.getName());
             final long start = System.currentTimeMillis();
 
@@ -88,6 +124,7 @@ public class FormDefCache {
                 final FormDef deserializedFormDef = deserializeFormDef(cachedForm);
                 if (deserializedFormDef != null) {
                     Timber.i("Loaded in %.3f seconds.", (System.currentTimeMillis() - start) / 1000F);
+                    prepareTemplate(cachedForm);
                     return deserializedFormDef;
                 }
             } catch (Exception e) {
@@ -100,6 +137,51 @@ public class FormDefCache {
         return null;
     }
 
+    /**
+     * @param formXml a File containing the XML version of the form
+     * @return true if the current version of the form has been cached
+     */
+    public static boolean isCached(File formXml) {
+        return getCacheFile(formXml).exists();
+    }
+
+    /**
+     * Releases the FormDefs kept in memory when the system is running low on memory.
+     * @param level the level passed to {@link android.content.ComponentCallbacks2#onTrimMemory(int)}
+     */
+    public static void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW
+                || level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_CRITICAL) {
+            TEMPLATES.evictAll();
+        } else if (level == ComponentCallbacks2.TRIM_MEMORY_RUNNING_MODERATE) {
+            TEMPLATES.trimToSize(TEMPLATES.maxSize() / 2);
+        }
+    }
+
+    /**
+     * Deserializes a spare copy of a cached form in the background so that it's ready the next
+     * time the form is loaded. Spare copies are kept within a share of the heap so forms that
+     * would take up too much of it aren't kept.
+     */
+    private static void prepareTemplate(File cachedForm) {
+        int sizeKb = (int) Math.max(1, Math.min(Integer.MAX_VALUE, cachedForm.length() * TEMPLATE_EXPANSION_FACTOR / 1024));
+        if (sizeKb > MAX_TEMPLATES_KB / 2) {
+            return;
+        }
+
+        TEMPLATE_EXECUTOR.execute(() -> {
+            try {
+                FormDef template = deserializeFormDef(cachedForm);
+                if (cachedForm.exists()) {
+                    TEMPLATES.put(cachedForm.getName(), new Template(template, sizeKb));
+                }
+            } catch (Exception e) {
+                Timber.w(e);
+            }
+        });
+    }
+
     /**
      * Builds and returns a File object for the cached version of a form.
      * @param formXml the File containing the XML form
@@ -107,16 +189,111 @@ public class FormDefCache {
      */
     private static File getCacheFile(File formXml) {
         return new File(new StoragePathProvider().getOdkDirPath(StorageSubdirectory.CACHE) + File.separator +
-                Md5.getMd5Hash(formXml) + ".formdef");
+                FileMd5Cache.getMd5Hash(formXml) + ".formdef");
+    }
+
+    /**
+     * Writes a header made of {@link #MAGIC}, {@link #FORMAT_VERSION} and the length of the
+     * serialized FormDef followed by the serialized FormDef itself.
+     */
+    private static void serializeFormDef(FormDef formDef, File file) throws IOException {
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            FileChannel channel = fos.getChannel();
+            channel.position(HEADER_LENGTH);
+
+            DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            formDef.writeExternal(dos);
+            dos.flush();
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH)
+                    .putInt(MAGIC)
+                    .putInt(FORMAT_VERSION)
+                    .putLong(channel.position() - HEADER_LENGTH);
+            header.flip();
+            channel.write(header, 0);
+        }
     }
 
     private static FormDef deserializeFormDef(File serializedFormDef) throws Exception {
+        try (FileInputStream fis = new FileInputStream(serializedFormDef)) {
+            FileChannel channel = fis.getChannel();
+
+            // The mapping stays valid after the channel is closed
+            return deserializeFormDef(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Deserializes the contents of a cache file. Files with a header are validated before the
+     * FormDef that follows is read. Files written before the header was introduced are read as
+     * they are.
+     */
+    private static FormDef deserializeFormDef(ByteBuffer buffer) throws Exception {
+        if (buffer.remaining() >= HEADER_LENGTH && buffer.getInt(0) == MAGIC) {
+            int formatVersion = buffer.getInt(4);
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("Unsupported cache format version " + formatVersion);
+            }
+
+            long length = buffer.getLong(8);
+            if (length != buffer.remaining() - HEADER_LENGTH) {
+                throw new IOException("Truncated cache file");
+            }
+
+            buffer.position(HEADER_LENGTH);
+        }
+
         FormDef fd;
-        try (DataInputStream dis = new DataInputStream(new FileInputStream(serializedFormDef))) {
+        try (DataInputStream dis = new DataInputStream(new ByteBufferInputStream(buffer))) {
             fd = new FormDef();
             fd.readExternal(dis, ExtUtil.defaultPrototypes());
         }
 
         return fd;
     }
+
+    private static class Template {
+
+        final FormDef formDef;
+        final int sizeKb;
+
+        Template(FormDef formDef, int sizeKb) {
+            this.formDef = formDef;
+            this.sizeKb = sizeKb;
+        }
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) {
+                return 0;
+            }
+
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
 }
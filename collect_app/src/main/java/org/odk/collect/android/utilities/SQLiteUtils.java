@@ -2,6 +2,7 @@ package org.odk.collect.android.utilities;
 
 import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
+import android.text.TextUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -65,6 +66,16 @@ public class SQLiteUtils {
             .end();
     }
 
+    /**
+     * Creates an index (named after the table and columns) if it doesn't already exist.
+     */
+    public static void createIndex(SQLiteDatabase db, String table, String... columns) {
+        db.execSQL("CREATE INDEX IF NOT EXISTS "
+                + CustomSQLiteQueryBuilder.quoteIdentifier(table + "_" + TextUtils.join("_", columns))
+                + " ON " + CustomSQLiteQueryBuilder.quoteIdentifier(table)
+                + " (" + TextUtils.join(", ", columns) + ");");
+    }
+
     public static void dropTable(SQLiteDatabase db, String table) {
         CustomSQLiteQueryExecutor.begin(db)
             .dropIfExists(table)
@@ -64,6 +64,26 @@ class FormUpdateAndInstanceSubmitSchedulerTest {
         verify(scheduler).cancelDeferred("match_exactly:myProject")
     }
 
+    @Test
+    fun `cancelUpdates cancels warm up for project`() {
+        val manager = FormUpdateAndInstanceSubmitScheduler(scheduler, settingsProvider, application)
+
+        manager.cancelUpdates("myProject")
+        verify(scheduler).cancelDeferred("warmUpForms:myProject")
+    }
+
+    @Test
+    fun `scheduleWarmUp passes project id`() {
+        val manager = FormUpdateAndInstanceSubmitScheduler(scheduler, settingsProvider, application)
+
+        manager.scheduleWarmUp("myProject")
+        verify(scheduler).idleDeferred(
+            eq("warmUpForms:myProject"),
+            any<WarmUpFormsTaskSpec>(),
+            eq(mapOf(WarmUpFormsTaskSpec.DATA_PROJECT_ID to "myProject"))
+        )
+    }
+
     @Test
     fun `scheduleUpdates passes project id when scheduling match exactly`() {
         val generalSettings = settingsProvider.getGeneralSettings("myProject")
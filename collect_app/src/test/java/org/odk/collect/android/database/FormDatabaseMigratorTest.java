@@ -13,10 +13,12 @@ import org.junit.runner.RunWith;
 import org.odk.collect.android.database.forms.FormDatabaseMigrator;
 import org.odk.collect.android.utilities.SQLiteUtils;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static java.util.Arrays.asList;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.is;
 import static org.odk.collect.android.database.DatabaseConstants.FORMS_TABLE_NAME;
 import static org.odk.collect.android.database.forms.DatabaseFormColumns.AUTO_DELETE;
@@ -45,11 +47,14 @@ public class FormDatabaseMigratorTest {
             SUBMISSION_URI, BASE64_RSA_PUBLIC_KEY, JRCACHE_FILE_PATH, AUTO_SEND, AUTO_DELETE,
             GEOMETRY_XPATH, DELETED_DATE);
 
+    public static final List<String> CURRENT_VERSION_INDEXES = asList("forms_jrFormId_jrVersion",
+            "forms_md5Hash", "forms_formFilePath", "forms_deleted_date");
+
     private SQLiteDatabase database;
 
     @Before
     public void setup() {
-        assertThat("Test expects different Forms DB version", DatabaseConstants.FORMS_DATABASE_VERSION, is(10));
+        assertThat("Test expects different Forms DB version", DatabaseConstants.FORMS_DATABASE_VERSION, is(11));
         database = SQLiteDatabase.create(null);
     }
 
@@ -58,6 +63,22 @@ public class FormDatabaseMigratorTest {
         database.close();
     }
 
+    @Test
+    public void onUpgrade_fromVersion10() {
+        createVersion10Database(database);
+        ContentValues contentValues = createVersion10Form();
+        database.insert(FORMS_TABLE_NAME, null, contentValues);
+
+        new FormDatabaseMigrator().onUpgrade(database, 10);
+
+        try (Cursor cursor = database.rawQuery("SELECT * FROM " + FORMS_TABLE_NAME + ";", new String[]{})) {
+            assertThat(cursor.getCount(), is(1));
+            assertThat(asList(cursor.getColumnNames()), is(CURRENT_VERSION_COLUMNS));
+        }
+
+        assertThat(getIndexNames(database), containsInAnyOrder(CURRENT_VERSION_INDEXES.toArray()));
+    }
+
     @Test
     public void onUpgrade_fromVersion9() {
         createVersion9Database(database);
@@ -170,6 +191,8 @@ public class FormDatabaseMigratorTest {
             assertThat(cursor.getCount(), is(0));
             assertThat(asList(cursor.getColumnNames()), is(CURRENT_VERSION_COLUMNS));
         }
+
+        assertThat(getIndexNames(database), containsInAnyOrder(CURRENT_VERSION_INDEXES.toArray()));
     }
 
     @Test
@@ -248,6 +271,13 @@ public class FormDatabaseMigratorTest {
         return contentValues;
     }
 
+    private ContentValues createVersion10Form() {
+        ContentValues contentValues = createVersion9Form();
+        contentValues.remove("deleted");
+        contentValues.put(DELETED_DATE, 1L);
+        return contentValues;
+    }
+
     private ContentValues createVersion9Form() {
         ContentValues contentValues = new ContentValues();
         contentValues.put(DISPLAY_NAME, "DisplayName");
@@ -330,4 +360,36 @@ public class FormDatabaseMigratorTest {
                 + GEOMETRY_XPATH + " text, "
                 + "deleted" + " boolean default(0));");
     }
+
+    private void createVersion10Database(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + FORMS_TABLE_NAME + " ("
+                + _ID + " integer primary key, "
+                + DISPLAY_NAME + " text not null, "
+                + DESCRIPTION + " text, "
+                + JR_FORM_ID + " text not null, "
+                + JR_VERSION + " text, "
+                + MD5_HASH + " text not null, "
+                + DATE + " integer not null, " // milliseconds
+                + FORM_MEDIA_PATH + " text not null, "
+                + FORM_FILE_PATH + " text not null, "
+                + LANGUAGE + " text, "
+                + SUBMISSION_URI + " text, "
+                + BASE64_RSA_PUBLIC_KEY + " text, "
+                + JRCACHE_FILE_PATH + " text not null, "
+                + AUTO_SEND + " text, "
+                + AUTO_DELETE + " text, "
+                + GEOMETRY_XPATH + " text, "
+                + DELETED_DATE + " integer);");
+    }
+
+    private static List<String> getIndexNames(SQLiteDatabase db) {
+        List<String> indexNames = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery("SELECT name FROM sqlite_master WHERE type = 'index' AND tbl_name = ? AND sql IS NOT NULL;", new String[]{FORMS_TABLE_NAME})) {
+            while (cursor.moveToNext()) {
+                indexNames.add(cursor.getString(0));
+            }
+        }
+
+        return indexNames;
+    }
 }
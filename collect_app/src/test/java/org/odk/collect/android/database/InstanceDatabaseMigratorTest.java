@@ -0,0 +1,191 @@
+package org.odk.collect.android.database;
+
+import android.content.ContentValues;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.odk.collect.android.database.instances.InstanceDatabaseMigrator;
+import org.odk.collect.android.utilities.SQLiteUtils;
+import org.odk.collect.forms.instances.Instance;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static android.provider.BaseColumns._ID;
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.is;
+import static org.odk.collect.android.database.DatabaseConstants.INSTANCES_TABLE_NAME;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.CAN_EDIT_WHEN_COMPLETE;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.DELETED_DATE;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.DISPLAY_NAME;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY_MAX_LATITUDE;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY_MAX_LONGITUDE;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY_MIN_LATITUDE;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY_MIN_LONGITUDE;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.GEOMETRY_TYPE;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.INSTANCE_FILE_PATH;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.JR_FORM_ID;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.JR_VERSION;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.LAST_STATUS_CHANGE_DATE;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.STATUS;
+import static org.odk.collect.android.database.instances.DatabaseInstanceColumns.SUBMISSION_URI;
+
+@RunWith(AndroidJUnit4.class)
+public class InstanceDatabaseMigratorTest {
+
+    public static final List<String> CURRENT_VERSION_COLUMNS = asList(_ID, DISPLAY_NAME, SUBMISSION_URI,
+            CAN_EDIT_WHEN_COMPLETE, INSTANCE_FILE_PATH, JR_FORM_ID, JR_VERSION, STATUS,
+            LAST_STATUS_CHANGE_DATE, DELETED_DATE, GEOMETRY, GEOMETRY_TYPE, GEOMETRY_MIN_LATITUDE,
+            GEOMETRY_MIN_LONGITUDE, GEOMETRY_MAX_LATITUDE, GEOMETRY_MAX_LONGITUDE);
+
+    public static final List<String> CURRENT_VERSION_INDEXES = asList("instances_jrFormId_jrVersion",
+            "instances_status", "instances_instanceFilePath", "instances_deletedDate",
+            "instances_jrFormId_geometryMaxLatitude_geometryMinLatitude_geometryMaxLongitude_geometryMinLongitude");
+
+    private SQLiteDatabase database;
+
+    @Before
+    public void setup() {
+        assertThat("Test expects different Instances DB version", DatabaseConstants.INSTANCES_DATABASE_VERSION, is(8));
+        database = SQLiteDatabase.create(null);
+    }
+
+    @After
+    public void teardown() {
+        database.close();
+    }
+
+    @Test
+    public void onUpgrade_fromVersion7_fillsInGeometryBounds() {
+        createVersion7Database(database);
+        database.insert(INSTANCES_TABLE_NAME, null, createVersion7Instance("{\"type\":\"Point\",\"coordinates\":[125.6,10.1]}"));
+        database.insert(INSTANCES_TABLE_NAME, null, createVersion7Instance(null));
+        database.insert(INSTANCES_TABLE_NAME, null, createVersion7Instance("not json"));
+
+        new InstanceDatabaseMigrator().onUpgrade(database, 7);
+
+        try (Cursor cursor = database.rawQuery("SELECT * FROM " + INSTANCES_TABLE_NAME + " ORDER BY " + _ID + ";", new String[]{})) {
+            assertThat(cursor.getCount(), is(3));
+            assertThat(asList(cursor.getColumnNames()), is(CURRENT_VERSION_COLUMNS));
+
+            cursor.moveToFirst();
+            assertThat(cursor.getDouble(cursor.getColumnIndex(GEOMETRY_MIN_LATITUDE)), is(10.1));
+            assertThat(cursor.getDouble(cursor.getColumnIndex(GEOMETRY_MIN_LONGITUDE)), is(125.6));
+            assertThat(cursor.getDouble(cursor.getColumnIndex(GEOMETRY_MAX_LATITUDE)), is(10.1));
+            assertThat(cursor.getDouble(cursor.getColumnIndex(GEOMETRY_MAX_LONGITUDE)), is(125.6));
+
+            cursor.moveToNext();
+            assertThat(cursor.isNull(cursor.getColumnIndex(GEOMETRY_MIN_LATITUDE)), is(true));
+
+            cursor.moveToNext();
+            assertThat(cursor.isNull(cursor.getColumnIndex(GEOMETRY_MIN_LATITUDE)), is(true));
+        }
+
+        assertThat(getIndexNames(database), containsInAnyOrder(CURRENT_VERSION_INDEXES.toArray()));
+    }
+
+    @Test
+    public void onUpgrade_fromVersion6_addsIndexes() {
+        createVersion6Database(database);
+        database.insert(INSTANCES_TABLE_NAME, null, createVersion7Instance("{\"type\":\"Point\",\"coordinates\":[125.6,10.1]}"));
+
+        new InstanceDatabaseMigrator().onUpgrade(database, 6);
+
+        try (Cursor cursor = database.rawQuery("SELECT * FROM " + INSTANCES_TABLE_NAME + ";", new String[]{})) {
+            assertThat(cursor.getCount(), is(1));
+            assertThat(asList(cursor.getColumnNames()), is(CURRENT_VERSION_COLUMNS));
+        }
+
+        assertThat(getIndexNames(database), containsInAnyOrder(CURRENT_VERSION_INDEXES.toArray()));
+    }
+
+    @Test
+    public void onCreate_createsCurrentVersion() {
+        new InstanceDatabaseMigrator().onCreate(database);
+
+        try (Cursor cursor = database.rawQuery("SELECT * FROM " + INSTANCES_TABLE_NAME + ";", new String[]{})) {
+            assertThat(asList(cursor.getColumnNames()), is(CURRENT_VERSION_COLUMNS));
+        }
+
+        assertThat(getIndexNames(database), containsInAnyOrder(CURRENT_VERSION_INDEXES.toArray()));
+    }
+
+    @Test
+    public void onDowngrade_fromVersionWithExtraColumn() {
+        InstanceDatabaseMigrator instanceDatabaseMigrator = new InstanceDatabaseMigrator();
+        instanceDatabaseMigrator.onCreate(database);
+        SQLiteUtils.addColumn(database, INSTANCES_TABLE_NAME, "new_column", "text");
+        ContentValues contentValues = createVersion7Instance("{\"type\":\"Point\",\"coordinates\":[125.6,10.1]}");
+        contentValues.put("new_column", "blah");
+        database.insert(INSTANCES_TABLE_NAME, null, contentValues);
+
+        instanceDatabaseMigrator.onDowngrade(database);
+
+        try (Cursor cursor = database.rawQuery("SELECT * FROM " + INSTANCES_TABLE_NAME + ";", new String[]{})) {
+            assertThat(cursor.getCount(), is(1));
+            assertThat(asList(cursor.getColumnNames()), is(CURRENT_VERSION_COLUMNS));
+
+            cursor.moveToFirst();
+            assertThat(cursor.getDouble(cursor.getColumnIndex(GEOMETRY_MIN_LATITUDE)), is(10.1));
+        }
+
+        assertThat(getIndexNames(database), containsInAnyOrder(CURRENT_VERSION_INDEXES.toArray()));
+    }
+
+    private void createVersion6Database(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE IF NOT EXISTS " + INSTANCES_TABLE_NAME + " ("
+                + _ID + " integer primary key, "
+                + DISPLAY_NAME + " text not null, "
+                + SUBMISSION_URI + " text, "
+                + CAN_EDIT_WHEN_COMPLETE + " text, "
+                + INSTANCE_FILE_PATH + " text not null, "
+                + JR_FORM_ID + " text not null, "
+                + JR_VERSION + " text, "
+                + STATUS + " text not null, "
+                + LAST_STATUS_CHANGE_DATE + " date not null, "
+                + DELETED_DATE + " date, "
+                + GEOMETRY + " text, "
+                + GEOMETRY_TYPE + " text);");
+    }
+
+    private void createVersion7Database(SQLiteDatabase db) {
+        createVersion6Database(db);
+
+        SQLiteUtils.createIndex(db, INSTANCES_TABLE_NAME, JR_FORM_ID, JR_VERSION);
+        SQLiteUtils.createIndex(db, INSTANCES_TABLE_NAME, STATUS);
+        SQLiteUtils.createIndex(db, INSTANCES_TABLE_NAME, INSTANCE_FILE_PATH);
+        SQLiteUtils.createIndex(db, INSTANCES_TABLE_NAME, DELETED_DATE);
+    }
+
+    private ContentValues createVersion7Instance(String geometry) {
+        ContentValues contentValues = new ContentValues();
+        contentValues.put(DISPLAY_NAME, "DisplayName");
+        contentValues.put(INSTANCE_FILE_PATH, "InstanceFilePath");
+        contentValues.put(JR_FORM_ID, "FormId");
+        contentValues.put(STATUS, Instance.STATUS_COMPLETE);
+        contentValues.put(LAST_STATUS_CHANGE_DATE, 0);
+        contentValues.put(GEOMETRY, geometry);
+        contentValues.put(GEOMETRY_TYPE, geometry != null ? "Point" : null);
+        return contentValues;
+    }
+
+    private static List<String> getIndexNames(SQLiteDatabase db) {
+        List<String> indexNames = new ArrayList<>();
+        try (Cursor cursor = db.rawQuery("SELECT name FROM sqlite_master WHERE type = 'index' AND tbl_name = ? AND sql IS NOT NULL;", new String[]{INSTANCES_TABLE_NAME})) {
+            while (cursor.moveToNext()) {
+                indexNames.add(cursor.getString(0));
+            }
+        }
+
+        return indexNames;
+    }
+}
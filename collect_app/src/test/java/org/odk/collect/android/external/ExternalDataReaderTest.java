@@ -9,6 +9,7 @@ import org.apache.commons.io.IOUtils;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.odk.collect.android.exception.ExternalDataException;
 import org.odk.collect.android.storage.StoragePathProvider;
 import org.odk.collect.android.storage.StorageSubdirectory;
 import org.odk.collect.android.support.CollectHelpers;
@@ -32,6 +33,7 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.junit.Assert.fail;
 import static org.odk.collect.android.external.ExternalDataUtil.COLUMN_DATASET_FILENAME;
 import static org.odk.collect.android.external.ExternalDataUtil.COLUMN_MD5_HASH;
 import static org.odk.collect.android.external.ExternalDataUtil.EXTERNAL_DATA_TABLE_NAME;
@@ -86,6 +88,69 @@ public class ExternalDataReaderTest {
         assertThat(SQLiteUtils.doesTableExist(db, EXTERNAL_METADATA_TABLE_NAME), is(true));
     }
 
+    @Test
+    public void doImport_importsEveryDataSet() throws IOException {
+        File otherCsvFile = new File(csvFile.getParentFile(), "other-fruits.csv");
+        org.apache.commons.io.FileUtils.copyFile(csvFile, otherCsvFile);
+        File otherDbFile = new File(csvFile.getParentFile(), "other-fruits.db");
+        formDefToCsvMedia.put("other-fruits", otherCsvFile);
+
+        ExternalDataReader externalDataReader = new ExternalDataReaderImpl(null);
+        externalDataReader.doImport(formDefToCsvMedia);
+
+        for (File file : new File[]{dbFile, otherDbFile}) {
+            SQLiteDatabase db = SQLiteDatabase.openDatabase(file.getAbsolutePath(), null, SQLiteDatabase.OPEN_READONLY);
+            assertThat(db.rawQuery(SELECT_ALL_DATA_QUERY, null).getCount(), is(3));
+            db.close();
+        }
+    }
+
+    @Test
+    public void doImport_whenADataSetCantBeImported_otherDataSetsBeingImportedAreRolledBackBeforeThrowing() throws IOException {
+        File badCsvFile = new File(csvFile.getParentFile(), "bad.csv");
+        try (Writer out = new BufferedWriter(new FileWriter(badCsvFile))) {
+            out.write("name,label,sortby\napple,Apple,not a number");
+        }
+
+        File otherCsvFile = new File(csvFile.getParentFile(), "other-fruits.csv");
+        org.apache.commons.io.FileUtils.copyFile(csvFile, otherCsvFile);
+        File otherDbFile = new File(csvFile.getParentFile(), "other-fruits.db");
+
+        Map<String, File> dataSets = new HashMap<>();
+        dataSets.put("bad", badCsvFile);
+        dataSets.put("other-fruits", otherCsvFile);
+
+        // Holds the other import at its first record until the bad import has failed
+        ExternalDataReader externalDataReader = new ExternalDataReaderImpl(null) {
+            @Override
+            void onRecordsImported(File dataSetFile, int recordCount) {
+                if (dataSetFile.equals(otherCsvFile)) {
+                    long deadline = System.currentTimeMillis() + 5000;
+                    while (!isCancelled() && System.currentTimeMillis() < deadline) {
+                        try {
+                            Thread.sleep(10);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            break;
+                        }
+                    }
+                    assertThat("The other import wasn't cancelled", isCancelled(), is(true));
+                }
+
+                super.onRecordsImported(dataSetFile, recordCount);
+            }
+        };
+
+        try {
+            externalDataReader.doImport(dataSets);
+            fail("Expected the import to fail");
+        } catch (ExternalDataException e) {
+            // expected
+        }
+
+        assertThat(otherDbFile.exists(), is(false));
+    }
+
     /**
      * There are multiple features that ingest CSV files so the original file should not be modified.
      * https://github.com/getodk/collect/issues/3335
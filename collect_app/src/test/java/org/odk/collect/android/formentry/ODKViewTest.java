@@ -0,0 +1,231 @@
+package org.odk.collect.android.formentry;
+
+import android.view.View;
+import android.widget.LinearLayout;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.javarosa.core.model.FormIndex;
+import org.javarosa.core.model.data.IAnswerData;
+import org.javarosa.form.api.FormEntryPrompt;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.odk.collect.android.R;
+import org.odk.collect.android.support.CollectHelpers;
+import org.odk.collect.android.support.MockFormEntryPromptBuilder;
+import org.odk.collect.android.support.TestScreenContextActivity;
+import org.odk.collect.android.widgets.QuestionWidget;
+import org.odk.collect.android.widgets.StringWidget;
+import org.odk.collect.android.widgets.support.FakeQuestionMediaManager;
+import org.odk.collect.android.widgets.support.FakeWaitingForDataRegistry;
+import org.odk.collect.android.widgets.utilities.AudioPlayer;
+import org.odk.collect.android.widgets.utilities.ExternalAppRecordingRequester;
+import org.odk.collect.android.widgets.utilities.InternalRecordingRequester;
+import org.odk.collect.audiorecorder.recording.AudioRecorder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.mockito.Mockito.mock;
+import static org.odk.collect.android.support.CollectHelpers.createThemedActivity;
+
+@RunWith(AndroidJUnit4.class)
+public class ODKViewTest {
+
+    private TestScreenContextActivity activity;
+    private FakeWaitingForDataRegistry waitingForDataRegistry;
+
+    @Before
+    public void setup() {
+        CollectHelpers.setupDemoProject();
+        activity = createThemedActivity(TestScreenContextActivity.class);
+        waitingForDataRegistry = new FakeWaitingForDataRegistry();
+    }
+
+    @Test
+    public void whenThereAreFewQuestions_createsWidgetsForAllOfThem() {
+        ODKView odkView = createView(prompts(20));
+
+        assertThat(odkView.getWidgets().size(), is(20));
+    }
+
+    @Test
+    public void whenThereAreManyQuestions_onlyCreatesWidgetsForTheFirstOnes() {
+        FormEntryPrompt[] prompts = prompts(30);
+        ODKView odkView = createView(prompts);
+
+        assertThat(odkView.getWidgets().size(), is(8));
+        assertThat(getWidgetsList(odkView).getChildCount(), is(59));
+        assertThat(getWidgetAt(odkView, 7).getFormEntryPrompt(), sameInstance(prompts[7]));
+        assertThat(getWidgetAt(odkView, 8), is((QuestionWidget) null));
+    }
+
+    @Test
+    public void getAnswers_returnsAnswersForAllQuestionsInOrder() {
+        FormEntryPrompt[] prompts = prompts(30);
+        ODKView odkView = createView(prompts);
+
+        ArrayList<FormIndex> indexes = new ArrayList<>(odkView.getAnswers().keySet());
+        assertThat(indexes.size(), is(30));
+        for (int i = 0; i < prompts.length; i++) {
+            assertThat(indexes.get(i), sameInstance(prompts[i].getIndex()));
+        }
+    }
+
+    @Test
+    public void getAnswers_forQuestionsWithoutWidget_returnsFormAnswer() {
+        FormEntryPrompt[] prompts = prompts(30);
+        ODKView odkView = createView(prompts);
+
+        HashMap<FormIndex, IAnswerData> answers = odkView.getAnswers();
+        assertThat(answers.get(prompts[29].getIndex()), sameInstance(prompts[29].getAnswerValue()));
+    }
+
+    @Test
+    public void getAnswers_forQuestionsWithWidget_returnsWidgetAnswer() {
+        FormEntryPrompt[] prompts = prompts(30);
+        ODKView odkView = createView(prompts);
+
+        ((StringWidget) getWidgetAt(odkView, 0)).answerText.setText("changed");
+
+        HashMap<FormIndex, IAnswerData> answers = odkView.getAnswers();
+        assertThat(answers.get(prompts[0].getIndex()).getDisplayText(), equalTo("changed"));
+    }
+
+    @Test
+    public void highlightWidget_forQuestionWithoutWidget_createsWidgetInPlaceOfPlaceholder() {
+        FormEntryPrompt[] prompts = prompts(30);
+        ODKView odkView = createView(prompts);
+
+        odkView.highlightWidget(prompts[29].getIndex());
+
+        assertThat(odkView.getWidgets().size(), is(9));
+        assertThat(getWidgetsList(odkView).getChildCount(), is(59));
+        assertThat(getWidgetAt(odkView, 29).getFormEntryPrompt(), sameInstance(prompts[29]));
+    }
+
+    @Test
+    public void addWidgetForQuestion_beforePlaceholders_keepsQuestionsAndViewsInOrder() {
+        FormEntryPrompt[] prompts = prompts(30);
+        ODKView odkView = createView(prompts);
+
+        FormEntryPrompt newPrompt = prompt("new");
+        odkView.addWidgetForQuestion(newPrompt, 10);
+
+        assertThat(getWidgetsList(odkView).getChildCount(), is(61));
+        assertThat(getWidgetAt(odkView, 10).getFormEntryPrompt(), sameInstance(newPrompt));
+        assertThat(new ArrayList<>(odkView.getAnswers().keySet()).get(10), sameInstance(newPrompt.getIndex()));
+
+        odkView.highlightWidget(prompts[29].getIndex());
+        assertThat(getWidgetAt(odkView, 30).getFormEntryPrompt(), sameInstance(prompts[29]));
+    }
+
+    @Test
+    public void removeWidgetAt_forQuestionWithoutWidget_keepsQuestionsAndViewsInOrder() {
+        FormEntryPrompt[] prompts = prompts(30);
+        ODKView odkView = createView(prompts);
+
+        odkView.removeWidgetAt(10);
+
+        assertThat(getWidgetsList(odkView).getChildCount(), is(57));
+        assertThat(odkView.getAnswers().containsKey(prompts[10].getIndex()), is(false));
+        assertThat(odkView.getWidgets().size(), is(8));
+
+        odkView.highlightWidget(prompts[11].getIndex());
+        assertThat(getWidgetAt(odkView, 10).getFormEntryPrompt(), sameInstance(prompts[11]));
+    }
+
+    @Test
+    public void releaseWidget_whenWidgetShowsFormAnswer_replacesItWithPlaceholder() {
+        FormEntryPrompt[] prompts = prompts(30);
+        ODKView odkView = createView(prompts);
+
+        assertThat(odkView.releaseWidget(3), is(true));
+
+        assertThat(odkView.getWidgets().size(), is(7));
+        assertThat(getWidgetsList(odkView).getChildCount(), is(59));
+        assertThat(getWidgetAt(odkView, 3), is((QuestionWidget) null));
+        assertThat(odkView.getAnswers().get(prompts[3].getIndex()), sameInstance(prompts[3].getAnswerValue()));
+    }
+
+    @Test
+    public void releaseWidget_whenWidgetAnswerHasChanged_keepsWidget() {
+        ODKView odkView = createView(prompts(30));
+
+        ((StringWidget) getWidgetAt(odkView, 3)).answerText.setText("changed");
+
+        assertThat(odkView.releaseWidget(3), is(false));
+        assertThat(getWidgetAt(odkView, 3), not(is((QuestionWidget) null)));
+    }
+
+    @Test
+    public void releaseWidget_whenWidgetIsWaitingForData_keepsWidget() {
+        FormEntryPrompt[] prompts = prompts(30);
+        ODKView odkView = createView(prompts);
+
+        waitingForDataRegistry.waitForData(prompts[3].getIndex());
+
+        assertThat(odkView.releaseWidget(3), is(false));
+        assertThat(getWidgetAt(odkView, 3), not(is((QuestionWidget) null)));
+    }
+
+    @Test
+    public void releaseWidget_whenWidgetHasFocus_keepsWidget() {
+        ODKView odkView = createView(prompts(30));
+        activity.setContentView(odkView);
+
+        ((StringWidget) getWidgetAt(odkView, 3)).answerText.requestFocus();
+
+        assertThat(odkView.releaseWidget(3), is(false));
+        assertThat(getWidgetAt(odkView, 3), not(is((QuestionWidget) null)));
+    }
+
+    @Test
+    public void releaseWidget_whenWidgetHasNotBeenCreated_returnsFalse() {
+        ODKView odkView = createView(prompts(30));
+
+        assertThat(odkView.releaseWidget(20), is(false));
+        assertThat(getWidgetsList(odkView).getChildCount(), is(59));
+    }
+
+    private ODKView createView(FormEntryPrompt[] prompts) {
+        return new ODKView(activity, prompts, null, false, new FakeQuestionMediaManager(),
+                waitingForDataRegistry, mock(AudioPlayer.class), mock(AudioRecorder.class),
+                mock(FormEntryViewModel.class), mock(InternalRecordingRequester.class),
+                mock(ExternalAppRecordingRequester.class));
+    }
+
+    private static FormEntryPrompt[] prompts(int count) {
+        FormEntryPrompt[] prompts = new FormEntryPrompt[count];
+        for (int i = 0; i < count; i++) {
+            prompts[i] = prompt(String.valueOf(i));
+        }
+
+        return prompts;
+    }
+
+    private static FormEntryPrompt prompt(String name) {
+        return new MockFormEntryPromptBuilder()
+                .withIndex("0, " + name)
+                .withAnswerDisplayText("answer " + name)
+                .build();
+    }
+
+    private static LinearLayout getWidgetsList(ODKView odkView) {
+        return odkView.findViewById(R.id.widgets);
+    }
+
+    /**
+     * @return the widget shown for the question at {@code index} or null if it's a placeholder
+     */
+    private static QuestionWidget getWidgetAt(ODKView odkView, int index) {
+        View view = getWidgetsList(odkView).getChildAt(index * 2);
+        return view instanceof QuestionWidget ? (QuestionWidget) view : null;
+    }
+}
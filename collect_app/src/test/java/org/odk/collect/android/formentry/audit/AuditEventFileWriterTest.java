@@ -24,7 +24,6 @@ import org.javarosa.core.model.instance.TreeReference;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.robolectric.annotation.LooperMode;
 
 import java.io.File;
 import java.util.ArrayList;
@@ -48,8 +47,7 @@ import static org.odk.collect.android.formentry.audit.AuditEvent.AuditEventType.
 import static org.odk.collect.android.formentry.audit.AuditEvent.AuditEventType.QUESTION;
 
 @RunWith(AndroidJUnit4.class)
-@LooperMode(LooperMode.Mode.LEGACY)
-public class AsyncTaskAuditEventWriterTest {
+public class AuditEventFileWriterTest {
 
     private File auditFile;
 
@@ -60,8 +58,9 @@ public class AsyncTaskAuditEventWriterTest {
 
     @Test
     public void saveAuditWithLocation() throws Exception {
-        AsyncTaskAuditEventWriter writer = new AsyncTaskAuditEventWriter(auditFile, true, false, false, false);
+        AuditEventFileWriter writer = new AuditEventFileWriter(auditFile, true, false, false, false, Runnable::run);
         writer.writeEvents(getSampleAuditEventsWithLocations());
+        writer.checkpoint();
 
         String expectedAuditContent = FileUtils.readFileToString(auditFile);
         String expectedData = "event,node,start,end,latitude,longitude,accuracy\n" +
@@ -82,10 +81,59 @@ public class AsyncTaskAuditEventWriterTest {
         assertEquals(expectedData, expectedAuditContent);
     }
 
+    @Test
+    public void eventsWrittenInSeveralBatches_areAppendedAfterOneHeader() throws Exception {
+        AuditEventFileWriter writer = new AuditEventFileWriter(auditFile, false, false, false, false, Runnable::run);
+        writer.writeEvents(asList(new AuditEvent(1548106927319L, FORM_START)));
+        writer.writeEvents(asList(new AuditEvent(1548106953600L, FORM_SAVE)));
+        writer.checkpoint();
+        writer.writeEvents(asList(new AuditEvent(1548106953601L, FORM_EXIT)));
+        writer.checkpoint();
+
+        String expectedData = "event,node,start,end\n" +
+                "form start,,1548106927319,\n" +
+                "form save,,1548106953600,\n" +
+                "form exit,,1548106953601,\n";
+        assertEquals(expectedData, FileUtils.readFileToString(auditFile));
+    }
+
+    @Test
+    public void eventsAreInLogAfterEachBatch_withoutCheckpoint() throws Exception {
+        AuditEventFileWriter writer = new AuditEventFileWriter(auditFile, false, false, false, false, Runnable::run);
+        writer.writeEvents(asList(new AuditEvent(1548106927319L, FORM_START)));
+
+        assertEquals("event,node,start,end\n" +
+                "form start,,1548106927319,\n", FileUtils.readFileToString(auditFile));
+    }
+
+    @Test
+    public void whenWriterFallsBehind_eventsAreStillWrittenInOrder() throws Exception {
+        List<Runnable> tasks = new ArrayList<>();
+        AuditEventFileWriter writer = new AuditEventFileWriter(auditFile, false, false, false, false, tasks::add);
+
+        List<AuditEvent> events = new ArrayList<>();
+        for (int i = 0; i < 1500; i++) {
+            events.add(new AuditEvent(i, FORM_START));
+        }
+        writer.writeEvents(events.subList(0, 1200));
+        writer.writeEvents(events.subList(1200, 1500));
+
+        while (!tasks.isEmpty()) {
+            tasks.remove(0).run();
+        }
+
+        List<String> lines = FileUtils.readLines(auditFile);
+        assertEquals(1501, lines.size());
+        for (int i = 0; i < 1500; i++) {
+            assertEquals("form start,," + i + ",", lines.get(i + 1));
+        }
+    }
+
     @Test
     public void saveAuditWithLocationAndTrackingChanges() throws Exception {
-        AsyncTaskAuditEventWriter writer = new AsyncTaskAuditEventWriter(auditFile, true, true, false, false);
+        AuditEventFileWriter writer = new AuditEventFileWriter(auditFile, true, true, false, false, Runnable::run);
         writer.writeEvents(getSampleAuditEventsWithLocationsAndTrackingChanges());
+        writer.checkpoint();
 
         String expectedAuditContent = FileUtils.readFileToString(auditFile);
         String expectedData = "event,node,start,end,latitude,longitude,accuracy,old-value,new-value\n" +
@@ -104,8 +152,9 @@ public class AsyncTaskAuditEventWriterTest {
 
     @Test
     public void saveAuditWithUser() throws Exception {
-        AsyncTaskAuditEventWriter writer = new AsyncTaskAuditEventWriter(auditFile, false, false, true, false);
+        AuditEventFileWriter writer = new AuditEventFileWriter(auditFile, false, false, true, false, Runnable::run);
         writer.writeEvents(getSampleAuditEventsWithUser());
+        writer.checkpoint();
 
         String expectedAuditContent = FileUtils.readFileToString(auditFile);
         String expectedData = "event,node,start,end,user\n" +
@@ -126,11 +175,12 @@ public class AsyncTaskAuditEventWriterTest {
 
     @Test
     public void saveAuditWithChangeReason() throws Exception {
-        AsyncTaskAuditEventWriter writer = new AsyncTaskAuditEventWriter(auditFile, false, false, false, true);
+        AuditEventFileWriter writer = new AuditEventFileWriter(auditFile, false, false, false, true, Runnable::run);
         writer.writeEvents(asList(
                 new AuditEvent(1548108900606L, FORM_RESUME, null, null, null, null),
                 new AuditEvent(1548108900606L, CHANGE_REASON, null, null, null, "A good reason")
         ));
+        writer.checkpoint();
 
         String auditContent = FileUtils.readFileToString(auditFile);
         String expectedData = "event,node,start,end,change-reason\n" +
@@ -141,11 +191,12 @@ public class AsyncTaskAuditEventWriterTest {
 
     @Test
     public void whenChangeReasonHasCommaOrQuotes_escapesThem() throws Exception {
-        AsyncTaskAuditEventWriter writer = new AsyncTaskAuditEventWriter(auditFile, false, false, false, true);
+        AuditEventFileWriter writer = new AuditEventFileWriter(auditFile, false, false, false, true, Runnable::run);
         writer.writeEvents(asList(
                 new AuditEvent(1548108900606L, FORM_RESUME, null, null, null, null),
                 new AuditEvent(1548108900606L, CHANGE_REASON, null, null, null, "A \"good\", reason")
         ));
+        writer.checkpoint();
 
         String auditContent = FileUtils.readFileToString(auditFile);
         String expectedData = "event,node,start,end,change-reason\n" +
@@ -156,11 +207,12 @@ public class AsyncTaskAuditEventWriterTest {
 
     @Test
     public void whenUserHasCommaOrQuotes_escapesThem() throws Exception {
-        AsyncTaskAuditEventWriter writer = new AsyncTaskAuditEventWriter(auditFile, false, false, true, false);
+        AuditEventFileWriter writer = new AuditEventFileWriter(auditFile, false, false, true, false, Runnable::run);
 
         List<AuditEvent> auditEvents = getSampleAuditEventsWithUser().subList(0, 1);
         auditEvents.get(0).setUser("User,\"1\"");
         writer.writeEvents(auditEvents);
+        writer.checkpoint();
 
         String expectedAuditContent = FileUtils.readFileToString(auditFile);
         String expectedData = "event,node,start,end,user\n" +
@@ -176,8 +228,9 @@ public class AsyncTaskAuditEventWriterTest {
     @Test
     public void whenAppUpdatedBetweenInstances_updatesHeader() throws Exception {
         // Use a form with enabled audit but without location
-        AsyncTaskAuditEventWriter writer = new AsyncTaskAuditEventWriter(auditFile, false, false, false, false);
+        AuditEventFileWriter writer = new AuditEventFileWriter(auditFile, false, false, false, false, Runnable::run);
         writer.writeEvents(getSampleAuditEventsWithoutLocations());
+        writer.checkpoint();
 
         String expectedAuditContent = FileUtils.readFileToString(auditFile);
         String expectedData = "event,node,start,end\n" +
@@ -195,8 +248,9 @@ public class AsyncTaskAuditEventWriterTest {
         assertEquals(expectedData, expectedAuditContent);
 
         // Upgrade a form to use location
-        writer = new AsyncTaskAuditEventWriter(auditFile, true, false, false, false);
+        writer = new AuditEventFileWriter(auditFile, true, false, false, false, Runnable::run);
         writer.writeEvents(getMoreSampleAuditEventsWithLocations());
+        writer.checkpoint();
 
         expectedAuditContent = FileUtils.readFileToString(auditFile);
         String expectedData2 = "event,node,start,end,latitude,longitude,accuracy\n" +
@@ -223,8 +277,9 @@ public class AsyncTaskAuditEventWriterTest {
         assertEquals(expectedData2, expectedAuditContent);
 
         // Upgrade a form to use location and tracking changes
-        writer = new AsyncTaskAuditEventWriter(auditFile, true, true, false, false);
+        writer = new AuditEventFileWriter(auditFile, true, true, false, false, Runnable::run);
         writer.writeEvents(getMoreSampleAuditEventsWithLocationsAndTrackingChanges());
+        writer.checkpoint();
 
         expectedAuditContent = FileUtils.readFileToString(auditFile);
         String expectedData3 = "event,node,start,end,latitude,longitude,accuracy,old-value,new-value\n" +
@@ -259,8 +314,9 @@ public class AsyncTaskAuditEventWriterTest {
         assertEquals(expectedData3, expectedAuditContent);
 
         // Upgrade a form to use location and tracking changes and user
-        writer = new AsyncTaskAuditEventWriter(auditFile, true, true, true, false);
+        writer = new AuditEventFileWriter(auditFile, true, true, true, false, Runnable::run);
         writer.writeEvents(getMoreSampleAuditEventsWithLocationsAndTrackingChangesAndUser());
+        writer.checkpoint();
 
         expectedAuditContent = FileUtils.readFileToString(auditFile);
         String expectedData4 = "event,node,start,end,latitude,longitude,accuracy,old-value,new-value,user\n" +
@@ -246,8 +246,7 @@ public class AuditEventLoggerTest {
         }
 
         @Override
-        public boolean isWriting() {
-            return false;
+        public void checkpoint() {
         }
     }
 }
@@ -47,6 +47,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.odk.collect.android.formentry.saving.FormSaveViewModel.SaveResult.State.CHANGE_REASON_REQUIRED;
@@ -400,6 +401,21 @@ public class FormSaveViewModelTest {
         verify(logger).logEvent(AuditEvent.AuditEventType.CHANGE_REASON, null, true, null, CURRENT_TIME, "Blah");
     }
 
+    @Test
+    public void whenReasonRequiredToSave_resumeSave_checkpointsAuditLogWithChangeReasonInBackground() {
+        whenReasonRequiredToSave();
+        viewModel.saveForm(Uri.parse("file://form"), false, "", false);
+
+        viewModel.setReason("Blah");
+        viewModel.resumeSave();
+        verify(logger, never()).checkpoint();
+
+        whenFormSaverFinishes(SaveFormToDisk.SAVED);
+        InOrder verifier = inOrder(logger);
+        verifier.verify(logger).logEvent(AuditEvent.AuditEventType.CHANGE_REASON, null, true, null, CURRENT_TIME, "Blah");
+        verifier.verify(logger).checkpoint();
+    }
+
     @Test
     public void whenReasonRequiredToSave_resumeSave_whenReasonIsNotValid_doesNotSave() {
         whenReasonRequiredToSave();
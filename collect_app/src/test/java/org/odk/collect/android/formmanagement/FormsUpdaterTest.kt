@@ -18,6 +18,7 @@ import org.mockito.kotlin.mock
 import org.mockito.kotlin.verify
 import org.mockito.kotlin.whenever
 import org.odk.collect.analytics.Analytics
+import org.odk.collect.android.backgroundwork.FormUpdateScheduler
 import org.odk.collect.android.formmanagement.matchexactly.SyncStatusAppState
 import org.odk.collect.android.injection.DaggerUtils
 import org.odk.collect.android.notifications.Notifier
@@ -45,6 +46,7 @@ class FormsUpdaterTest {
     private val syncStatusAppState = mock<SyncStatusAppState>()
     private val notifier = mock<Notifier>()
     private val analytics = mock<Analytics>()
+    private val formUpdateScheduler = mock<FormUpdateScheduler>()
 
     private val changeLockProvider = mock<ChangeLockProvider> {
         on { getFormLock(any()) } doReturn BooleanChangeLock()
@@ -70,7 +72,8 @@ class FormsUpdaterTest {
             formSourceProvider = formSourceProvider,
             syncStatusAppState = syncStatusAppState,
             instancesRepositoryProvider = mock(),
-            changeLockProvider
+            changeLockProvider,
+            formUpdateScheduler
         )
     }
 
@@ -108,6 +111,21 @@ class FormsUpdaterTest {
         )
     }
 
+    @Test
+    fun `downloadUpdates() schedules warm up of downloaded forms`() {
+        val project = setupProject()
+        addFormLocally(project, "formId", "1")
+
+        val updatedXForm = FormUtils.createXFormBody("formId", "2")
+        addFormToServer(updatedXForm, "formId", "2")
+
+        settingsProvider.getGeneralSettings(project.uuid)
+            .save(GeneralKeys.KEY_AUTOMATIC_UPDATE, true)
+
+        updateManager.downloadUpdates(project.uuid)
+        verify(formUpdateScheduler).scheduleWarmUp(project.uuid)
+    }
+
     @Test
     fun `matchFormsWithServer() does nothing when change lock is locked`() {
         val project = setupProject()
@@ -156,6 +174,14 @@ class FormsUpdaterTest {
         inOrder.verify(syncStatusAppState).finishSync(project.uuid, null)
     }
 
+    @Test
+    fun `matchFormsWithServer() schedules warm up of downloaded forms`() {
+        val project = setupProject()
+
+        updateManager.matchFormsWithServer(project.uuid)
+        verify(formUpdateScheduler).scheduleWarmUp(project.uuid)
+    }
+
     private fun addFormToServer(updatedXForm: String, formId: String, formVersion: String) {
         whenever(formSource.fetchFormList()).doReturn(
             listOf(
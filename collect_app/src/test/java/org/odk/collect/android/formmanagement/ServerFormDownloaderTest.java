@@ -17,6 +17,7 @@ import org.odk.collect.shared.strings.Md5;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
@@ -360,6 +361,35 @@ public class ServerFormDownloaderTest {
         assertThat(progressReporter.reports, contains(1, 2));
     }
 
+    @Test
+    public void whenMediaFileDownloadIsInterrupted_resumesFromLastByteReceived() throws Exception {
+        String xform = createXFormBody("id", "version");
+        ServerFormDetails serverFormDetails = new ServerFormDetails(
+                "Form",
+                "http://downloadUrl",
+                "id",
+                "version",
+                "md5:" + Md5.getMd5Hash(new ByteArrayInputStream(xform.getBytes())),
+                true,
+                false,
+                new ManifestFile("", asList(
+                        new MediaFile("file1", "md5:" + Md5.getMd5Hash(new ByteArrayInputStream("contents1".getBytes())), "http://file1")
+                )));
+
+        FormSource formSource = mock(FormSource.class);
+        when(formSource.fetchForm("http://downloadUrl")).thenReturn(new ByteArrayInputStream(xform.getBytes()));
+        when(formSource.fetchMediaFile("http://file1")).thenReturn(new DroppingInputStream("cont".getBytes()));
+        when(formSource.fetchMediaFile("http://file1", 4)).thenReturn(new ByteArrayInputStream("ents1".getBytes()));
+
+        ServerFormDownloader downloader = new ServerFormDownloader(formSource, formsRepository, cacheDir, formsDir.getAbsolutePath(), new FormMetadataParser(), mock(Analytics.class));
+        downloader.downloadForm(serverFormDetails, null, null);
+
+        Form form = formsRepository.getAll().get(0);
+        File mediaFile1 = new File(form.getFormMediaPath() + "/file1");
+        assertThat(new String(read(mediaFile1)), is("contents1"));
+        assertThat(asList(new File(getCacheFilesPath()).listFiles()), is(empty()));
+    }
+
     //region Undelete on re-download
     @Test
     public void whenFormIsSoftDeleted_unDeletesForm() throws Exception {
@@ -682,6 +712,38 @@ public class ServerFormDownloaderTest {
         }
     }
 
+    /**
+     * Returns its bytes and then fails like a dropped connection would.
+     */
+    private static class DroppingInputStream extends InputStream {
+
+        private final ByteArrayInputStream bytes;
+
+        DroppingInputStream(byte[] bytes) {
+            this.bytes = new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int read = bytes.read();
+            if (read == -1) {
+                throw new IOException("Connection dropped");
+            }
+
+            return read;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = bytes.read(b, off, len);
+            if (read == -1) {
+                throw new IOException("Connection dropped");
+            }
+
+            return read;
+        }
+    }
+
     public static class CancelAfterFormDownloadFormSource implements FormSource, Supplier<Boolean> {
 
         private final String xform;
@@ -712,6 +774,11 @@ public class ServerFormDownloaderTest {
             throw new UnsupportedOperationException();
         }
 
+        @Override
+        public InputStream fetchMediaFile(String mediaFileURL, long fromByte) throws FormSourceException {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public Boolean get() {
             return isCancelled;
@@ -738,6 +805,11 @@ public class ServerFormDownloaderTest {
             return new ByteArrayInputStream("contents".getBytes());
         }
 
+        @Override
+        public InputStream fetchMediaFile(String mediaFileURL, long fromByte) throws FormSourceException {
+            throw new UnsupportedOperationException();
+        }
+
         @Override
         public List<FormListItem> fetchFormList() throws FormSourceException {
             throw new UnsupportedOperationException();
@@ -53,7 +53,7 @@ public class ServerFormsDetailsFetcherTest {
         );
 
         DiskFormsSynchronizer diskFormsSynchronizer = mock(DiskFormsSynchronizer.class);
-        fetcher = new ServerFormsDetailsFetcher(formsRepository, formSource, diskFormsSynchronizer);
+        fetcher = new ServerFormsDetailsFetcher(formsRepository, formSource, diskFormsSynchronizer, TempFiles.createTempDir());
     }
 
     @Test
@@ -169,6 +169,26 @@ public class ServerFormsDetailsFetcherTest {
         assertThat(form.isNotOnDevice(), is(false));
     }
 
+    @Test
+    public void whenAFormExists_andLocalMediaFileChangesAfterBeingChecked_isUpdated() throws Exception {
+        File mediaDir = TempFiles.createTempDir();
+
+        formsRepository.save(new Form.Builder()
+                .formId("form-2")
+                .version("server")
+                .md5Hash("form-2-hash")
+                .formFilePath(FormUtils.createXFormFile("form-2", "server").getAbsolutePath())
+                .formMediaPath(mediaDir.getAbsolutePath())
+                .build());
+
+        File localMediaFile = TempFiles.createTempFile(mediaDir, "blah", ".csv");
+        writeToFile(localMediaFile, "blah");
+        assertThat(getForm(fetcher.fetchFormDetails(), "form-2").isUpdated(), is(false));
+
+        writeToFile(localMediaFile, "blah after");
+        assertThat(getForm(fetcher.fetchFormDetails(), "form-2").isUpdated(), is(true));
+    }
+
     @Test
     public void whenAFormExists_andIsUpdatedOnServer_andDoesNotHaveNewMedia_isUpdated() throws Exception {
         File mediaDir = TempFiles.createTempDir();
@@ -0,0 +1,84 @@
+package org.odk.collect.android.geo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+public class PointClusterIndexTest {
+
+    private final double[] lats = {10.0, 10.1, -30.0, 10.05, 60.0};
+    private final double[] lons = {125.6, 125.7, -60.0, 125.65, 179.5};
+
+    @Test
+    public void whenThereAreFewPoints_eachPointIsItsOwnCluster() {
+        PointClusterIndex index = new PointClusterIndex(lats, lons);
+        List<PointClusterIndex.Cluster> clusters = index.getClusters(null, 2, 10);
+
+        assertThat(getItems(clusters), containsInAnyOrder(0, 1, 2, 3, 4));
+        for (PointClusterIndex.Cluster cluster : clusters) {
+            assertThat(cluster.size(), is(1));
+
+            int item = cluster.getItem(0);
+            assertThat(cluster.getPoint(), equalTo(new MapPoint(lats[item], lons[item])));
+        }
+    }
+
+    @Test
+    public void onlyPointsWithinBounds_areIncluded() {
+        PointClusterIndex index = new PointClusterIndex(lats, lons);
+        List<PointClusterIndex.Cluster> clusters = index.getClusters(new MapBounds(0, 120, 20, 126), 2, 10);
+
+        assertThat(getItems(clusters), containsInAnyOrder(0, 1, 3));
+    }
+
+    @Test
+    public void boundsSpanningTheAntimeridian_includePointsOnBothSides() {
+        PointClusterIndex index = new PointClusterIndex(lats, lons);
+        List<PointClusterIndex.Cluster> clusters = index.getClusters(new MapBounds(-90, 120, 90, -50), 2, 10);
+
+        assertThat(getItems(clusters), containsInAnyOrder(0, 1, 2, 3, 4));
+    }
+
+    @Test
+    public void whenThereAreTooManyPoints_nearbyPointsAreClustered() {
+        PointClusterIndex index = new PointClusterIndex(lats, lons);
+        List<PointClusterIndex.Cluster> clusters = index.getClusters(null, 2, 3);
+
+        assertThat(clusters.size(), is(3));
+        for (PointClusterIndex.Cluster cluster : clusters) {
+            if (cluster.getItem(0) == 0 || cluster.getItem(0) == 1 || cluster.getItem(0) == 3) {
+                assertThat(cluster.size(), is(3));
+                assertThat(cluster.getPoint().lat, is(closeTo(10.05, 0.000001)));
+                assertThat(cluster.getBoundingPoints().get(0), equalTo(new MapPoint(10.0, 125.6)));
+                assertThat(cluster.getBoundingPoints().get(1), equalTo(new MapPoint(10.1, 125.7)));
+            } else {
+                assertThat(cluster.size(), is(1));
+            }
+        }
+    }
+
+    @Test
+    public void whenZoomedInClosely_pointsAreNotClustered() {
+        PointClusterIndex index = new PointClusterIndex(lats, lons);
+        List<PointClusterIndex.Cluster> clusters = index.getClusters(null, 21, 3);
+
+        assertThat(clusters.size(), is(5));
+    }
+
+    private static List<Integer> getItems(List<PointClusterIndex.Cluster> clusters) {
+        List<Integer> items = new ArrayList<>();
+        for (PointClusterIndex.Cluster cluster : clusters) {
+            for (int i = 0; i < cluster.size(); i++) {
+                items.add(cluster.getItem(i));
+            }
+        }
+        return items;
+    }
+}
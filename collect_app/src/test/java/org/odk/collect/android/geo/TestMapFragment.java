@@ -122,6 +122,12 @@ public class TestMapFragment implements MapFragment {
         zoomCount++;
     }
 
+    @Nullable
+    @Override
+    public MapBounds getVisibleBounds() {
+        return null;
+    }
+
     @Override
     public int addMarker(MapPoint point, boolean draggable, @IconAnchor String iconAnchor) {
         mappedPoints.put(point, lastFeatureId);
@@ -190,6 +196,11 @@ public class TestMapFragment implements MapFragment {
 
     }
 
+    @Override
+    public void setViewportChangeListener(@Nullable ViewportListener listener) {
+
+    }
+
     @Override
     public void setGpsLocationEnabled(boolean enabled) {
 
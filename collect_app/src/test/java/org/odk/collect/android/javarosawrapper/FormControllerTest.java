@@ -2,6 +2,8 @@ package org.odk.collect.android.javarosawrapper;
 
 import com.google.common.io.Files;
 
+import org.javarosa.core.model.FormIndex;
+import org.javarosa.core.model.instance.TreeReference;
 import org.javarosa.form.api.FormEntryController;
 import org.javarosa.form.api.FormEntryModel;
 import org.javarosa.xform.util.XFormUtils;
@@ -11,6 +13,8 @@ import org.junit.Test;
 import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -77,6 +81,36 @@ public class FormControllerTest {
         assertThat(formController.getFormIndex().toString(), equalTo("0_0, 1_1, "));
     }
 
+    @Test
+    public void getIndexFromXPath_returnsIndexOfEventWithXPath_andDoesNotMoveIndex() throws Exception {
+        FormController formController = createFormController(ONE_QUESTION_NESTED_REPEAT);
+
+        formController.stepToNextScreenEvent();
+        formController.stepToNextScreenEvent();
+        FormIndex questionIndex = formController.getFormIndex();
+        String xpath = formController.getXPath(questionIndex);
+        formController.jumpToIndex(FormIndex.createBeginningOfFormIndex());
+
+        assertThat(formController.getIndexFromXPath(xpath).toString(), equalTo(questionIndex.toString()));
+        assertThat(formController.getFormIndex().isBeginningOfFormIndex(), is(true));
+    }
+
+    @Test
+    public void getIndexFromXPath_findsRepeatsAddedAfterPreviousLookup() throws Exception {
+        FormController formController = createFormController(ONE_QUESTION_REPEAT);
+
+        formController.stepToNextScreenEvent();
+        assertThat(formController.getIndexFromXPath(formController.getXPath(formController.getFormIndex())), is(notNullValue()));
+
+        formController.jumpToNewRepeatPrompt();
+        formController.newRepeat();
+        formController.stepToNextScreenEvent();
+        FormIndex newQuestionIndex = formController.getFormIndex();
+        String xpath = formController.getXPath(newQuestionIndex);
+
+        assertThat(formController.getIndexFromXPath(xpath).toString(), equalTo(newQuestionIndex.toString()));
+    }
+
     @Test
     public void whenInstanceFileAndAuditConfigNull_getAuditEventLogger_isNotNull() throws Exception {
         ByteArrayInputStream inputStream = new ByteArrayInputStream(ONE_QUESTION_NESTED_REPEAT.getBytes());
@@ -112,6 +146,85 @@ public class FormControllerTest {
     }
     //endregion
 
+    @Test
+    public void stepOverElement_fromRepeatInstance_movesToTheSameIndexAsSteppingThroughIt() throws Exception {
+        FormController formController = createFormController(MANY_INSTANCES_NESTED_REPEAT);
+        List<FormIndex> indexes = getAllIndexes(formController);
+
+        int repeatInstances = 0;
+        for (int i = 0; i < indexes.size(); i++) {
+            FormIndex instanceIndex = indexes.get(i);
+            if (formController.getEvent(instanceIndex) != FormEntryController.EVENT_REPEAT) {
+                continue;
+            }
+
+            repeatInstances++;
+            TreeReference instanceRef = instanceIndex.getReference();
+            FormIndex expectedIndex = FormIndex.createEndOfFormIndex();
+            for (int j = i + 1; j < indexes.size(); j++) {
+                if (!instanceRef.isParentOf(indexes.get(j).getReference(), false)) {
+                    expectedIndex = indexes.get(j);
+                    break;
+                }
+            }
+
+            formController.stepOverElement(instanceIndex);
+            assertThat(formController.getFormIndex().toString(), equalTo(expectedIndex.toString()));
+        }
+
+        // 20 people with 3 tattoos each
+        assertThat(repeatInstances, is(80));
+    }
+
+    @Test
+    public void stepOverElement_fromLastRepeatInstanceWithNestedRepeat_movesOutOfTheRepeat() throws Exception {
+        FormController formController = createFormController(MANY_INSTANCES_NESTED_REPEAT);
+        List<FormIndex> people = getPersonIndexes(formController);
+
+        int event = formController.stepOverElement(people.get(19));
+
+        while (event == FormEntryController.EVENT_PROMPT_NEW_REPEAT) {
+            event = formController.stepToNextEvent(FormController.STEP_INTO_GROUP);
+        }
+        assertThat(event, equalTo(FormEntryController.EVENT_QUESTION));
+        assertThat(formController.getFormIndex().getReference().toString(false), equalTo("/data/last"));
+    }
+
+    @Test
+    public void isGroupRelevant_whenOnlyNestedRepeatHasRelevantQuestions_returnsTrue() throws Exception {
+        FormController formController = createFormController(MANY_INSTANCES_NESTED_REPEAT);
+        List<FormIndex> people = getPersonIndexes(formController);
+
+        formController.jumpToIndex(people.get(0));
+        assertThat(formController.isGroupRelevant(), is(true));
+    }
+
+    /**
+     * Steps through the whole form one event at a time (creating any count driven repeats).
+     */
+    private static List<FormIndex> getAllIndexes(FormController formController) {
+        List<FormIndex> indexes = new ArrayList<>();
+        formController.jumpToIndex(FormIndex.createBeginningOfFormIndex());
+        while (formController.stepToNextEvent(FormController.STEP_INTO_GROUP) != FormEntryController.EVENT_END_OF_FORM) {
+            indexes.add(formController.getFormIndex());
+        }
+
+        return indexes;
+    }
+
+    private static List<FormIndex> getPersonIndexes(FormController formController) {
+        List<FormIndex> people = new ArrayList<>();
+        for (FormIndex index : getAllIndexes(formController)) {
+            if (formController.getEvent(index) == FormEntryController.EVENT_REPEAT
+                    && index.getReference().toString(false).equals("/data/person")) {
+                people.add(index);
+            }
+        }
+
+        assertThat(people.size(), is(20));
+        return people;
+    }
+
     @NotNull
     private FormController createFormController(String xform) throws IOException {
         ByteArrayInputStream inputStream = new ByteArrayInputStream(xform.getBytes());
@@ -214,6 +327,47 @@ public class FormControllerTest {
             "    </h:body>\n" +
             "</h:html>\n";
 
+    private static final String MANY_INSTANCES_NESTED_REPEAT = "<?xml version=\"1.0\"?>\n" +
+            "<h:html xmlns=\"http://www.w3.org/2002/xforms\" xmlns:h=\"http://www.w3.org/1999/xhtml\" xmlns:jr=\"http://openrosa.org/javarosa\">\n" +
+            "    <h:head>\n" +
+            "        <h:title>Many Instances Nested Repeat</h:title>\n" +
+            "        <model>\n" +
+            "            <instance>\n" +
+            "                <data id=\"many_instances_nested_repeat\">\n" +
+            "                    <person>\n" +
+            "                        <age/>\n" +
+            "                        <tattoo>\n" +
+            "                            <description/>\n" +
+            "                        </tattoo>\n" +
+            "                    </person>\n" +
+            "                    <last/>\n" +
+            "                </data>\n" +
+            "            </instance>\n" +
+            "            <bind nodeset=\"/data/person/age\" type=\"int\" relevant=\"false()\"/>\n" +
+            "            <bind nodeset=\"/data/person/tattoo/description\" type=\"string\"/>\n" +
+            "            <bind nodeset=\"/data/last\" type=\"string\"/>\n" +
+            "        </model>\n" +
+            "    </h:head>\n" +
+            "    <h:body>\n" +
+            "        <group ref=\"/data/person\">\n" +
+            "            <label>Person</label>\n" +
+            "            <repeat nodeset=\"/data/person\" jr:count=\"20\">\n" +
+            "                <input ref=\"/data/person/age\">\n" +
+            "                    <label>What is their age?</label>\n" +
+            "                </input>\n" +
+            "                <repeat nodeset=\"/data/person/tattoo\" jr:count=\"3\">\n" +
+            "                    <input ref=\"/data/person/tattoo/description\">\n" +
+            "                        <label>What is the tattoo of?</label>\n" +
+            "                    </input>\n" +
+            "                </repeat>\n" +
+            "            </repeat>\n" +
+            "        </group>\n" +
+            "        <input ref=\"/data/last\">\n" +
+            "            <label>Last question</label>\n" +
+            "        </input>\n" +
+            "    </h:body>\n" +
+            "</h:html>\n";
+
     private static final String GROUP = "<?xml version=\"1.0\"?>\n" +
             "<h:html xmlns=\"http://www.w3.org/2002/xforms\" xmlns:h=\"http://www.w3.org/1999/xhtml\">\n" +
             "    <h:head>\n" +
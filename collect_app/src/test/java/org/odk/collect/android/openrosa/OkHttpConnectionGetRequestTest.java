@@ -2,19 +2,62 @@ package org.odk.collect.android.openrosa;
 
 import android.webkit.MimeTypeMap;
 
+import org.apache.commons.io.IOUtils;
+import org.junit.Test;
 import org.odk.collect.android.openrosa.okhttp.OkHttpConnection;
 import org.odk.collect.android.openrosa.okhttp.OkHttpOpenRosaServerClientProvider;
+import org.odk.collect.shared.TempFiles;
 
+import java.net.URI;
+import java.nio.charset.Charset;
+
+import okhttp3.Cache;
 import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.junit.Assert.assertThat;
 
 public class OkHttpConnectionGetRequestTest extends OpenRosaGetRequestTest {
 
     @Override
     protected OpenRosaHttpInterface buildSubject() {
+        return buildSubject(new OkHttpClient());
+    }
+
+    @Test
+    public void withCache_whenXMLHasNotChanged_revalidatesAndReturnsCachedBody() throws Exception {
+        MockWebServer mockWebServer = mockWebServerRule.start();
+        mockWebServer.enqueue(new MockResponse()
+                .addHeader("Content-Type", "text/xml")
+                .addHeader("ETag", "\"manifest-1\"")
+                .setBody("I AM BODY"));
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(304));
+
+        OpenRosaHttpInterface subject = buildSubject(new OkHttpClient.Builder()
+                .cache(new Cache(TempFiles.createTempDir(), 1024 * 1024))
+                .build());
+
+        URI uri = mockWebServer.url("/manifest").uri();
+        IOUtils.toString(subject.executeGetRequest(uri, "text/xml", null).getInputStream(), Charset.defaultCharset());
+        HttpGetResult result = subject.executeGetRequest(uri, "text/xml", null);
+
+        assertThat(IOUtils.toString(result.getInputStream(), Charset.defaultCharset()), equalTo("I AM BODY"));
+        assertThat(result.getStatusCode(), equalTo(200));
+
+        mockWebServer.takeRequest();
+        RecordedRequest revalidation = mockWebServer.takeRequest();
+        assertThat(revalidation.getHeader("If-None-Match"), equalTo("\"manifest-1\""));
+    }
+
+    private OpenRosaHttpInterface buildSubject(OkHttpClient baseClient) {
         return new OkHttpConnection(
-                new OkHttpOpenRosaServerClientProvider(new OkHttpClient()),
+                new OkHttpOpenRosaServerClientProvider(baseClient),
                 new CollectThenSystemContentTypeMapper(MimeTypeMap.getSingleton()),
                 USER_AGENT
         );
     }
-}
\ No newline at end of file
+}
@@ -23,11 +23,14 @@ import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 import okhttp3.mockwebserver.RecordedRequest;
 import okio.Buffer;
+import okio.GzipSource;
 
 import static java.util.Arrays.asList;
 import static org.hamcrest.CoreMatchers.containsString;
+import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.isA;
 import static org.hamcrest.Matchers.isEmptyString;
@@ -243,6 +246,107 @@ public abstract class OpenRosaPostRequestTest {
         assertThat(response.getResponseCode(), equalTo(500));
     }
 
+    @Test
+    public void whenMoreThanOneAttachment_andSecondRequestFails_retryingResumesFromSecondRequest() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(201));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(500));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(201));
+
+        URI uri = mockWebServer.url("/blah").uri();
+        File submissionFile = createTempFile("<node>content</node>");
+        File attachment1 = createTempFile("blah blah blah");
+        File attachment2 = createTempFile("blah2 blah2 blah2");
+        subject.uploadSubmissionAndFiles(submissionFile, asList(attachment1, attachment2), uri, null, 0);
+        HttpPostResult response = subject.uploadSubmissionAndFiles(submissionFile, asList(attachment1, attachment2), uri, null, 0);
+
+        assertThat(response.getResponseCode(), equalTo(201));
+        assertThat(mockWebServer.getRequestCount(), equalTo(3));
+
+        mockWebServer.takeRequest();
+        mockWebServer.takeRequest();
+        List<String[]> parts = splitMultiPart(mockWebServer.takeRequest());
+        assertThat(parts.size(), equalTo(2));
+        assertThat(parts.get(1)[1], containsString("name=\"" + attachment2.getName() + "\""));
+    }
+
+    @Test
+    public void whenUploadSucceeds_retryingSendsEverythingAgain() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(201));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(201));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(201));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(201));
+
+        URI uri = mockWebServer.url("/blah").uri();
+        File submissionFile = createTempFile("<node>content</node>");
+        List<File> attachments = asList(createTempFile("blah blah blah"), createTempFile("blah2 blah2 blah2"));
+        subject.uploadSubmissionAndFiles(submissionFile, attachments, uri, null, 0);
+        subject.uploadSubmissionAndFiles(submissionFile, attachments, uri, null, 0);
+
+        assertThat(mockWebServer.getRequestCount(), equalTo(4));
+    }
+
+    @Test
+    public void reportsProgressUpToTotalBytes() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(201));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(201));
+
+        URI uri = mockWebServer.url("/blah").uri();
+        List<Long> progress = new ArrayList<>();
+        long[] total = {0};
+        subject.uploadSubmissionAndFiles(createTempFile("<node>content</node>"), asList(createTempFile("blah blah blah"), createTempFile("blah2 blah2 blah2")), uri, null, 0, false, (bytesSent, totalBytes) -> {
+            progress.add(bytesSent);
+            total[0] = totalBytes;
+        });
+
+        long bodySizes = mockWebServer.takeRequest().getBodySize() + mockWebServer.takeRequest().getBodySize();
+        assertThat(total[0], equalTo(bodySizes));
+        assertThat(progress.get(progress.size() - 1), equalTo(bodySizes));
+    }
+
+    @Test
+    public void whenCompressingTextFiles_andRequestIsMostlyText_sendsGzippedBody() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(201));
+
+        URI uri = mockWebServer.url("/blah").uri();
+        File xmlAttachment = createTempFile("<node>blah blah blah</node>", ".xml");
+        File plainAttachment = createTempFile("blah", ".blah");
+        subject.uploadSubmissionAndFiles(createTempFile("<node>content</node>", ".xml"), asList(xmlAttachment, plainAttachment), uri, null, 1024, true, null);
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertThat(request.getHeader("Content-Encoding"), equalTo("gzip"));
+
+        List<String[]> parts = splitMultiPart(gunzip(request.getBody()));
+        assertThat(parts.get(0)[5], equalTo("<node>content</node>"));
+        assertThat(parts.get(1)[5], equalTo("<node>blah blah blah</node>"));
+        assertThat(parts.get(2)[5], equalTo("blah"));
+    }
+
+    @Test
+    public void whenCompressingTextFiles_andRequestIsMostlyMedia_sendsBodyAsIs() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(201));
+
+        URI uri = mockWebServer.url("/blah").uri();
+        File plainAttachment = createTempFile("blah blah blah blah blah blah blah blah blah blah", ".blah");
+        subject.uploadSubmissionAndFiles(createTempFile("<node/>", ".xml"), asList(plainAttachment), uri, null, 1024, true, null);
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertThat(request.getHeader("Content-Encoding"), is(nullValue()));
+        assertThat(splitMultiPart(request.getBody()).get(1)[5], equalTo("blah blah blah blah blah blah blah blah blah blah"));
+    }
+
+    @Test
+    public void whenNotCompressingTextFiles_sendsBodyAsIs() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(201));
+
+        URI uri = mockWebServer.url("/blah").uri();
+        File xmlAttachment = createTempFile("<node>blah blah blah</node>", ".xml");
+        subject.uploadSubmissionAndFiles(createTempFile("<node>content</node>", ".xml"), asList(xmlAttachment), uri, null, 1024, false, null);
+
+        RecordedRequest request = mockWebServer.takeRequest();
+        assertThat(request.getHeader("Content-Encoding"), is(nullValue()));
+        assertThat(splitMultiPart(request.getBody()).get(1)[5], equalTo("<node>blah blah blah</node>"));
+    }
+
     private File createTempFile(String content) throws Exception {
         return createTempFile(content, ".tmp");
     }
@@ -258,13 +362,27 @@ public abstract class OpenRosaPostRequestTest {
     }
 
     private List<String[]> splitMultiPart(RecordedRequest request) {
-        String body = request.getBody().readUtf8();
+        return splitMultiPart(request.getBody());
+    }
+
+    private List<String[]> splitMultiPart(Buffer requestBody) {
+        String body = requestBody.readUtf8();
         String boundary = body.split("\r\n")[0];
         String[] split = body.split(boundary);
         String[] stringParts = Arrays.copyOfRange(split, 1, split.length - 1);
         return Arrays.stream(stringParts).map(part -> part.split("\r\n")).collect(Collectors.toList());
     }
 
+    private static Buffer gunzip(Buffer compressed) throws IOException {
+        Buffer uncompressed = new Buffer();
+        try (GzipSource source = new GzipSource(compressed)) {
+            while (source.read(uncompressed, 8192) != -1) {
+                // keep reading until the end of the compressed data
+            }
+        }
+        return uncompressed;
+    }
+
     private static byte[] gzip(String data) throws IOException {
         ByteArrayOutputStream outputStream = new ByteArrayOutputStream(data.length());
         GZIPOutputStream gzipStream = new GZIPOutputStream(outputStream);
@@ -0,0 +1,187 @@
+package org.odk.collect.android.tasks;
+
+import org.javarosa.core.model.FormDef;
+import org.javarosa.core.model.data.IntegerData;
+import org.javarosa.core.model.data.StringData;
+import org.javarosa.core.model.instance.TreeElement;
+import org.javarosa.xform.util.XFormUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.odk.collect.shared.TempFiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class SavePointJournalTest {
+
+    private File savepointFile;
+
+    @Before
+    public void setup() {
+        savepointFile = new File(TempFiles.createTempDir(), "instance.xml.save");
+    }
+
+    @Test
+    public void firstSavepoint_isWrittenInFull() throws Exception {
+        FormDef formDef = createFormDef();
+
+        assertThat(SavePointJournal.get(formDef, savepointFile).appendChangedAnswers(), is(false));
+    }
+
+    @Test
+    public void changedAnswers_areJournaledAndReplayed() throws Exception {
+        FormDef formDef = createFormDef();
+        SavePointJournal journal = SavePointJournal.get(formDef, savepointFile);
+        journal.appendChangedAnswers();
+        writeFullSavepoint();
+        journal.fullSavepointWritten();
+
+        getChild(formDef, "name").setValue(new StringData("Claire"));
+        assertThat(journal.appendChangedAnswers(), is(true));
+        getChild(formDef, "age").setValue(new IntegerData(35));
+        assertThat(journal.appendChangedAnswers(), is(true));
+
+        FormDef loadedFormDef = createFormDef();
+        SavePointJournal.replay(savepointFile, loadedFormDef);
+
+        assertThat(getChild(loadedFormDef, "name").getValue().uncast().getString(), equalTo("Claire"));
+        assertThat(getChild(loadedFormDef, "age").getValue(), equalTo(new IntegerData(35)));
+    }
+
+    @Test
+    public void whenSavepointChangesAfterJournalIsStarted_journalIsIgnored() throws Exception {
+        FormDef formDef = createFormDef();
+        SavePointJournal journal = SavePointJournal.get(formDef, savepointFile);
+        journal.appendChangedAnswers();
+        writeFullSavepoint();
+        journal.fullSavepointWritten();
+
+        getChild(formDef, "name").setValue(new StringData("Claire"));
+        journal.appendChangedAnswers();
+
+        try (Writer writer = new FileWriter(savepointFile, true)) {
+            writer.write("<!-- changed -->");
+        }
+
+        FormDef loadedFormDef = createFormDef();
+        SavePointJournal.replay(savepointFile, loadedFormDef);
+        assertThat(getChild(loadedFormDef, "name").getValue(), is(nullValue()));
+    }
+
+    @Test
+    public void whenJournalCantBeAppendedTo_fullSavepointIsNeeded() throws Exception {
+        FormDef formDef = createFormDef();
+        SavePointJournal journal = SavePointJournal.get(formDef, savepointFile);
+        journal.appendChangedAnswers();
+        writeFullSavepoint();
+        journal.fullSavepointWritten();
+
+        File journalFile = SavePointJournal.getJournalFile(savepointFile);
+        journalFile.mkdir();
+
+        getChild(formDef, "name").setValue(new StringData("Claire"));
+        assertThat(journal.appendChangedAnswers(), is(false));
+
+        writeFullSavepoint();
+        journal.fullSavepointWritten();
+        assertThat(journalFile.exists(), is(false));
+
+        getChild(formDef, "age").setValue(new IntegerData(35));
+        assertThat(journal.appendChangedAnswers(), is(true));
+    }
+
+    @Test
+    public void whenJournalRecordHasInvalidLength_earlierRecordsAreReplayed() throws Exception {
+        FormDef formDef = createFormDef();
+        SavePointJournal journal = SavePointJournal.get(formDef, savepointFile);
+        journal.appendChangedAnswers();
+        writeFullSavepoint();
+        journal.fullSavepointWritten();
+
+        getChild(formDef, "name").setValue(new StringData("Claire"));
+        journal.appendChangedAnswers();
+
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(SavePointJournal.getJournalFile(savepointFile), true))) {
+            out.writeInt(1);
+            out.writeInt(1);
+            out.writeUTF("data");
+            out.writeInt(0);
+            out.writeBoolean(true);
+            out.writeInt(-1);
+        }
+
+        FormDef loadedFormDef = createFormDef();
+        SavePointJournal.replay(savepointFile, loadedFormDef);
+        assertThat(getChild(loadedFormDef, "name").getValue().uncast().getString(), equalTo("Claire"));
+    }
+
+    @Test
+    public void whenJournalRecordHasLengthLongerThanJournal_earlierRecordsAreReplayed() throws Exception {
+        FormDef formDef = createFormDef();
+        SavePointJournal journal = SavePointJournal.get(formDef, savepointFile);
+        journal.appendChangedAnswers();
+        writeFullSavepoint();
+        journal.fullSavepointWritten();
+
+        getChild(formDef, "name").setValue(new StringData("Claire"));
+        journal.appendChangedAnswers();
+
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(SavePointJournal.getJournalFile(savepointFile), true))) {
+            out.writeInt(1);
+            out.writeInt(Integer.MAX_VALUE);
+        }
+
+        FormDef loadedFormDef = createFormDef();
+        SavePointJournal.replay(savepointFile, loadedFormDef);
+        assertThat(getChild(loadedFormDef, "name").getValue().uncast().getString(), equalTo("Claire"));
+    }
+
+    private void writeFullSavepoint() throws IOException {
+        try (Writer writer = new FileWriter(savepointFile)) {
+            writer.write("<data/>");
+        }
+    }
+
+    private static TreeElement getChild(FormDef formDef, String name) {
+        return formDef.getMainInstance().getRoot().getChild(name, 0);
+    }
+
+    private static FormDef createFormDef() {
+        return XFormUtils.getFormFromInputStream(new ByteArrayInputStream(FORM.getBytes()));
+    }
+
+    private static final String FORM = "<?xml version=\"1.0\"?>\n" +
+            "<h:html xmlns=\"http://www.w3.org/2002/xforms\" xmlns:h=\"http://www.w3.org/1999/xhtml\">\n" +
+            "    <h:head>\n" +
+            "        <h:title>Two Questions</h:title>\n" +
+            "        <model>\n" +
+            "            <instance>\n" +
+            "                <data id=\"two_questions\">\n" +
+            "                    <name/>\n" +
+            "                    <age/>\n" +
+            "                </data>\n" +
+            "            </instance>\n" +
+            "            <bind nodeset=\"/data/name\" type=\"string\"/>\n" +
+            "            <bind nodeset=\"/data/age\" type=\"int\"/>\n" +
+            "        </model>\n" +
+            "    </h:head>\n" +
+            "    <h:body>\n" +
+            "        <input ref=\"/data/name\">\n" +
+            "            <label>What is your name?</label>\n" +
+            "        </input>\n" +
+            "        <input ref=\"/data/age\">\n" +
+            "            <label>What is your age?</label>\n" +
+            "        </input>\n" +
+            "    </h:body>\n" +
+            "</h:html>";
+}
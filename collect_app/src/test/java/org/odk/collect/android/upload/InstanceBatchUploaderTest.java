@@ -0,0 +1,226 @@
+package org.odk.collect.android.upload;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.odk.collect.android.formmanagement.InstancesAppState;
+import org.odk.collect.android.support.CollectHelpers;
+import org.odk.collect.android.utilities.InstancesRepositoryProvider;
+import org.odk.collect.forms.instances.Instance;
+import org.odk.collect.formstest.InMemInstancesRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(AndroidJUnit4.class)
+public class InstanceBatchUploaderTest {
+
+    @Before
+    public void setup() {
+        CollectHelpers.setupDemoProject();
+    }
+
+    @Test
+    public void upload_reportsResultsInOrder() {
+        Instance first = instance(1L);
+        Instance second = instance(2L);
+        Instance third = instance(3L);
+        FakeUploader uploader = new FakeUploader(first, second, third).failing(2L);
+
+        List<String> results = new ArrayList<>();
+        boolean completed = new InstanceBatchUploader(uploader, 3).upload(asList(first, second, third), instance -> "http://example.com", null, new RecordingListener(results));
+
+        assertThat(completed, equalTo(true));
+        assertThat(results, contains("success:1", "failure:2", "success:3"));
+    }
+
+    @Test
+    public void upload_runsUploadsConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        InstanceUploader uploader = new FakeUploader() {
+            @Override
+            public String uploadOneSubmission(Instance instance, String destinationUrl) throws UploadException {
+                bothStarted.countDown();
+                try {
+                    if (!bothStarted.await(5, TimeUnit.SECONDS)) {
+                        throw new UploadException("Uploads weren't concurrent");
+                    }
+                } catch (InterruptedException e) {
+                    throw new UploadException(e);
+                }
+
+                return null;
+            }
+        };
+
+        List<String> results = new ArrayList<>();
+        new InstanceBatchUploader(uploader, 2).upload(asList(instance(1L), instance(2L)), instance -> "http://example.com", null, new RecordingListener(results));
+
+        assertThat(results, contains("success:1", "success:2"));
+    }
+
+    @Test
+    public void upload_whenCancelled_doesNotStartUploads() {
+        FakeUploader uploader = new FakeUploader();
+
+        List<String> results = new ArrayList<>();
+        boolean completed = new InstanceBatchUploader(uploader, 1).upload(asList(instance(1L), instance(2L)), instance -> "http://example.com", () -> true, new RecordingListener(results));
+
+        assertThat(completed, equalTo(false));
+        assertThat(results.isEmpty(), equalTo(true));
+        assertThat(uploader.uploaded.isEmpty(), equalTo(true));
+    }
+
+    @Test
+    public void upload_writesStatusesAsSoonAsUploadsFinish_andRefreshesCountsOnce() {
+        Instance first = instance(1L);
+        Instance second = instance(2L);
+        FakeUploader uploader = new FakeUploader(first, second).failing(2L);
+
+        List<String> statusesWhenReported = new ArrayList<>();
+        new InstanceBatchUploader(uploader, 2).upload(asList(first, second), instance -> "http://example.com", null, new InstanceBatchUploader.Listener() {
+            @Override
+            public void onSuccess(Instance instance, @Nullable String customMessage) {
+                statusesWhenReported.add(uploader.instancesRepository.get(instance.getDbId()).getStatus());
+            }
+
+            @Override
+            public void onFailure(Instance instance, UploadException exception) {
+                statusesWhenReported.add(uploader.instancesRepository.get(instance.getDbId()).getStatus());
+            }
+        });
+
+        assertThat(statusesWhenReported, contains(Instance.STATUS_SUBMITTED, Instance.STATUS_SUBMISSION_FAILED));
+        assertThat(uploader.instancesRepository.get(1L).getStatus(), equalTo(Instance.STATUS_SUBMITTED));
+        assertThat(uploader.instancesRepository.get(2L).getStatus(), equalTo(Instance.STATUS_SUBMISSION_FAILED));
+        verify(uploader.instancesAppState, times(1)).update();
+    }
+
+    @Test
+    public void upload_whenCancelledPartWayThrough_writesStatusesOfFinishedUploads() {
+        Instance first = instance(1L);
+        Instance second = instance(2L);
+        FakeUploader uploader = new FakeUploader(first, second);
+
+        List<String> results = new ArrayList<>();
+        boolean completed = new InstanceBatchUploader(uploader, 1).upload(asList(first, second), instance -> "http://example.com", () -> !uploader.uploaded.isEmpty(), new RecordingListener(results));
+
+        assertThat(completed, equalTo(false));
+        assertThat(results, contains("success:1"));
+        assertThat(uploader.instancesRepository.get(1L).getStatus(), equalTo(Instance.STATUS_SUBMITTED));
+        assertThat(uploader.instancesRepository.get(2L).getStatus(), equalTo(Instance.STATUS_COMPLETE));
+        verify(uploader.instancesAppState, times(1)).update();
+    }
+
+    @Test
+    public void submissionComplete_whenBatchIsCutShort_hasStillWrittenStatuses() {
+        Instance first = instance(1L);
+        Instance second = instance(2L);
+        FakeUploader uploader = new FakeUploader(first, second);
+
+        uploader.startBatchingStatusUpdates();
+        uploader.submissionComplete(first, true);
+        uploader.submissionComplete(second, false);
+
+        // The batch is never finished (as if the process was killed)
+        assertThat(uploader.instancesRepository.get(1L).getStatus(), equalTo(Instance.STATUS_SUBMITTED));
+        assertThat(uploader.instancesRepository.get(2L).getStatus(), equalTo(Instance.STATUS_SUBMISSION_FAILED));
+        verify(uploader.instancesAppState, never()).update();
+    }
+
+    @Test
+    public void submissionComplete_whenNotBatching_writesStatusStraightAway() {
+        Instance instance = instance(1L);
+        FakeUploader uploader = new FakeUploader(instance);
+
+        uploader.submissionComplete(instance, true);
+
+        assertThat(uploader.instancesRepository.get(1L).getStatus(), equalTo(Instance.STATUS_SUBMITTED));
+        verify(uploader.instancesAppState, times(1)).update();
+    }
+
+    private static Instance instance(long dbId) {
+        return new Instance.Builder()
+                .dbId(dbId)
+                .formId("formId")
+                .instanceFilePath("/instance-" + dbId + ".xml")
+                .status(Instance.STATUS_COMPLETE)
+                .build();
+    }
+
+    private static class FakeUploader extends InstanceUploader {
+
+        private final InMemInstancesRepository instancesRepository;
+        private final List<Long> uploaded = new ArrayList<>();
+        private List<Long> failingInstances = new ArrayList<>();
+
+        FakeUploader(Instance... instances) {
+            instancesRepository = new InMemInstancesRepository(asList(instances));
+            instancesRepositoryProvider = mock(InstancesRepositoryProvider.class);
+            when(instancesRepositoryProvider.get()).thenReturn(instancesRepository);
+            instancesAppState = mock(InstancesAppState.class);
+        }
+
+        FakeUploader failing(Long... failingInstances) {
+            this.failingInstances = asList(failingInstances);
+            return this;
+        }
+
+        @Nullable
+        @Override
+        public String uploadOneSubmission(Instance instance, String destinationUrl) throws UploadException {
+            synchronized (uploaded) {
+                uploaded.add(instance.getDbId());
+            }
+
+            boolean successful = !failingInstances.contains(instance.getDbId());
+            submissionComplete(instance, successful);
+            if (!successful) {
+                throw new UploadException("Failed");
+            }
+
+            return null;
+        }
+
+        @NonNull
+        @Override
+        public String getUrlToSubmitTo(Instance currentInstance, String deviceId, String overrideURL, String urlFromSettings) {
+            return "http://example.com";
+        }
+    }
+
+    private static class RecordingListener implements InstanceBatchUploader.Listener {
+
+        private final List<String> results;
+
+        RecordingListener(List<String> results) {
+            this.results = results;
+        }
+
+        @Override
+        public void onSuccess(Instance instance, @Nullable String customMessage) {
+            results.add("success:" + instance.getDbId());
+        }
+
+        @Override
+        public void onFailure(Instance instance, UploadException exception) {
+            results.add("failure:" + instance.getDbId());
+        }
+    }
+}
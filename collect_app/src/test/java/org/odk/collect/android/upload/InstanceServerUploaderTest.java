@@ -0,0 +1,104 @@
+package org.odk.collect.android.upload;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.odk.collect.android.formmanagement.InstancesAppState;
+import org.odk.collect.android.openrosa.CaseInsensitiveEmptyHeaders;
+import org.odk.collect.android.openrosa.HttpHeadResult;
+import org.odk.collect.android.openrosa.HttpPostResult;
+import org.odk.collect.android.openrosa.OpenRosaHttpInterface;
+import org.odk.collect.android.support.CollectHelpers;
+import org.odk.collect.android.utilities.InstancesRepositoryProvider;
+import org.odk.collect.android.utilities.WebCredentialsUtils;
+import org.odk.collect.forms.instances.Instance;
+import org.odk.collect.formstest.InMemInstancesRepository;
+import org.odk.collect.shared.Settings;
+import org.odk.collect.shared.TempFiles;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.net.URI;
+import java.util.HashMap;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(AndroidJUnit4.class)
+public class InstanceServerUploaderTest {
+
+    private static final String URL = "https://example.com/submission?deviceID=device";
+    private static final String OTHER_URL = "https://other.example.com/submission?deviceID=device";
+
+    private final OpenRosaHttpInterface httpInterface = mock(OpenRosaHttpInterface.class);
+    private InstanceServerUploader uploader;
+
+    @Before
+    public void setup() throws Exception {
+        CollectHelpers.setupDemoProject();
+
+        when(httpInterface.executeHeadRequest(any(), any())).thenReturn(new HttpHeadResult(204, new CaseInsensitiveEmptyHeaders()));
+        when(httpInterface.uploadSubmissionAndFiles(any(), any(), any(), any(), anyLong(), anyBoolean(), any()))
+                .thenReturn(new HttpPostResult("", 201, ""));
+
+        uploader = new InstanceServerUploader(httpInterface, mock(WebCredentialsUtils.class), new HashMap<>(), mock(Settings.class));
+        uploader.instancesRepositoryProvider = mock(InstancesRepositoryProvider.class);
+        when(uploader.instancesRepositoryProvider.get()).thenReturn(new InMemInstancesRepository());
+        uploader.instancesAppState = mock(InstancesAppState.class);
+    }
+
+    @Test
+    public void uploadOneSubmission_probesEachEndpointOnce() throws Exception {
+        uploader.uploadOneSubmission(instance(1L), URL);
+        uploader.uploadOneSubmission(instance(2L), URL);
+        uploader.uploadOneSubmission(instance(3L), OTHER_URL);
+        uploader.uploadOneSubmission(instance(4L), URL);
+        uploader.uploadOneSubmission(instance(5L), OTHER_URL);
+
+        verify(httpInterface, times(1)).executeHeadRequest(eq(URI.create(URL)), any());
+        verify(httpInterface, times(1)).executeHeadRequest(eq(URI.create(OTHER_URL)), any());
+        verify(httpInterface, times(5)).uploadSubmissionAndFiles(any(), any(), any(), any(), anyLong(), anyBoolean(), any());
+    }
+
+    @Test
+    public void uploadOneSubmission_whenProbeFails_probesAgainForNextSubmission() throws Exception {
+        when(httpInterface.executeHeadRequest(any(), any()))
+                .thenThrow(new IOException("Network error"))
+                .thenReturn(new HttpHeadResult(204, new CaseInsensitiveEmptyHeaders()));
+
+        try {
+            uploader.uploadOneSubmission(instance(1L), URL);
+        } catch (UploadException e) {
+            // Expected
+        }
+        uploader.uploadOneSubmission(instance(2L), URL);
+        uploader.uploadOneSubmission(instance(3L), URL);
+
+        verify(httpInterface, times(2)).executeHeadRequest(eq(URI.create(URL)), any());
+        verify(httpInterface, times(2)).uploadSubmissionAndFiles(any(), any(), any(), any(), anyLong(), anyBoolean(), any());
+    }
+
+    private static Instance instance(long dbId) throws IOException {
+        File instanceFile = new File(TempFiles.createTempDir(), "instance.xml");
+        try (Writer writer = new FileWriter(instanceFile)) {
+            writer.write("<data/>");
+        }
+
+        return new Instance.Builder()
+                .dbId(dbId)
+                .formId("formId")
+                .instanceFilePath(instanceFile.getAbsolutePath())
+                .status(Instance.STATUS_COMPLETE)
+                .build();
+    }
+}
@@ -0,0 +1,97 @@
+package org.odk.collect.android.utilities;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.odk.collect.android.storage.StoragePathProvider;
+import org.odk.collect.android.storage.StorageSubdirectory;
+import org.odk.collect.android.support.CollectHelpers;
+import org.odk.collect.shared.TempFiles;
+import org.odk.collect.shared.strings.Md5;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+@RunWith(AndroidJUnit4.class)
+public class FileMd5CacheTest {
+
+    private File file;
+
+    @Before
+    public void setup() throws IOException {
+        CollectHelpers.setupDemoProject();
+
+        file = new File(new StoragePathProvider().getOdkDirPath(StorageSubdirectory.FORMS) + File.separator + "data.csv");
+        write(file, "name,label\napple,Apple", false);
+    }
+
+    @Test
+    public void getMd5Hash_returnsSameHashAsMd5() {
+        assertThat(FileMd5Cache.getMd5Hash(file), is(Md5.getMd5Hash(file)));
+        assertThat(FileMd5Cache.getMd5Hash(file), is(Md5.getMd5Hash(file)));
+    }
+
+    @Test
+    public void getMd5Hash_whenFileChanges_returnsNewHash() throws IOException {
+        String originalHash = FileMd5Cache.getMd5Hash(file);
+
+        write(file, "\nbanana,Banana", true);
+
+        assertThat(FileMd5Cache.getMd5Hash(file), is(not(originalHash)));
+        assertThat(FileMd5Cache.getMd5Hash(file), is(Md5.getMd5Hash(file)));
+    }
+
+    @Test
+    public void getMd5Hash_whenSizeAndLastModifiedAreUnchanged_doesNotHashFileAgain() throws IOException {
+        File file = new File(TempFiles.createTempDir(), "data.csv");
+        write(file, "name,label\napple,Apple", false);
+        long lastModified = file.lastModified();
+        String originalHash = FileMd5Cache.getMd5Hash(file);
+
+        // Same size and last modified time so only reading the file would show the change
+        write(file, "name,label\nmango,Mango", false);
+        file.setLastModified(lastModified);
+
+        assertThat(FileMd5Cache.getMd5Hash(file), is(originalHash));
+        assertThat(Md5.getMd5Hash(file), is(not(originalHash)));
+    }
+
+    @Test
+    public void getMd5Hash_whenFileDoesNotExist_returnsNull() {
+        assertThat(FileMd5Cache.getMd5Hash(new File(file.getParentFile(), "missing.csv")), is(nullValue()));
+    }
+
+    @Test
+    public void getMd5Hashes_returnsHashesOfFilesThatExist() throws IOException {
+        File otherFile = new File(file.getParentFile(), "other.csv");
+        write(otherFile, "name,label\nbanana,Banana", false);
+        File missingFile = new File(file.getParentFile(), "missing.csv");
+        File indexFile = new File(file.getParentFile(), "media.md5-index");
+
+        Map<File, String> hashes = FileMd5Cache.getMd5Hashes(indexFile, asList(file, otherFile, missingFile));
+
+        assertThat(hashes.size(), is(2));
+        assertThat(hashes.get(file), is(Md5.getMd5Hash(file)));
+        assertThat(hashes.get(otherFile), is(Md5.getMd5Hash(otherFile)));
+        assertThat(FileMd5Cache.getMd5Hashes(indexFile, asList(file, otherFile)), is(hashes));
+    }
+
+    private static void write(File file, String contents, boolean append) throws IOException {
+        file.getParentFile().mkdirs();
+        try (Writer out = new BufferedWriter(new FileWriter(file, append))) {
+            out.write(contents);
+        }
+    }
+}
@@ -20,4 +20,11 @@ public interface FormSource {
 
     @NotNull
     InputStream fetchMediaFile(String mediaFileURL) throws FormSourceException;
+
+    /**
+     * Fetches a media file's contents starting at {@code fromByte} so that a partial download
+     * can be resumed rather than started again.
+     */
+    @NotNull
+    InputStream fetchMediaFile(String mediaFileURL, long fromByte) throws FormSourceException;
 }
@@ -39,6 +39,10 @@ public final class Instance {
     private final Long deletedDate;
     private final String geometryType;
     private final String geometry;
+    private final Double geometryMinLatitude;
+    private final Double geometryMinLongitude;
+    private final Double geometryMaxLatitude;
+    private final Double geometryMaxLongitude;
 
     private final Long dbId;
 
@@ -54,6 +58,10 @@ public final class Instance {
         deletedDate = builder.deletedDate;
         geometryType = builder.geometryType;
         geometry = builder.geometry;
+        geometryMinLatitude = builder.geometryMinLatitude;
+        geometryMinLongitude = builder.geometryMinLongitude;
+        geometryMaxLatitude = builder.geometryMaxLatitude;
+        geometryMaxLongitude = builder.geometryMaxLongitude;
 
         dbId = builder.dbId;
     }
@@ -70,6 +78,10 @@ public final class Instance {
         private Long deletedDate;
         private String geometryType;
         private String geometry;
+        private Double geometryMinLatitude;
+        private Double geometryMinLongitude;
+        private Double geometryMaxLatitude;
+        private Double geometryMaxLongitude;
 
         private Long dbId;
 
@@ -90,6 +102,10 @@ public final class Instance {
             deletedDate = instance.deletedDate;
             geometryType = instance.geometryType;
             geometry = instance.geometry;
+            geometryMinLatitude = instance.geometryMinLatitude;
+            geometryMinLongitude = instance.geometryMinLongitude;
+            geometryMaxLatitude = instance.geometryMaxLatitude;
+            geometryMaxLongitude = instance.geometryMaxLongitude;
         }
 
         public Builder displayName(String displayName) {
@@ -147,6 +163,18 @@ public final class Instance {
             return this;
         }
 
+        /**
+         * Sets the bounding box of the geometry (the same point twice for a point) so that it can
+         * be looked up by location without parsing the GeoJSON. All null if there's no geometry.
+         */
+        public Builder geometryBounds(Double minLatitude, Double minLongitude, Double maxLatitude, Double maxLongitude) {
+            this.geometryMinLatitude = minLatitude;
+            this.geometryMinLongitude = minLongitude;
+            this.geometryMaxLatitude = maxLatitude;
+            this.geometryMaxLongitude = maxLongitude;
+            return this;
+        }
+
         public Builder dbId(Long dbId) {
             this.dbId = dbId;
             return this;
@@ -201,6 +229,22 @@ public final class Instance {
         return geometry;
     }
 
+    public Double getGeometryMinLatitude() {
+        return geometryMinLatitude;
+    }
+
+    public Double getGeometryMinLongitude() {
+        return geometryMinLongitude;
+    }
+
+    public Double getGeometryMaxLatitude() {
+        return geometryMaxLatitude;
+    }
+
+    public Double getGeometryMaxLongitude() {
+        return geometryMaxLongitude;
+    }
+
     public Long getDbId() {
         return dbId;
     }
@@ -34,6 +34,14 @@ public interface InstancesRepository {
 
     List<Instance> getAllByFormId(String formId);
 
+    /**
+     * Instances of the given form whose geometry's bounding box intersects the given one. If
+     * minLongitude is greater than maxLongitude, the box spans the antimeridian. Instances without
+     * geometry are not included.
+     */
+    List<Instance> getAllByFormIdInBounds(String formId, double minLatitude, double minLongitude,
+                                          double maxLatitude, double maxLongitude);
+
     List<Instance> getAllNotDeletedByFormIdAndVersion(String formId, String version);
 
     void delete(Long id);
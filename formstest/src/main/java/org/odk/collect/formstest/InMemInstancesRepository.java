@@ -109,6 +109,23 @@ public final class InMemInstancesRepository implements InstancesRepository {
         return result;
     }
 
+    @Override
+    public List<Instance> getAllByFormIdInBounds(String formId, double minLatitude, double minLongitude,
+                                                 double maxLatitude, double maxLongitude) {
+        return instances.stream().filter(instance -> {
+            if (!instance.getFormId().equals(formId) || instance.getGeometryMinLatitude() == null) {
+                return false;
+            }
+
+            boolean latitudeIntersects = instance.getGeometryMaxLatitude() >= minLatitude
+                    && instance.getGeometryMinLatitude() <= maxLatitude;
+            boolean longitudeIntersects = minLongitude <= maxLongitude
+                    ? instance.getGeometryMaxLongitude() >= minLongitude && instance.getGeometryMinLongitude() <= maxLongitude
+                    : instance.getGeometryMaxLongitude() >= minLongitude || instance.getGeometryMinLongitude() <= maxLongitude;
+            return latitudeIntersects && longitudeIntersects;
+        }).collect(Collectors.toList());
+    }
+
     @Override
     public List<Instance> getAllNotDeletedByFormIdAndVersion(String formId, String version) {
         return instances.stream().filter(instance -> {
@@ -174,6 +191,7 @@ public final class InMemInstancesRepository implements InstancesRepository {
         Instance instance = new Instance.Builder(get(id))
                 .geometry(null)
                 .geometryType(null)
+                .geometryBounds(null, null, null, null)
                 .deletedDate(clock.get())
                 .build();
 
@@ -133,6 +133,47 @@ public abstract class InstancesRepositoryTest {
         assertThat(instances.size(), is(4));
     }
 
+    @Test
+    public void getAllByFormIdInBounds_returnsInstancesForFormWithGeometryInBounds() {
+        InstancesRepository instancesRepository = buildSubject();
+
+        Instance inBounds = instancesRepository.save(InstanceUtils.buildInstance("formid", "1", getInstancesDir())
+                .geometryBounds(10.0, 20.0, 10.0, 20.0)
+                .build());
+        instancesRepository.save(InstanceUtils.buildInstance("formid", "1", getInstancesDir())
+                .geometryBounds(30.0, 20.0, 30.0, 20.0)
+                .build());
+        instancesRepository.save(InstanceUtils.buildInstance("formid", "1", getInstancesDir())
+                .geometryBounds(10.0, -20.0, 10.0, -20.0)
+                .build());
+        instancesRepository.save(InstanceUtils.buildInstance("formid", "1", getInstancesDir()).build());
+        instancesRepository.save(InstanceUtils.buildInstance("formid2", "1", getInstancesDir())
+                .geometryBounds(10.0, 20.0, 10.0, 20.0)
+                .build());
+
+        List<Instance> instances = instancesRepository.getAllByFormIdInBounds("formid", 0, 0, 20, 25);
+        assertThat(instances.size(), is(1));
+        assertThat(instances.get(0).getDbId(), is(inBounds.getDbId()));
+    }
+
+    @Test
+    public void getAllByFormIdInBounds_whenBoundsSpanAntimeridian_returnsInstancesOnBothSides() {
+        InstancesRepository instancesRepository = buildSubject();
+
+        instancesRepository.save(InstanceUtils.buildInstance("formid", "1", getInstancesDir())
+                .geometryBounds(10.0, 179.0, 10.0, 179.0)
+                .build());
+        instancesRepository.save(InstanceUtils.buildInstance("formid", "1", getInstancesDir())
+                .geometryBounds(10.0, -179.0, 10.0, -179.0)
+                .build());
+        instancesRepository.save(InstanceUtils.buildInstance("formid", "1", getInstancesDir())
+                .geometryBounds(10.0, 0.0, 10.0, 0.0)
+                .build());
+
+        List<Instance> instances = instancesRepository.getAllByFormIdInBounds("formid", 0, 170, 20, -170);
+        assertThat(instances.size(), is(2));
+    }
+
     @Test
     public void getAllByFormIdAndVersionNotDeleted_excludesDeleted() {
         InstancesRepository instancesRepository = buildSubject();
@@ -288,11 +329,14 @@ public abstract class InstancesRepositoryTest {
         Instance instance = instancesRepository.save(InstanceUtils.buildInstance("formid", "1", getInstancesDir())
                 .geometry("blah")
                 .geometryType("blah")
+                .geometryBounds(1.0, 2.0, 1.0, 2.0)
                 .build());
 
         instancesRepository.deleteWithLogging(instance.getDbId());
         assertThat(instancesRepository.get(instance.getDbId()).getGeometry(), is(nullValue()));
         assertThat(instancesRepository.get(instance.getDbId()).getGeometryType(), is(nullValue()));
+        assertThat(instancesRepository.get(instance.getDbId()).getGeometryMinLatitude(), is(nullValue()));
+        assertThat(instancesRepository.get(instance.getDbId()).getGeometryMaxLongitude(), is(nullValue()));
     }
 
     @Test
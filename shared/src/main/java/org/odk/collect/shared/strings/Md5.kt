@@ -29,6 +29,18 @@ object Md5 {
         return getMd5Hash(inputStream, bufSize)
     }
 
+    /**
+     * Formats an MD5 digest as 32 lowercase hex characters
+     */
+    @JvmStatic
+    fun toHexString(digest: ByteArray): String {
+        val md5 = StringBuilder(BigInteger(1, digest).toString(16))
+        while (md5.length < 32) {
+            md5.insert(0, "0")
+        }
+        return md5.toString()
+    }
+
     @JvmStatic
     @JvmOverloads
     fun getMd5Hash(inputStream: InputStream, bufSize: Int = 16 * 1024): String? {
@@ -42,12 +54,8 @@ object Md5 {
                 }
                 md.update(buffer, 0, result)
             }
-            val md5 = StringBuilder(BigInteger(1, md.digest()).toString(16))
-            while (md5.length < 32) {
-                md5.insert(0, "0")
-            }
             inputStream.close()
-            md5.toString()
+            toHexString(md.digest())
         } catch (e: NoSuchAlgorithmException) {
             null
         } catch (e: IOException) {
@@ -31,6 +31,8 @@ class FakeScheduler : Scheduler {
     ) {
     }
 
+    override fun idleDeferred(tag: String, spec: TaskSpec, inputData: Map<String, String>) {}
+
     override fun repeat(foreground: Runnable, repeatPeriod: Long): Cancellable {
         foregroundTasks.add(foreground)
 